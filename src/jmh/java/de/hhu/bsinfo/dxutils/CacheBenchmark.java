@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of inserting into a full cache (every put evicts an entry). With O(1) eviction the latency
+ * has to stay flat for growing cache sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int m_size;
+
+    @Param({"LRU", "TINY_LFU"})
+    private Cache.POLICY m_policy;
+
+    private Cache<Long, Long> m_cache;
+    private long m_nextKey;
+    private long m_readCount;
+
+    /**
+     * Creates a full cache
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        m_cache = new Cache<>(m_size, m_policy);
+
+        for (m_nextKey = 0; m_nextKey < m_size; m_nextKey++) {
+            m_cache.put(m_nextKey, m_nextKey);
+        }
+    }
+
+    /**
+     * Inserts a new key (evicts one entry)
+     */
+    @Benchmark
+    public void putEvict() {
+        m_cache.put(m_nextKey, m_nextKey);
+        m_nextKey++;
+    }
+
+    /**
+     * Reads a present key (moves it in the access order)
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Long getHit() {
+        // keys [m_nextKey - m_size, m_nextKey) are cached
+        return m_cache.get(m_nextKey - m_size + m_readCount++ % m_size);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of concurrent reads of present keys from a single Cache and LongCache. Every read updates
+ * the eviction order, so the readers contend if they serialize on it. Run with -t to compare thread counts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CacheGetBenchmark {
+
+    @Param({"100000"})
+    private int m_size;
+
+    @Param({"LRU", "TINY_LFU"})
+    private Cache.POLICY m_policy;
+
+    private Cache<Long, Long> m_cache;
+    private LongCache<Long> m_longCache;
+
+    /**
+     * Creates the full caches
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_cache = new Cache<>(m_size, m_policy);
+        m_longCache = new LongCache<>(m_size);
+
+        for (long key = 1; key <= m_size; key++) {
+            m_cache.put(key, key);
+            m_longCache.put(key, key);
+        }
+    }
+
+    /**
+     * Reads a random present key from the Cache
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Long getCache() {
+        return m_cache.get(ThreadLocalRandom.current().nextLong(m_size) + 1);
+    }
+
+    /**
+     * Reads a random present key from the LongCache (the policy parameter does not apply)
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Long getLongCache() {
+        return m_longCache.get(ThreadLocalRandom.current().nextLong(m_size) + 1);
+    }
+}
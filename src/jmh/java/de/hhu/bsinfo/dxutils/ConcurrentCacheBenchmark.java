@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the read throughput of a single lock Cache with the lock striped ConcurrentCache. Run with different
+ * thread counts (-t) to see the scaling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ConcurrentCacheBenchmark {
+
+    private static final int SIZE = 100000;
+
+    private Cache<Integer, Integer> m_cache;
+    private ConcurrentCache<Integer, Integer> m_concurrentCache;
+    private Integer[] m_keys;
+
+    /**
+     * Fills both caches
+     */
+    @Setup
+    public void setup() {
+        m_cache = new Cache<>(SIZE, Cache.POLICY.LRU);
+        m_concurrentCache = new ConcurrentCache<>(SIZE, Cache.POLICY.LRU, 64);
+        m_keys = new Integer[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            m_keys[i] = i;
+            m_cache.put(m_keys[i], i);
+            m_concurrentCache.put(m_keys[i], i);
+        }
+    }
+
+    /**
+     * Reads from the single lock cache
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Integer getSingleLock() {
+        return m_cache.get(m_keys[ThreadLocalRandom.current().nextInt(SIZE)]);
+    }
+
+    /**
+     * Reads from the striped cache
+     *
+     * @return the value
+     */
+    @Benchmark
+    public Integer getStriped() {
+        return m_concurrentCache.get(m_keys[ThreadLocalRandom.current().nextInt(SIZE)]);
+    }
+}
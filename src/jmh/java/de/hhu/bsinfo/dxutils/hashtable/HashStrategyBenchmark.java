@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the hash strategies on chunk IDs (node ID in the upper 16 bits, sequential local IDs) in the default
+ * and (suffix _POW2) the power of two mode. Identity hashing is left out, the node ID bits end up on (nearly) the same
+ * homes in both modes and the table degenerates into one long cluster. The probe lengths (collisions) of every layout
+ * are printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashStrategyBenchmark {
+
+    private static final int NODES = 16;
+    private static final int SIZE = 1 << 20;
+
+    @Param({"MURMUR3", "MIX64", "FIBONACCI", "MURMUR3_POW2", "MIX64_POW2", "FIBONACCI_POW2"})
+    private String m_layout;
+
+    private LongHashTable m_table;
+    private long[] m_keys;
+    private int m_next;
+
+    /**
+     * Fills the table with the chunk IDs of NODES nodes
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        int mode = m_layout.endsWith("_POW2") ? HashTableMode.POWER_OF_TWO : HashTableMode.DEFAULT;
+        HashStrategy strategy;
+
+        switch (m_layout.replace("_POW2", "")) {
+            case "MIX64":
+                strategy = HashStrategy.MIX64;
+                break;
+            case "FIBONACCI":
+                strategy = HashStrategy.FIBONACCI;
+                break;
+            default:
+                strategy = HashStrategy.MURMUR3;
+                break;
+        }
+
+        // An odd capacity for the default mode (2 * SIZE in the power of two mode)
+        m_table = new LongHashTable(SIZE * 2 - 1, mode, strategy);
+        m_keys = new long[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            // Node IDs as assigned by DXRAM (multiples of 0x40), local IDs start at 1
+            m_keys[i] = (long) (i % NODES + 1) * 0x40 << 48 | i / NODES + 1;
+            m_table.put(m_keys[i], i);
+        }
+
+        // Look the keys up in random order
+        for (int i = SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = m_keys[i];
+            m_keys[i] = m_keys[j];
+            m_keys[j] = tmp;
+        }
+
+        System.out.printf("%n%s: max probe length %d, average probe length %.2f%n", m_layout,
+                m_table.getMaxProbeLength(), m_table.getAverageProbeLength());
+    }
+
+    /**
+     * Looks up a present key
+     *
+     * @return the value
+     */
+    @Benchmark
+    public long get() {
+        return m_table.get(m_keys[m_next++ & SIZE - 1]);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares single lookups with batched lookups (getAll) of random keys in a LongIntHashTable. With 16 million
+ * entries the table is far larger than the last level cache and almost every lookup misses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Thread)
+public class HashTableBatchBenchmark {
+
+    private static final int BATCH = 1024;
+    private static final int BATCHES = 256;
+
+    @Param({"65536", "16777216"})
+    private int m_size;
+
+    private LongIntHashTable m_table;
+    private long[][] m_keys;
+    private int[] m_values;
+    private int m_next;
+
+    /**
+     * Fills the table and prepares batches of random present keys
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        long[] keys = new long[m_size];
+
+        m_table = new LongIntHashTable(m_size * 2, HashTableMode.POWER_OF_TWO);
+        for (int i = 0; i < m_size; i++) {
+            keys[i] = random.nextLong() | 1;
+            m_table.put(keys[i], i);
+        }
+
+        m_keys = new long[BATCHES][BATCH];
+        for (int i = 0; i < BATCHES; i++) {
+            for (int j = 0; j < BATCH; j++) {
+                m_keys[i][j] = keys[random.nextInt(m_size)];
+            }
+        }
+        m_values = new int[BATCH];
+    }
+
+    /**
+     * Looks up a batch of keys one after another
+     *
+     * @return the values
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] single() {
+        long[] keys = m_keys[m_next++ % BATCHES];
+
+        for (int i = 0; i < BATCH; i++) {
+            m_values[i] = m_table.get(keys[i]);
+        }
+
+        return m_values;
+    }
+
+    /**
+     * Looks up a batch of keys with getAll
+     *
+     * @return the values
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] batched() {
+        m_table.getAll(m_keys[m_next++ % BATCHES], m_values);
+
+        return m_values;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares lookups in the default (modulo) and the power of two mode of the hash tables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashTableModeBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int m_size;
+
+    @Param({"DEFAULT", "POWER_OF_TWO"})
+    private String m_mode;
+
+    private LongHashTable m_longTable;
+    private LongIntHashTable m_longIntTable;
+    private long[] m_keys;
+    private int m_next;
+
+    /**
+     * Fills the tables with random keys
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        int mode = "POWER_OF_TWO".equals(m_mode) ? HashTableMode.POWER_OF_TWO : HashTableMode.DEFAULT;
+
+        m_longTable = new LongHashTable(100, mode);
+        m_longIntTable = new LongIntHashTable(100, mode);
+        m_keys = new long[m_size];
+
+        for (int i = 0; i < m_size; i++) {
+            long key;
+
+            do {
+                key = random.nextLong();
+            } while (key == 0);
+
+            m_keys[i] = key;
+            m_longTable.put(key, i);
+            m_longIntTable.put(key, i);
+        }
+    }
+
+    /**
+     * Looks up a present key in a LongHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public long longGet() {
+        return m_longTable.get(m_keys[m_next++ % m_size]);
+    }
+
+    /**
+     * Looks up a present key in a LongIntHashTable
+     *
+     * @return the value
+     */
+    @Benchmark
+    public int longIntGet() {
+        return m_longIntTable.get(m_keys[m_next++ % m_size]);
+    }
+
+    /**
+     * Looks up a missing key in a LongHashTable
+     *
+     * @return the value (-1)
+     */
+    @Benchmark
+    public long longGetMiss() {
+        return m_longTable.get(-m_keys[m_next++ % m_size] | 1);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares lookups in linear probing and Robin Hood mode of a LongHashTable filled close to its load factor.
+ * The probe lengths of both layouts are printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashTableProbeBenchmark {
+
+    private static final int CAPACITY = 1 << 20;
+    private static final int SIZE = (int) (CAPACITY * 0.88);
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    private String m_keys;
+
+    @Param({"LINEAR", "ROBIN_HOOD"})
+    private String m_mode;
+
+    private LongHashTable m_table;
+    private long[] m_present;
+    private long[] m_missing;
+    private int m_next;
+
+    /**
+     * Fills the table without triggering a rehash
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        int mode = HashTableMode.POWER_OF_TWO;
+
+        if ("ROBIN_HOOD".equals(m_mode)) {
+            mode |= HashTableMode.ROBIN_HOOD;
+        }
+
+        m_table = new LongHashTable(CAPACITY, mode);
+        m_present = new long[SIZE];
+        m_missing = new long[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            if ("SEQUENTIAL".equals(m_keys)) {
+                m_present[i] = i + 1;
+                m_missing[i] = SIZE + i + 1;
+            } else {
+                // Odd keys are present, even keys are missing
+                m_present[i] = random.nextLong() | 1;
+                m_missing[i] = random.nextLong() & ~1L | 2;
+            }
+
+            m_table.put(m_present[i], i);
+        }
+
+        System.out.printf("%n%s/%s: max probe length %d, average probe length %.2f%n", m_keys, m_mode,
+                m_table.getMaxProbeLength(), m_table.getAverageProbeLength());
+    }
+
+    /**
+     * Looks up a present key
+     *
+     * @return the value
+     */
+    @Benchmark
+    public long getHit() {
+        return m_table.get(m_present[m_next++ % SIZE]);
+    }
+
+    /**
+     * Looks up a missing key
+     *
+     * @return the value (-1)
+     */
+    @Benchmark
+    public long getMiss() {
+        return m_table.get(m_missing[m_next++ % SIZE]);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Samples the latency of puts into a growing LongHashTable with and without incremental rehashing. The table is
+ * recreated after 8 million entries, so every run contains rehashes of large tables. Compare the high percentiles.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Thread)
+public class HashTableRehashBenchmark {
+
+    private static final int MAX_ENTRIES = 8 * 1024 * 1024;
+
+    @Param({"POWER_OF_TWO", "INCREMENTAL_REHASH"})
+    private String m_mode;
+
+    private int m_flags;
+    private LongHashTable m_table;
+    private long m_next;
+
+    /**
+     * Creates the table
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_flags = HashTableMode.POWER_OF_TWO;
+        if ("INCREMENTAL_REHASH".equals(m_mode)) {
+            m_flags |= HashTableMode.INCREMENTAL_REHASH;
+        }
+
+        m_table = new LongHashTable(1024, m_flags);
+    }
+
+    /**
+     * Puts a new key
+     *
+     * @return the table
+     */
+    @Benchmark
+    public LongHashTable put() {
+        if (++m_next % MAX_ENTRIES == 0) {
+            m_table = new LongHashTable(1024, m_flags);
+        }
+
+        m_table.put(m_next, m_next);
+
+        return m_table;
+    }
+}
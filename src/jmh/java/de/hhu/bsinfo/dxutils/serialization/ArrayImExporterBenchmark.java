@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+
+/**
+ * Writes and reads back an array of 4096 longs (an array-heavy message) with the ByteBufferImExporter on a direct
+ * buffer and the UnsafeImExporter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArrayImExporterBenchmark {
+
+    private static final int LENGTH = 4096;
+
+    @Param({"BYTE_BUFFER", "UNSAFE"})
+    private String m_backend;
+
+    private long m_address;
+    private ByteBufferImExporter m_byteBufferImExporter;
+    private UnsafeImExporter m_unsafeImExporter;
+    private ByteBuffer m_buffer;
+    private long[] m_array;
+
+    /**
+     * Allocates the memory
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        int size = LENGTH * Long.BYTES;
+
+        m_address = UnsafeMemory.allocate(size);
+        m_buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        m_byteBufferImExporter = new ByteBufferImExporter(m_buffer);
+        m_unsafeImExporter = new UnsafeImExporter(m_address, size);
+        m_array = new long[LENGTH];
+    }
+
+    /**
+     * Frees the memory
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        UnsafeMemory.free(m_address);
+    }
+
+    /**
+     * Writes and reads the array
+     *
+     * @return the last element
+     */
+    @Benchmark
+    public long writeReadLongs() {
+        if ("UNSAFE".equals(m_backend)) {
+            m_unsafeImExporter.setPosition(0);
+            m_unsafeImExporter.writeLongs(m_array);
+            m_unsafeImExporter.setPosition(0);
+            m_unsafeImExporter.readLongs(m_array);
+        } else {
+            m_buffer.clear();
+            m_byteBufferImExporter.writeLongs(m_array);
+            m_buffer.clear();
+            m_byteBufferImExporter.readLongs(m_array);
+        }
+
+        return m_array[LENGTH - 1];
+    }
+}
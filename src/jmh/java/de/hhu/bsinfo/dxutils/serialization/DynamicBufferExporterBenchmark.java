@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exports a message of a few fields and 512 longs into a direct buffer sized with sizeofObject() (allocated per
+ * message) and into a DynamicBufferExporter with pooled segments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicBufferExporterBenchmark {
+
+    private final Message m_message = new Message();
+    private final DynamicBufferExporter m_exporter = new DynamicBufferExporter();
+
+    /**
+     * Sizes the message, allocates a buffer and exports the message
+     *
+     * @return the buffer
+     */
+    @Benchmark
+    public ByteBuffer sizedByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(m_message.sizeofObject());
+
+        new ByteBufferImExporter(buffer).exportObject(m_message);
+
+        return buffer;
+    }
+
+    /**
+     * Exports the message into pooled segments
+     *
+     * @return the number of segments
+     */
+    @Benchmark
+    public int dynamicBuffer() {
+        int ret;
+
+        m_exporter.exportObject(m_message);
+        ret = m_exporter.getBuffers().length;
+        m_exporter.release();
+
+        return ret;
+    }
+
+    /**
+     * The exported message
+     */
+    private static final class Message implements Exportable {
+
+        private final long[] m_values = new long[512];
+
+        @Override
+        public void exportObject(final Exporter p_exporter) {
+            p_exporter.writeShort((short) 1);
+            p_exporter.writeInt(2);
+            p_exporter.writeString("message");
+            p_exporter.writeLongArray(m_values);
+        }
+
+        @Override
+        public int sizeofObject() {
+            return Short.BYTES + Integer.BYTES + ObjectSizeUtil.sizeofString("message") +
+                    ObjectSizeUtil.sizeofLongArray(m_values);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exports and imports 64K single longs and an array of 64K ints with the file based ImExporters. importOnly reads
+ * a file written during setup, like loading exported state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FileImExporterBenchmark {
+
+    private static final int COUNT = 64 * 1024;
+
+    @Param({"RANDOM_ACCESS_FILE", "FILE_CHANNEL", "MAPPED_FILE"})
+    private String m_backend;
+
+    private File m_file;
+    private int[] m_array;
+
+    /**
+     * Creates the file
+     *
+     * @throws IOException
+     *         If the file cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        m_file = File.createTempFile("imexporter", ".dat");
+        m_array = new int[COUNT];
+
+        FileChannelImExporter exporter = new FileChannelImExporter(m_file);
+        export(exporter);
+        exporter.close();
+    }
+
+    /**
+     * Deletes the file
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_file.delete();
+    }
+
+    /**
+     * Writes and reads back the file
+     *
+     * @return the sum of the values read
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    @Benchmark
+    public long exportImport() throws IOException {
+        long ret = 0;
+
+        switch (m_backend) {
+            case "RANDOM_ACCESS_FILE":
+                RandomAccessFileImExporter exporter = new RandomAccessFileImExporter(m_file);
+                export(exporter);
+                exporter.close();
+
+                RandomAccessFileImExporter importer = new RandomAccessFileImExporter(m_file);
+                ret = importAll(importer);
+                importer.close();
+                break;
+            case "MAPPED_FILE":
+                MappedFileImExporter mappedExporter = new MappedFileImExporter(m_file);
+                export(mappedExporter);
+                mappedExporter.close();
+
+                MappedFileImExporter mappedImporter = new MappedFileImExporter(m_file);
+                ret = importAll(mappedImporter);
+                mappedImporter.close();
+                break;
+            default:
+                FileChannelImExporter fileChannelExporter = new FileChannelImExporter(m_file);
+                export(fileChannelExporter);
+                fileChannelExporter.close();
+
+                FileChannelImExporter fileChannelImporter = new FileChannelImExporter(m_file);
+                ret = importAll(fileChannelImporter);
+                fileChannelImporter.close();
+                break;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Reads the file written during setup
+     *
+     * @return the sum of the values read
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    @Benchmark
+    public long importOnly() throws IOException {
+        long ret;
+
+        switch (m_backend) {
+            case "RANDOM_ACCESS_FILE":
+                RandomAccessFileImExporter importer = new RandomAccessFileImExporter(m_file);
+                ret = importAll(importer);
+                importer.close();
+                break;
+            case "MAPPED_FILE":
+                MappedFileImExporter mappedImporter = new MappedFileImExporter(m_file);
+                ret = importAll(mappedImporter);
+                mappedImporter.close();
+                break;
+            default:
+                FileChannelImExporter fileChannelImporter = new FileChannelImExporter(m_file);
+                ret = importAll(fileChannelImporter);
+                fileChannelImporter.close();
+                break;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Writes the longs and the int array
+     *
+     * @param p_exporter
+     *         the exporter
+     */
+    private void export(final Exporter p_exporter) {
+        for (long i = 0; i < COUNT; i++) {
+            p_exporter.writeLong(i);
+        }
+        p_exporter.writeInts(m_array);
+    }
+
+    /**
+     * Reads the longs and the int array
+     *
+     * @param p_importer
+     *         the importer
+     * @return the sum of the values read
+     */
+    private long importAll(final Importer p_importer) {
+        long ret = 0;
+
+        for (int i = 0; i < COUNT; i++) {
+            ret += p_importer.readLong(0);
+        }
+        p_importer.readInts(m_array);
+
+        return ret + m_array[COUNT - 1];
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sizes, writes and reads a short string with a byte array copy per call (the former implementation), with the
+ * StringCodec and with the StringCodec interning through a StringDictionary.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringCodecBenchmark {
+
+    private static final String STRING = "de.hhu.bsinfo.dxram.chunk";
+
+    private final ByteBuffer m_buffer = ByteBuffer.allocateDirect(1024);
+    private final ByteBufferImExporter m_imExporter = new ByteBufferImExporter(m_buffer);
+    private final ByteBufferImExporter m_interningImExporter = new ByteBufferImExporter(m_buffer);
+
+    /**
+     * Creates the dictionary
+     */
+    public StringCodecBenchmark() {
+        m_interningImExporter.setStringDictionary(new StringDictionary());
+    }
+
+    /**
+     * Encodes the string to a byte array for sizing and writing, decodes a byte array when reading
+     *
+     * @return the string read
+     */
+    @Benchmark
+    public String byteArray() {
+        m_buffer.clear();
+        m_buffer.position(ObjectSizeUtil.sizeofByteArray(STRING.getBytes()));
+        m_buffer.clear();
+        m_imExporter.writeByteArray(STRING.getBytes());
+        m_buffer.flip();
+
+        return new String(m_imExporter.readByteArray(null));
+    }
+
+    /**
+     * Sizes, writes and reads with the StringCodec
+     *
+     * @return the string read
+     */
+    @Benchmark
+    public String codec() {
+        return writeRead(m_imExporter);
+    }
+
+    /**
+     * Sizes, writes and reads with the StringCodec, the string is interned
+     *
+     * @return the string read
+     */
+    @Benchmark
+    public String codecInterned() {
+        return writeRead(m_interningImExporter);
+    }
+
+    /**
+     * Sizes, writes and reads the string
+     *
+     * @param p_imExporter
+     *         the ImExporter
+     * @return the string read
+     */
+    private String writeRead(final ByteBufferImExporter p_imExporter) {
+        m_buffer.clear();
+        m_buffer.position(ObjectSizeUtil.sizeofString(STRING));
+        m_buffer.clear();
+        p_imExporter.writeString(STRING);
+        m_buffer.flip();
+
+        return p_imExporter.readString(null);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Striped buffer for the accesses of readers which only hold the shared read lock of a cache. Instead of
+ * synchronizing on the eviction order for every read, a reader claims an index in the stripe of its thread and stores
+ * the access in an array of the cache at that index. The buffered accesses are applied under the write lock, i.e.
+ * when no reader is active: before every modification or by the reader filling a stripe if it gets the write lock at
+ * once. Reading the claimed indices needs no further synchronization as releasing the read lock publishes them.
+ * If a stripe is full, claim() fails and the reader has to apply its access directly.
+ */
+final class AccessBuffer {
+
+    // Constants
+    private static final int STRIPE_SIZE = 16;
+    private static final int MAX_STRIPES = 16;
+    // Counters of different stripes are 64 bytes apart to not share a cache line
+    private static final int PADDING = 16;
+
+    // Attributes
+    private final int m_stripeMask;
+    private final AtomicIntegerArray m_counts;
+
+    // Constructors
+
+    /**
+     * Creates an instance of AccessBuffer with one stripe per available processor (at most MAX_STRIPES)
+     */
+    AccessBuffer() {
+        int stripes = 1;
+
+        while (stripes < MAX_STRIPES && stripes < Runtime.getRuntime().availableProcessors()) {
+            stripes *= 2;
+        }
+
+        m_stripeMask = stripes - 1;
+        m_counts = new AtomicIntegerArray(stripes * PADDING);
+    }
+
+    // Getters
+
+    /**
+     * Gets the number of indices, i.e. the length of the array storing the accesses
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return (m_stripeMask + 1) * STRIPE_SIZE;
+    }
+
+    // Methods
+
+    /**
+     * Checks if an index is the last one of its stripe
+     *
+     * @param p_index
+     *         the index returned by claim()
+     * @return true if the stripe is full now and should be drained
+     */
+    static boolean isLast(final int p_index) {
+        return (p_index & STRIPE_SIZE - 1) == STRIPE_SIZE - 1;
+    }
+
+    /**
+     * Claims an index in the stripe of the current thread. Caller must hold the read lock.
+     *
+     * @return the index or -1 if the stripe is full
+     */
+    int claim() {
+        int stripe;
+        int count;
+
+        stripe = (int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32) & m_stripeMask;
+        count = m_counts.get(stripe * PADDING);
+        while (count < STRIPE_SIZE) {
+            if (m_counts.compareAndSet(stripe * PADDING, count, count + 1)) {
+                return stripe * STRIPE_SIZE + count;
+            }
+            count = m_counts.get(stripe * PADDING);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Visits all claimed indices (in claim order per stripe) and empties the buffer. Caller must hold the write lock.
+     *
+     * @param p_consumer
+     *         the consumer applying the access stored at an index
+     */
+    void drain(final IntConsumer p_consumer) {
+        int count;
+
+        for (int i = 0; i <= m_stripeMask; i++) {
+            count = m_counts.get(i * PADDING);
+            if (count > 0) {
+                for (int j = 0; j < count; j++) {
+                    p_consumer.accept(i * STRIPE_SIZE + j);
+                }
+                m_counts.set(i * PADDING, 0);
+            }
+        }
+    }
+}
@@ -16,15 +16,35 @@
 
 package de.hhu.bsinfo.dxutils;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSize;
+import de.hhu.bsinfo.dxutils.unit.StorageUnit;
 
 /**
- * Implements a Cache with an optional eviction policy and an optional timeout
+ * Implements a Cache with an optional eviction policy and an optional timeout.
+ * Entries time out if they were not accessed for their TTL, which is either set per entry or for the whole cache.
+ * Expired entries are never returned and removed by a background thread using a hierarchical timer wheel.
+ * The cache is either limited by the number of entries or by the total weight of its entries, e.g. their size in
+ * bytes.
+ * Reads only take the shared read lock. They record the access in a striped AccessBuffer which is applied to the
+ * eviction policy under the write lock, so concurrent readers do not serialize on the policy. Under concurrency, the
+ * eviction order is therefore approximate. Only if the buffer stripe of a thread is full, the reader updates the
+ * policy directly while synchronizing on it.
  *
  * @param <KeyType>
  *         Type of the key
@@ -34,11 +54,28 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class Cache<KeyType, ValueType> {
 
+    // Constants
+    // Number of entries deserialized and inserted at once by importEntries
+    private static final int IMPORT_BATCH_SIZE = 1024;
+    // Average entry weight assumed to size the regions of TINY_LFU for a weight limited cache
+    private static final int TINY_LFU_ENTRY_WEIGHT = 1024;
+
     // Attributes
     private Map<KeyType, CacheEntry<KeyType, ValueType>> m_map;
     private final int m_maxSize;
+    private final long m_maxWeight;
+    private final Weigher<KeyType, ValueType> m_weigher;
+    private long m_weight;
     private EvictionPolicy<KeyType, ValueType> m_policy;
-    private TTLHandler m_ttlHandler;
+    private volatile TTLHandler m_ttlHandler;
+    private TimerWheel<KeyType, ValueType> m_timerWheel;
+    private volatile long m_defaultTTL;
+    private boolean m_ownExpiryThread;
+    private volatile CacheStatistics m_statistics;
+
+    private final AccessBuffer m_accessBuffer;
+    private final CacheEntry<KeyType, ValueType>[] m_accessed;
+    private final IntConsumer m_applyAccess;
 
     private ReadWriteLock m_lock;
 
@@ -80,29 +117,67 @@ public class Cache<KeyType, ValueType> {
      *         the POLICY
      */
     public Cache(final int p_maxSize, final POLICY p_policyEnum) {
+        this(p_maxSize, Cache.<KeyType, ValueType>createPolicy(p_policyEnum, p_maxSize));
+    }
 
-        EvictionPolicy<KeyType, ValueType> policy = null;
+    /**
+     * Creates an instance of Cache
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @param p_policy
+     *         the eviction policy
+     */
+    public Cache(final int p_maxSize, final EvictionPolicy<KeyType, ValueType> p_policy) {
+        this(p_maxSize, Long.MAX_VALUE, p_policy, null);
 
         assert p_maxSize > 0;
-        assert p_policyEnum != null;
+    }
 
-        switch (p_policyEnum) {
-            case DUMMY:
-                policy = new DummyPolicy<KeyType, ValueType>();
-                break;
-            case LRU:
-                policy = new LRUPolicy<KeyType, ValueType>();
-                break;
-            default:
-                break;
-        }
+    /**
+     * Creates an instance of Cache limited by the size of its values with LRU eviction. The values must implement
+     * ObjectSize.
+     *
+     * @param p_maxWeight
+     *         the maximum total size of the cached values
+     */
+    public Cache(final StorageUnit p_maxWeight) {
+        this(p_maxWeight, POLICY.LRU, new ObjectSizeWeigher<KeyType, ValueType>());
+    }
 
-        m_map = new HashMap<KeyType, CacheEntry<KeyType, ValueType>>();
-        m_maxSize = p_maxSize;
-        m_policy = policy;
-        m_ttlHandler = null;
+    /**
+     * Creates an instance of Cache limited by the total weight of its entries
+     *
+     * @param p_maxWeight
+     *         the maximum total weight of the cached entries
+     * @param p_policyEnum
+     *         the POLICY
+     * @param p_weigher
+     *         determines the weight (size in bytes) of an entry
+     */
+    public Cache(final StorageUnit p_maxWeight, final POLICY p_policyEnum,
+            final Weigher<KeyType, ValueType> p_weigher) {
+        this(p_maxWeight, Cache.<KeyType, ValueType>createPolicy(p_policyEnum,
+                (int) Math.min(Integer.MAX_VALUE, Math.max(1, p_maxWeight.getBytes() / TINY_LFU_ENTRY_WEIGHT))),
+                p_weigher);
+    }
+
+    /**
+     * Creates an instance of Cache limited by the total weight of its entries
+     *
+     * @param p_maxWeight
+     *         the maximum total weight of the cached entries
+     * @param p_policy
+     *         the eviction policy
+     * @param p_weigher
+     *         determines the weight (size in bytes) of an entry
+     */
+    public Cache(final StorageUnit p_maxWeight, final EvictionPolicy<KeyType, ValueType> p_policy,
+            final Weigher<KeyType, ValueType> p_weigher) {
+        this(Integer.MAX_VALUE, p_maxWeight.getBytes(), p_policy, p_weigher);
 
-        m_lock = new ReentrantReadWriteLock();
+        assert p_maxWeight.getBytes() > 0;
+        assert p_weigher != null;
     }
 
     /**
@@ -110,17 +185,33 @@ public class Cache<KeyType, ValueType> {
      *
      * @param p_maxSize
      *         the maximum of cached elements
+     * @param p_maxWeight
+     *         the maximum total weight of the cached elements
      * @param p_policy
      *         the eviction policy
+     * @param p_weigher
+     *         determines the weight of an entry (null if the cache is not weight limited)
      */
-    public Cache(final int p_maxSize, final EvictionPolicy<KeyType, ValueType> p_policy) {
-        assert p_maxSize > 0;
+    @SuppressWarnings("unchecked")
+    private Cache(final int p_maxSize, final long p_maxWeight, final EvictionPolicy<KeyType, ValueType> p_policy,
+            final Weigher<KeyType, ValueType> p_weigher) {
         assert p_policy != null;
 
         m_map = new HashMap<KeyType, CacheEntry<KeyType, ValueType>>();
         m_maxSize = p_maxSize;
+        m_maxWeight = p_maxWeight;
+        m_weigher = p_weigher;
+        m_weight = 0;
         m_policy = p_policy;
         m_ttlHandler = null;
+        m_timerWheel = null;
+        m_defaultTTL = 0;
+        m_ownExpiryThread = true;
+        m_statistics = null;
+
+        m_accessBuffer = new AccessBuffer();
+        m_accessed = (CacheEntry<KeyType, ValueType>[]) new CacheEntry<?, ?>[m_accessBuffer.capacity()];
+        m_applyAccess = this::applyAccess;
 
         m_lock = new ReentrantReadWriteLock(false);
     }
@@ -128,7 +219,8 @@ public class Cache<KeyType, ValueType> {
     // Methods
 
     /**
-     * Creates a new cache entry or updates an existing one
+     * Creates a new cache entry or updates an existing one. A value heavier than the weight limit is not cached and
+     * removes the previous value of the key.
      *
      * @param p_key
      *         the key
@@ -136,29 +228,52 @@ public class Cache<KeyType, ValueType> {
      *         the value
      */
     public final void put(final KeyType p_key, final ValueType p_value) {
+        put(p_key, p_value, 0);
+    }
+
+    /**
+     * Creates a new cache entry or updates an existing one with an individual TTL. A value heavier than the weight
+     * limit is not cached and removes the previous value of the key.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @param p_ttl
+     *         the TTL of the entry in ms (0 to use the TTL of the cache)
+     */
+    public final void put(final KeyType p_key, final ValueType p_value, final long p_ttl) {
         CacheEntry<KeyType, ValueType> entry;
+        CacheStatistics statistics = m_statistics;
+        long ttl;
+        long start = 0;
+        long locked = 0;
 
         assert p_key != null;
+        assert p_ttl >= 0;
 
-        m_lock.writeLock().lock();
-
-        if (m_map.containsKey(p_key)) {
-            entry = m_map.get(p_key);
-            entry.m_value = p_value;
-        } else {
-            if (m_map.size() >= m_maxSize) {
-                m_map.remove(m_policy.evict(m_map.values()));
-            }
+        if (statistics != null) {
+            start = System.nanoTime();
+        }
 
-            entry = new CacheEntry<KeyType, ValueType>(p_key, p_value);
-            m_policy.newEntry(entry);
+        m_lock.writeLock().lock();
 
-            m_map.put(p_key, entry);
+        if (statistics != null) {
+            locked = System.nanoTime();
         }
 
-        accessEntry(entry);
+        entry = putEntry(p_key, p_value, p_ttl);
+        ttl = entry != null ? getTTL(entry) : 0;
 
         m_lock.writeLock().unlock();
+
+        if (statistics != null) {
+            statistics.recordPut(start, locked);
+        }
+
+        if (ttl > 0 && m_ownExpiryThread && m_ttlHandler == null) {
+            startTTLHandler();
+        }
     }
 
     /**
@@ -171,20 +286,46 @@ public class Cache<KeyType, ValueType> {
     public final ValueType get(final KeyType p_key) {
         ValueType ret = null;
         CacheEntry<KeyType, ValueType> entry;
+        CacheStatistics statistics = m_statistics;
+        boolean expired = false;
+        boolean drain = false;
+        long start = 0;
 
         assert p_key != null;
 
+        if (statistics != null) {
+            start = System.nanoTime();
+        }
+
         m_lock.readLock().lock();
 
         entry = m_map.get(p_key);
         if (entry != null) {
-            accessEntry(entry);
+            if (isExpired(entry, System.currentTimeMillis())) {
+                expired = true;
+            } else {
+                drain = recordAccess(entry);
 
-            ret = entry.getValue();
+                ret = entry.getValue();
+            }
         }
 
         m_lock.readLock().unlock();
 
+        if (drain && m_lock.writeLock().tryLock()) {
+            m_accessBuffer.drain(m_applyAccess);
+
+            m_lock.writeLock().unlock();
+        }
+
+        if (expired) {
+            expire(p_key);
+        }
+
+        if (statistics != null) {
+            statistics.recordGet(entry != null && !expired, start);
+        }
+
         return ret;
     }
 
@@ -195,11 +336,16 @@ public class Cache<KeyType, ValueType> {
      *         the key
      */
     public final void remove(final KeyType p_key) {
+        CacheEntry<KeyType, ValueType> entry;
+
         assert p_key != null;
 
         m_lock.writeLock().lock();
 
-        m_map.remove(p_key);
+        entry = m_map.get(p_key);
+        if (entry != null) {
+            removeEntry(entry);
+        }
 
         m_lock.writeLock().unlock();
     }
@@ -213,12 +359,48 @@ public class Cache<KeyType, ValueType> {
      */
     public final boolean contains(final KeyType p_key) {
         boolean ret;
+        CacheEntry<KeyType, ValueType> entry;
 
         assert p_key != null;
 
         m_lock.readLock().lock();
 
-        ret = m_map.containsKey(p_key);
+        entry = m_map.get(p_key);
+        ret = entry != null && !isExpired(entry, System.currentTimeMillis());
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets the number of cached entries
+     *
+     * @return the number of entries
+     */
+    public final int size() {
+        int ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_map.size();
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets the total weight of all entries
+     *
+     * @return the total weight (0 if the cache is not weight limited)
+     */
+    public final long getWeight() {
+        long ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_weight;
 
         m_lock.readLock().unlock();
 
@@ -231,150 +413,697 @@ public class Cache<KeyType, ValueType> {
     public final void clear() {
         m_lock.writeLock().lock();
 
+        m_accessBuffer.drain(m_applyAccess);
+        for (CacheEntry<KeyType, ValueType> entry : m_map.values()) {
+            m_policy.removeEntry(entry, m_map.values());
+        }
         m_map.clear();
+        m_weight = 0;
+
+        if (m_timerWheel != null) {
+            m_timerWheel.clear();
+        }
 
         m_lock.writeLock().unlock();
     }
 
+    /**
+     * Writes a snapshot of all entries including their access metadata, e.g. to a file for a warm restart.
+     * The entries are written from least to most recently accessed (by their access time in ms), so importing them
+     * restores the access order approximately. Keys and values must implement Exportable.
+     * The cache is only locked to collect the entries, not while exporting them.
+     *
+     * @param p_exporter
+     *         the exporter to write to
+     * @return the number of exported entries
+     */
+    public final int exportEntries(final Exporter p_exporter) {
+        EntryBatch<KeyType, ValueType> snapshot;
+        Integer[] order;
+        int i = 0;
+
+        m_lock.readLock().lock();
+
+        // Copy the metadata as concurrent gets keep updating the entries while sorting and exporting
+        snapshot = new EntryBatch<KeyType, ValueType>(m_map.size());
+        for (CacheEntry<KeyType, ValueType> entry : m_map.values()) {
+            snapshot.m_keys[i] = entry.m_key;
+            snapshot.m_values[i] = entry.m_value;
+            snapshot.m_lastAccesses[i] = entry.m_lastAccess;
+            snapshot.m_accesses[i] = entry.m_accesses;
+            snapshot.m_ttls[i] = entry.m_ttl;
+            i++;
+        }
+
+        m_lock.readLock().unlock();
+
+        order = new Integer[snapshot.m_keys.length];
+        for (i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(p_index -> snapshot.m_lastAccesses[p_index]));
+
+        p_exporter.writeInt(order.length);
+        for (int index : order) {
+            p_exporter.exportObject((Exportable) snapshot.m_keys[index]);
+            p_exporter.exportObject((Exportable) snapshot.m_values[index]);
+            p_exporter.writeLong(snapshot.m_lastAccesses[index]);
+            p_exporter.writeInt(snapshot.m_accesses[index]);
+            p_exporter.writeLong(snapshot.m_ttls[index]);
+        }
+
+        return order.length;
+    }
+
+    /**
+     * Reads a snapshot written by exportEntries and inserts the entries with their access metadata. Entries are
+     * deserialized and inserted in batches by the calling thread, taking the write lock once per batch. Concurrent
+     * readers are not blocked for the whole reload.
+     *
+     * @param p_importer
+     *         the importer to read from
+     * @param p_keyFactory
+     *         creates the key instances to import into
+     * @param p_valueFactory
+     *         creates the value instances to import into
+     * @return the number of imported entries
+     */
+    public final int importEntries(final Importer p_importer, final Supplier<? extends KeyType> p_keyFactory,
+            final Supplier<? extends ValueType> p_valueFactory) {
+        return importEntries(p_importer, p_keyFactory, p_valueFactory, Runnable::run);
+    }
+
+    /**
+     * Reads a snapshot written by exportEntries and inserts the entries with their access metadata. Entries are
+     * deserialized in batches by the calling thread. Every batch is inserted by a task of the given executor while
+     * the next batch is deserialized (at most one insert at a time), taking the write lock once per batch.
+     * Concurrent readers are not blocked for the whole reload.
+     *
+     * @param p_importer
+     *         the importer to read from
+     * @param p_keyFactory
+     *         creates the key instances to import into
+     * @param p_valueFactory
+     *         creates the value instances to import into
+     * @param p_executor
+     *         runs the inserts of the batches
+     * @return the number of imported entries
+     */
+    public final int importEntries(final Importer p_importer, final Supplier<? extends KeyType> p_keyFactory,
+            final Supplier<? extends ValueType> p_valueFactory, final Executor p_executor) {
+        CompletableFuture<Void> insert = CompletableFuture.completedFuture(null);
+        EntryBatch<KeyType, ValueType> batch;
+        KeyType key;
+        ValueType value;
+        int count;
+
+        count = p_importer.readInt(0);
+        for (int i = 0; i < count; i += IMPORT_BATCH_SIZE) {
+            batch = new EntryBatch<KeyType, ValueType>(Math.min(IMPORT_BATCH_SIZE, count - i));
+
+            for (int j = 0; j < batch.m_keys.length; j++) {
+                key = p_keyFactory.get();
+                value = p_valueFactory.get();
+
+                p_importer.importObject((Importable) key);
+                p_importer.importObject((Importable) value);
+                batch.m_keys[j] = key;
+                batch.m_values[j] = value;
+                batch.m_lastAccesses[j] = p_importer.readLong(0);
+                batch.m_accesses[j] = p_importer.readInt(0);
+                batch.m_ttls[j] = p_importer.readLong(0);
+            }
+
+            // Double buffering: at most one batch is inserted while the next one is read
+            insert.join();
+            insert = insertBatchAsync(batch, p_executor);
+        }
+
+        insert.join();
+
+        // Imported entries might have individual TTLs
+        if (m_ownExpiryThread && m_timerWheel != null) {
+            startTTLHandler();
+        }
+
+        return count;
+    }
+
     /**
      * Enables TTL for cache entries
      *
      * @param p_ttl
-     *         ttl for the cache entries
+     *         ttl in ms for all cache entries without an individual TTL
      */
     public final synchronized void enableTTL(final long p_ttl) {
-        Thread t;
+        assert p_ttl > 0;
 
-        if (m_ttlHandler != null && m_ttlHandler.isRunning()) {
-            m_ttlHandler.stop();
+        m_defaultTTL = p_ttl;
+
+        // (Re-)schedule the existing entries once for the new TTL
+        m_lock.writeLock().lock();
+
+        for (CacheEntry<KeyType, ValueType> entry : m_map.values()) {
+            scheduleExpiry(entry);
         }
 
-        m_ttlHandler = new TTLHandler(p_ttl);
+        m_lock.writeLock().unlock();
 
-        t = new Thread(m_ttlHandler);
-        t.setName(TTLHandler.class.getSimpleName() + " for " + Cache.class.getSimpleName());
-        t.setDaemon(true);
-        t.start();
+        if (m_ownExpiryThread) {
+            startTTLHandler();
+        }
     }
 
     /**
-     * Disables TTL for cache entries
+     * Disables TTL for cache entries. Entries with an individual TTL still time out on access, but are not removed
+     * in the background anymore until the next put with an individual TTL.
      */
     public final synchronized void disableTTL() {
-        if (m_ttlHandler != null && m_ttlHandler.isRunning()) {
+        m_defaultTTL = 0;
+
+        if (m_ttlHandler != null) {
             m_ttlHandler.stop();
+            m_ttlHandler = null;
         }
     }
 
     /**
-     * Access an cache entry
+     * Enables statistics (hits, misses, evictions, expirations and latencies of get and put) registered with the
+     * StatisticsManager
      *
-     * @param p_entry
-     *         the cache entry
+     * @param p_name
+     *         the name of the cache used as prefix of the statistics operations
      */
-    private void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
-        p_entry.access();
-
-        m_policy.accessEntry(p_entry);
+    public final synchronized void enableStatistics(final String p_name) {
+        setStatistics(new CacheStatistics(p_name));
     }
 
-    // Classes
+    /**
+     * Disables statistics and de-registers them from the StatisticsManager
+     */
+    public final synchronized void disableStatistics() {
+        setStatistics(null);
+    }
 
     /**
-     * Values indicate which cache policy should be used
+     * Sets the statistics to record to (shared by several caches)
      *
-     * @author Kevin Beineke, kevin.beineke@hhu.de, 08.09.2013
+     * @param p_statistics
+     *         the statistics or null to disable them
      */
-    public enum POLICY {
-        DUMMY, LRU
+    final synchronized void setStatistics(final CacheStatistics p_statistics) {
+        if (m_statistics != null && m_statistics != p_statistics) {
+            m_statistics.deregister();
+        }
+
+        m_statistics = p_statistics;
     }
 
     /**
-     * Represents an cache entry
+     * Gets the statistics
      *
-     * @param <KeyType>
-     *         the key
-     * @param <ValueType>
-     *         the value
-     * @author Florian Klein, florian.klein@hhu.de, 09.03.2012
+     * @return the statistics or null if disabled
      */
-    public static final class CacheEntry<KeyType, ValueType> {
+    final CacheStatistics getStatistics() {
+        return m_statistics;
+    }
 
-        // Attribute
-        private KeyType m_key;
-        private ValueType m_value;
-        private long m_created;
-        private long m_lastAccess;
-        private int m_accesses;
-        private long m_flags;
+    /**
+     * Disables the background thread of this cache for removing expired entries. The owner of the cache has to call
+     * expireEntries periodically instead.
+     */
+    final void disableOwnExpiryThread() {
+        m_ownExpiryThread = false;
+    }
 
-        // Constructors
+    /**
+     * Removes all expired entries. Only the entries of due timer wheel buckets are visited and the write lock is
+     * released after every bucket, so readers are never blocked for a full sweep.
+     */
+    final void expireEntries() {
+        long time = System.currentTimeMillis();
+        boolean pending;
 
-        /**
-         * Creates an instance of CacheEntry
-         *
-         * @param p_key
-         *         the key
-         * @param p_value
-         *         the value
-         */
-        private CacheEntry(final KeyType p_key, final ValueType p_value) {
-            m_key = p_key;
-            m_value = p_value;
-            m_created = System.currentTimeMillis();
-            m_lastAccess = 0;
-            m_accesses = 0;
-            m_flags = 0;
-        }
+        m_lock.writeLock().lock();
 
-        // Getters
+        pending = m_timerWheel != null && m_timerWheel.startAdvance(time);
 
-        /**
-         * Gets the key
-         *
-         * @return the key
-         */
-        public KeyType getKey() {
-            return m_key;
-        }
+        m_lock.writeLock().unlock();
 
-        /**
-         * Gets the value
-         *
-         * @return the value
-         */
-        public ValueType getValue() {
-            return m_value;
-        }
+        while (pending) {
+            m_lock.writeLock().lock();
 
-        /**
-         * Gets the creation time
-         *
-         * @return the creation time
-         */
-        public long getCreated() {
-            return m_created;
-        }
+            pending = m_timerWheel.expireNextBucket(time);
 
-        /**
-         * Gets the last access time
-         *
-         * @return the last access time
-         */
-        public long getLastAccess() {
-            return m_lastAccess;
+            m_lock.writeLock().unlock();
         }
+    }
 
-        /**
-         * Gets the access count
-         *
-         * @return the access count
-         */
-        public int getAccesses() {
-            return m_accesses;
-        }
+    /**
+     * Starts the TTLHandler if it is not running
+     */
+    private synchronized void startTTLHandler() {
+        Thread t;
 
-        /**
+        if (m_ttlHandler == null) {
+            m_ttlHandler = new TTLHandler();
+
+            t = new Thread(m_ttlHandler);
+            t.setName(TTLHandler.class.getSimpleName() + " for " + Cache.class.getSimpleName());
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /**
+     * Creates a new cache entry or updates an existing one. Caller must hold the write lock. A value heavier than the
+     * weight limit on its own is rejected and the previous entry of the key is removed.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @param p_ttl
+     *         the TTL of the entry in ms (0 to use the TTL of the cache)
+     * @return the entry or null if the value was rejected
+     */
+    private CacheEntry<KeyType, ValueType> putEntry(final KeyType p_key, final ValueType p_value, final long p_ttl) {
+        CacheEntry<KeyType, ValueType> entry;
+        int weight = 0;
+
+        // Apply the accesses of the readers first, the eviction depends on them
+        m_accessBuffer.drain(m_applyAccess);
+
+        if (m_weigher != null) {
+            weight = m_weigher.weigh(p_key, p_value);
+            assert weight >= 0;
+
+            if (weight > m_maxWeight) {
+                // The previous value of the key is outdated and must not be returned anymore
+                entry = m_map.get(p_key);
+                if (entry != null) {
+                    removeEntry(entry);
+                }
+
+                return null;
+            }
+        }
+
+        entry = m_map.get(p_key);
+        if (entry != null) {
+            entry.m_value = p_value;
+        } else {
+            if (m_map.size() >= m_maxSize) {
+                evict();
+            }
+
+            entry = new CacheEntry<KeyType, ValueType>(p_key, p_value);
+            m_policy.newEntry(entry);
+
+            m_map.put(p_key, entry);
+        }
+
+        if (m_weigher != null) {
+            m_weight += weight - entry.m_weight;
+            entry.m_weight = weight;
+        }
+
+        entry.m_ttl = p_ttl;
+        accessEntry(entry);
+        scheduleExpiry(entry);
+
+        // Every entry fits on its own, at most the new entry is left
+        while (m_weight > m_maxWeight && m_map.size() > 1) {
+            evict();
+        }
+
+        return entry;
+    }
+
+    /**
+     * Inserts a batch of imported entries asynchronously
+     *
+     * @param p_batch
+     *         the batch
+     * @param p_executor
+     *         runs the insert
+     * @return the future of the insert
+     */
+    private CompletableFuture<Void> insertBatchAsync(final EntryBatch<KeyType, ValueType> p_batch,
+            final Executor p_executor) {
+        return CompletableFuture.runAsync(() -> insertBatch(p_batch), p_executor);
+    }
+
+    /**
+     * Inserts a batch of imported entries
+     *
+     * @param p_batch
+     *         the batch
+     */
+    private void insertBatch(final EntryBatch<KeyType, ValueType> p_batch) {
+        CacheEntry<KeyType, ValueType> entry;
+
+        m_lock.writeLock().lock();
+
+        for (int i = 0; i < p_batch.m_keys.length; i++) {
+            entry = putEntry(p_batch.m_keys[i], p_batch.m_values[i], p_batch.m_ttls[i]);
+
+            // Restore the metadata (the entry might already be evicted again if the snapshot is too large)
+            if (entry != null && m_map.get(p_batch.m_keys[i]) == entry) {
+                entry.m_lastAccess = p_batch.m_lastAccesses[i];
+                entry.m_accesses = p_batch.m_accesses[i];
+                scheduleExpiry(entry);
+            }
+        }
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Gets the TTL of an entry
+     *
+     * @param p_entry
+     *         the cache entry
+     * @return the individual TTL of the entry or the TTL of the cache (0 if the entry does not time out)
+     */
+    private long getTTL(final CacheEntry<KeyType, ValueType> p_entry) {
+        return p_entry.m_ttl != 0 ? p_entry.m_ttl : m_defaultTTL;
+    }
+
+    /**
+     * Checks if an entry timed out
+     *
+     * @param p_entry
+     *         the cache entry
+     * @param p_time
+     *         the current time in ms
+     * @return true if the entry was not accessed for its TTL
+     */
+    private boolean isExpired(final CacheEntry<KeyType, ValueType> p_entry, final long p_time) {
+        long ttl = getTTL(p_entry);
+
+        return ttl > 0 && p_time - p_entry.m_lastAccess > ttl;
+    }
+
+    /**
+     * Schedules the timeout of an entry in the timer wheel. Caller must hold the write lock.
+     *
+     * @param p_entry
+     *         the cache entry
+     * @return the TTL of the entry
+     */
+    private long scheduleExpiry(final CacheEntry<KeyType, ValueType> p_entry) {
+        long ttl = getTTL(p_entry);
+
+        if (ttl > 0) {
+            if (m_timerWheel == null) {
+                m_timerWheel = new TimerWheel<KeyType, ValueType>(this, System.currentTimeMillis());
+            }
+
+            m_timerWheel.schedule(p_entry, p_entry.m_lastAccess + ttl);
+        } else if (m_timerWheel != null) {
+            m_timerWheel.unschedule(p_entry);
+        }
+
+        return ttl;
+    }
+
+    /**
+     * Removes the entry for the given key if it timed out
+     *
+     * @param p_key
+     *         the key
+     */
+    private void expire(final KeyType p_key) {
+        CacheEntry<KeyType, ValueType> entry;
+
+        m_lock.writeLock().lock();
+
+        entry = m_map.get(p_key);
+        if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+            removeEntry(entry);
+
+            if (m_statistics != null) {
+                m_statistics.recordExpiration();
+            }
+        }
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Called by the timer wheel for a due entry. The entry may have been accessed since it was scheduled, in that
+     * case it is scheduled again. Caller must hold the write lock.
+     *
+     * @param p_entry
+     *         the cache entry (not scheduled)
+     * @param p_time
+     *         the current time in ms
+     */
+    private void expireOrReschedule(final CacheEntry<KeyType, ValueType> p_entry, final long p_time) {
+        if (isExpired(p_entry, p_time)) {
+            removeEntry(p_entry);
+
+            if (m_statistics != null) {
+                m_statistics.recordExpiration();
+            }
+        } else {
+            scheduleExpiry(p_entry);
+        }
+    }
+
+    /**
+     * Removes an entry from the map, the eviction policy and the timer wheel. Caller must hold the write lock.
+     *
+     * @param p_entry
+     *         the cache entry
+     */
+    private void removeEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+        // The buffered accesses must not refer to removed entries
+        m_accessBuffer.drain(m_applyAccess);
+
+        m_map.remove(p_entry.m_key);
+        m_policy.removeEntry(p_entry, m_map.values());
+        m_weight -= p_entry.m_weight;
+
+        if (m_timerWheel != null) {
+            m_timerWheel.unschedule(p_entry);
+        }
+    }
+
+    /**
+     * Access an cache entry. Caller must hold the write lock (or the read lock and the monitor of the policy).
+     *
+     * @param p_entry
+     *         the cache entry
+     */
+    private void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+        p_entry.access();
+
+        m_policy.accessEntry(p_entry);
+    }
+
+    /**
+     * Records an access of a reader holding the read lock. The access time is updated at once as it decides about
+     * the expiry. The access count and the eviction policy are updated when the AccessBuffer is drained.
+     *
+     * @param p_entry
+     *         the cache entry
+     * @return true if the buffer stripe of the thread is full and should be drained
+     */
+    private boolean recordAccess(final CacheEntry<KeyType, ValueType> p_entry) {
+        int index;
+
+        index = m_accessBuffer.claim();
+        if (index == -1) {
+            // Other readers may update the policy directly as well
+            synchronized (m_policy) {
+                accessEntry(p_entry);
+            }
+
+            return true;
+        }
+
+        p_entry.m_lastAccess = System.currentTimeMillis();
+        m_accessed[index] = p_entry;
+
+        return AccessBuffer.isLast(index);
+    }
+
+    /**
+     * Applies a buffered access to the eviction policy. Caller must hold the write lock.
+     *
+     * @param p_index
+     *         the index of the access in the AccessBuffer
+     */
+    private void applyAccess(final int p_index) {
+        CacheEntry<KeyType, ValueType> entry = m_accessed[p_index];
+
+        m_accessed[p_index] = null;
+        entry.m_accesses++;
+        m_policy.accessEntry(entry);
+    }
+
+    /**
+     * Creates the eviction policy for a POLICY
+     *
+     * @param p_policyEnum
+     *         the POLICY
+     * @param p_maxSize
+     *         the (expected) maximum of cached elements
+     * @return the eviction policy
+     */
+    private static <KeyType, ValueType> EvictionPolicy<KeyType, ValueType> createPolicy(final POLICY p_policyEnum,
+            final int p_maxSize) {
+        EvictionPolicy<KeyType, ValueType> policy = null;
+
+        assert p_maxSize > 0;
+        assert p_policyEnum != null;
+
+        switch (p_policyEnum) {
+            case DUMMY:
+                policy = new DummyPolicy<KeyType, ValueType>();
+                break;
+            case LRU:
+                policy = new LRUPolicy<KeyType, ValueType>();
+                break;
+            case TINY_LFU:
+                policy = new TinyLFUPolicy<KeyType, ValueType>(p_maxSize);
+                break;
+            default:
+                break;
+        }
+
+        return policy;
+    }
+
+    /**
+     * Removes the entry chosen by the eviction policy. Caller must hold the write lock.
+     */
+    private void evict() {
+        CacheEntry<KeyType, ValueType> entry;
+
+        entry = m_map.get(m_policy.evict(m_map.values()));
+        if (entry != null) {
+            removeEntry(entry);
+
+            if (m_statistics != null) {
+                m_statistics.recordEviction();
+            }
+        }
+    }
+
+    // Classes
+
+    /**
+     * Values indicate which cache policy should be used
+     *
+     * @author Kevin Beineke, kevin.beineke@hhu.de, 08.09.2013
+     */
+    public enum POLICY {
+        DUMMY, LRU, TINY_LFU
+    }
+
+    /**
+     * Represents an cache entry
+     *
+     * @param <KeyType>
+     *         the key
+     * @param <ValueType>
+     *         the value
+     * @author Florian Klein, florian.klein@hhu.de, 09.03.2012
+     */
+    public static final class CacheEntry<KeyType, ValueType> {
+
+        // Attribute
+        private KeyType m_key;
+        private ValueType m_value;
+        private long m_created;
+        // Written by readers holding the read lock only
+        private volatile long m_lastAccess;
+        private int m_accesses;
+        private long m_flags;
+
+        // Intrusive links used by the eviction policies to keep their queues without additional nodes
+        private CacheEntry<KeyType, ValueType> m_prev;
+        private CacheEntry<KeyType, ValueType> m_next;
+        private byte m_region;
+
+        // Weight of the entry, if the cache is weight limited
+        private int m_weight;
+
+        // Individual TTL (0 for the TTL of the cache) and links of the timer wheel bucket
+        private long m_ttl;
+        private CacheEntry<KeyType, ValueType> m_timerPrev;
+        private CacheEntry<KeyType, ValueType> m_timerNext;
+
+        // Constructors
+
+        /**
+         * Creates an instance of CacheEntry
+         *
+         * @param p_key
+         *         the key
+         * @param p_value
+         *         the value
+         */
+        private CacheEntry(final KeyType p_key, final ValueType p_value) {
+            m_key = p_key;
+            m_value = p_value;
+            m_created = System.currentTimeMillis();
+            m_lastAccess = 0;
+            m_accesses = 0;
+            m_flags = 0;
+        }
+
+        // Getters
+
+        /**
+         * Gets the key
+         *
+         * @return the key
+         */
+        public KeyType getKey() {
+            return m_key;
+        }
+
+        /**
+         * Gets the value
+         *
+         * @return the value
+         */
+        public ValueType getValue() {
+            return m_value;
+        }
+
+        /**
+         * Gets the creation time
+         *
+         * @return the creation time
+         */
+        public long getCreated() {
+            return m_created;
+        }
+
+        /**
+         * Gets the last access time
+         *
+         * @return the last access time
+         */
+        public long getLastAccess() {
+            return m_lastAccess;
+        }
+
+        /**
+         * Gets the access count
+         *
+         * @return the access count
+         */
+        public int getAccesses() {
+            return m_accesses;
+        }
+
+        /**
          * Gets the flags
          *
          * @return the flags
@@ -426,25 +1155,19 @@ public class Cache<KeyType, ValueType> {
     private class TTLHandler implements Runnable {
 
         // Constants
-        private static final long SLEEP_TIME = 1000;
+        // One tick of the finest timer wheel level
+        private static final long SLEEP_TIME = 64;
 
         // Attributes
-        private long m_ttl;
-
         private volatile boolean m_running;
 
         // Constructors
 
         /**
          * Creates an instance of TTLHandler
-         *
-         * @param p_ttl
-         *         the TTL value
          */
-        TTLHandler(final long p_ttl) {
-            m_ttl = p_ttl;
-
-            m_running = false;
+        TTLHandler() {
+            m_running = true;
         }
 
         // Getters
@@ -461,48 +1184,317 @@ public class Cache<KeyType, ValueType> {
         // Methods
 
         /**
-         * When an object implementing interface {@code Runnable} is used
-         * to create a thread, starting the thread causes the object's {@code run} method to be called in that
-         * separately executing
-         * thread.
-         * The general contract of the method {@code run} is that it may take any action whatsoever.
+         * When an object implementing interface {@code Runnable} is used
+         * to create a thread, starting the thread causes the object's {@code run} method to be called in that
+         * separately executing
+         * thread.
+         * The general contract of the method {@code run} is that it may take any action whatsoever.
+         *
+         * @see java.lang.Thread#run()
+         */
+        @Override
+        public void run() {
+            while (m_running) {
+                try {
+                    Thread.sleep(SLEEP_TIME);
+                } catch (final InterruptedException ignored) {
+                }
+
+                if (m_running) {
+                    expireEntries();
+                }
+            }
+        }
+
+        /**
+         * Stops the TTLHandler
+         */
+        public void stop() {
+            m_running = false;
+        }
+
+    }
+
+    /**
+     * Hierarchical timer wheel for the entry timeouts. Every level is a ring of buckets (intrusive lists of entries)
+     * covering a time span with a growing granularity (64 ms, 4 s, 4 min, 4.7 h, 12 days). Advancing the wheel only
+     * visits the buckets whose time elapsed. Entries of coarse buckets are rescheduled to a finer level until they
+     * are due. Scheduling and unscheduling are O(1). All methods must be called with the write lock held.
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static final class TimerWheel<KeyType, ValueType> {
+
+        // Constants
+        private static final int[] SHIFTS = {6, 12, 18, 24, 30};
+        private static final int[] BUCKETS = {64, 64, 64, 64, 1};
+
+        // Attributes
+        private final Cache<KeyType, ValueType> m_cache;
+        private final CacheEntry<KeyType, ValueType>[][] m_wheel;
+        private final long[] m_pendingTicks;
+        private final long[] m_pendingEnd;
+        private long m_time;
+
+        // Constructors
+
+        /**
+         * Creates an instance of TimerWheel
+         *
+         * @param p_cache
+         *         the cache to expire the entries of
+         * @param p_time
+         *         the current time in ms
+         */
+        @SuppressWarnings("unchecked")
+        TimerWheel(final Cache<KeyType, ValueType> p_cache, final long p_time) {
+            m_cache = p_cache;
+            m_wheel = (CacheEntry<KeyType, ValueType>[][]) new CacheEntry<?, ?>[SHIFTS.length][];
+            m_pendingTicks = new long[SHIFTS.length];
+            m_pendingEnd = new long[SHIFTS.length];
+            m_time = p_time;
+
+            for (int i = 0; i < SHIFTS.length; i++) {
+                m_wheel[i] = (CacheEntry<KeyType, ValueType>[]) new CacheEntry<?, ?>[BUCKETS[i]];
+
+                for (int j = 0; j < BUCKETS[i]; j++) {
+                    m_wheel[i][j] = new CacheEntry<KeyType, ValueType>(null, null);
+                    m_wheel[i][j].m_timerPrev = m_wheel[i][j];
+                    m_wheel[i][j].m_timerNext = m_wheel[i][j];
+                }
+            }
+        }
+
+        // Methods
+
+        /**
+         * Schedules (or re-schedules) an entry
+         *
+         * @param p_entry
+         *         the cache entry
+         * @param p_expiry
+         *         the time in ms at which the entry times out
+         */
+        void schedule(final CacheEntry<KeyType, ValueType> p_entry, final long p_expiry) {
+            CacheEntry<KeyType, ValueType> bucket;
+            long expiry = Math.max(p_expiry, m_time);
+            long delta = expiry - m_time;
+            int level = SHIFTS.length - 1;
+
+            for (int i = 0; i < SHIFTS.length - 1; i++) {
+                if (delta < 1L << SHIFTS[i + 1]) {
+                    level = i;
+                    break;
+                }
+            }
+
+            unschedule(p_entry);
+
+            bucket = m_wheel[level][(int) (expiry >>> SHIFTS[level]) & BUCKETS[level] - 1];
+            p_entry.m_timerPrev = bucket.m_timerPrev;
+            p_entry.m_timerNext = bucket;
+            bucket.m_timerPrev.m_timerNext = p_entry;
+            bucket.m_timerPrev = p_entry;
+        }
+
+        /**
+         * Removes an entry from its bucket (if scheduled)
+         *
+         * @param p_entry
+         *         the cache entry
+         */
+        void unschedule(final CacheEntry<KeyType, ValueType> p_entry) {
+            if (p_entry.m_timerNext != null) {
+                p_entry.m_timerPrev.m_timerNext = p_entry.m_timerNext;
+                p_entry.m_timerNext.m_timerPrev = p_entry.m_timerPrev;
+                p_entry.m_timerPrev = null;
+                p_entry.m_timerNext = null;
+            }
+        }
+
+        /**
+         * Removes all entries
+         */
+        void clear() {
+            for (CacheEntry<KeyType, ValueType>[] level : m_wheel) {
+                for (CacheEntry<KeyType, ValueType> bucket : level) {
+                    bucket.m_timerPrev = bucket;
+                    bucket.m_timerNext = bucket;
+                }
+            }
+
+            for (int i = 0; i < SHIFTS.length; i++) {
+                m_pendingTicks[i] = m_pendingEnd[i];
+            }
+        }
+
+        /**
+         * Moves the wheel to the given time and determines the buckets to process
+         *
+         * @param p_time
+         *         the current time in ms
+         * @return true if there are buckets to process with expireNextBucket
+         */
+        boolean startAdvance(final long p_time) {
+            boolean pending = false;
+            long previousTicks;
+            long currentTicks;
+
+            if (p_time <= m_time) {
+                return false;
+            }
+
+            for (int i = 0; i < SHIFTS.length; i++) {
+                previousTicks = m_time >>> SHIFTS[i];
+                currentTicks = p_time >>> SHIFTS[i];
+
+                if (i == 0) {
+                    // All entries of the elapsed buckets are due
+                    m_pendingTicks[i] = previousTicks;
+                    m_pendingEnd[i] = currentTicks;
+                } else {
+                    // Also cascade the bucket that just started to the finer levels
+                    m_pendingTicks[i] = previousTicks + 1;
+                    m_pendingEnd[i] = currentTicks + 1;
+                }
+
+                if (m_pendingEnd[i] - m_pendingTicks[i] > BUCKETS[i]) {
+                    m_pendingTicks[i] = m_pendingEnd[i] - BUCKETS[i];
+                }
+
+                pending |= m_pendingTicks[i] < m_pendingEnd[i];
+            }
+
+            m_time = p_time;
+
+            return pending;
+        }
+
+        /**
+         * Expires or reschedules all entries of the next pending bucket
+         *
+         * @param p_time
+         *         the current time in ms
+         * @return true if there are more buckets to process
+         */
+        boolean expireNextBucket(final long p_time) {
+            CacheEntry<KeyType, ValueType> bucket;
+            CacheEntry<KeyType, ValueType> entry;
+            CacheEntry<KeyType, ValueType> next;
+
+            for (int i = 0; i < SHIFTS.length; i++) {
+                if (m_pendingTicks[i] < m_pendingEnd[i]) {
+                    bucket = m_wheel[i][(int) m_pendingTicks[i]++ & BUCKETS[i] - 1];
+
+                    // Detach the list first as entries might be rescheduled to the same bucket
+                    entry = bucket.m_timerNext;
+                    bucket.m_timerPrev = bucket;
+                    bucket.m_timerNext = bucket;
+
+                    while (entry != bucket) {
+                        next = entry.m_timerNext;
+                        entry.m_timerPrev = null;
+                        entry.m_timerNext = null;
+
+                        m_cache.expireOrReschedule(entry, p_time);
+
+                        entry = next;
+                    }
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+    /**
+     * Entries with their access metadata copied to parallel arrays, a consistent snapshot for exportEntries and the
+     * deserialized entries of importEntries
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static final class EntryBatch<KeyType, ValueType> {
+
+        // Attributes
+        private final KeyType[] m_keys;
+        private final ValueType[] m_values;
+        private final long[] m_lastAccesses;
+        private final int[] m_accesses;
+        private final long[] m_ttls;
+
+        // Constructors
+
+        /**
+         * Creates an instance of EntryBatch
+         *
+         * @param p_size
+         *         the number of entries
+         */
+        @SuppressWarnings("unchecked")
+        private EntryBatch(final int p_size) {
+            m_keys = (KeyType[]) new Object[p_size];
+            m_values = (ValueType[]) new Object[p_size];
+            m_lastAccesses = new long[p_size];
+            m_accesses = new int[p_size];
+            m_ttls = new long[p_size];
+        }
+
+    }
+
+    /**
+     * Determines the weight of a cache entry, e.g. its size in bytes
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    public interface Weigher<KeyType, ValueType> {
+
+        // Methods
+
+        /**
+         * Gets the weight of an entry. The weight of an entry must not change while it is cached.
          *
-         * @see java.lang.Thread#run()
+         * @param p_key
+         *         the key
+         * @param p_value
+         *         the value
+         * @return the weight (>= 0)
          */
-        @Override
-        public void run() {
-            Iterator<CacheEntry<KeyType, ValueType>> iter;
-            long time;
-
-            m_running = true;
-            while (m_running) {
-                try {
-                    Thread.sleep(SLEEP_TIME);
-                } catch (final InterruptedException ignored) {
-                }
+        int weigh(KeyType p_key, ValueType p_value);
 
-                if (m_running) {
-                    time = System.currentTimeMillis();
+    }
 
-                    m_lock.writeLock().lock();
+    /**
+     * Weighs the values by their ObjectSize
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static class ObjectSizeWeigher<KeyType, ValueType> implements Weigher<KeyType, ValueType> {
 
-                    iter = m_map.values().iterator();
-                    while (iter.hasNext()) {
-                        if (time - iter.next().m_lastAccess > m_ttl) {
-                            iter.remove();
-                        }
-                    }
+        // Methods
 
-                    m_lock.writeLock().unlock();
-                }
+        @Override
+        public int weigh(final KeyType p_key, final ValueType p_value) {
+            if (!(p_value instanceof ObjectSize)) {
+                throw new IllegalArgumentException("Value " + p_value + " does not implement " +
+                        ObjectSize.class.getSimpleName() + ", a Weigher is required");
             }
-        }
 
-        /**
-         * Stops the TTLHandler
-         */
-        public void stop() {
-            m_running = false;
+            return ((ObjectSize) p_value).sizeofObject();
         }
 
     }
@@ -626,7 +1618,9 @@ public class Cache<KeyType, ValueType> {
     }
 
     /**
-     * Eviction policy, which removes always the least recently used entry
+     * Eviction policy, which removes always the least recently used entry.
+     * The entries are kept in access order in an intrusive doubly linked list, so that accessing and evicting
+     * an entry are O(1) operations.
      *
      * @param <KeyType>
      *         Type of the key
@@ -636,12 +1630,16 @@ public class Cache<KeyType, ValueType> {
      */
     private static class LRUPolicy<KeyType, ValueType> implements EvictionPolicy<KeyType, ValueType> {
 
+        // Attributes
+        private final AccessQueue<KeyType, ValueType> m_queue;
+
         // Constrcutors
 
         /**
          * Creates an instance of LRUPolicy
          */
         LRUPolicy() {
+            m_queue = new AccessQueue<KeyType, ValueType>();
         }
 
         // Methods
@@ -655,19 +1653,9 @@ public class Cache<KeyType, ValueType> {
          */
         @Override
         public KeyType evict(final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
-            Iterator<CacheEntry<KeyType, ValueType>> iter;
-            CacheEntry<KeyType, ValueType> currentEntry;
-            CacheEntry<KeyType, ValueType> leastRecentlyUsedEntry = null;
-            long lastAccess = System.currentTimeMillis();
-
-            iter = p_entries.iterator();
-            while (iter.hasNext()) {
-                currentEntry = iter.next();
-                if (lastAccess > currentEntry.m_lastAccess) {
-                    leastRecentlyUsedEntry = currentEntry;
-                    lastAccess = currentEntry.m_lastAccess;
-                }
-            }
+            CacheEntry<KeyType, ValueType> leastRecentlyUsedEntry;
+
+            leastRecentlyUsedEntry = m_queue.peekLast();
             assert leastRecentlyUsedEntry != null;
             return leastRecentlyUsedEntry.getKey();
         }
@@ -680,6 +1668,140 @@ public class Cache<KeyType, ValueType> {
          */
         @Override
         public void newEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            m_queue.addFirst(p_entry);
+        }
+
+        /**
+         * A cache entry was accessed
+         *
+         * @param p_entry
+         *         the accessed cache entry
+         */
+        @Override
+        public void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            m_queue.moveToFirst(p_entry);
+        }
+
+        /**
+         * A cache entry was removed
+         *
+         * @param p_entry
+         *         the removed cache entry
+         * @param p_entries
+         *         the current cache entries
+         */
+        @Override
+        public void removeEntry(final CacheEntry<KeyType, ValueType> p_entry,
+                final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
+            m_queue.remove(p_entry);
+        }
+
+    }
+
+    /**
+     * Window-TinyLFU eviction policy. New entries are admitted to a small LRU window (1% of the capacity). The
+     * remaining capacity is a segmented LRU (probation and protected). When the cache is full, the entry leaving the
+     * window only replaces the victim of the probation segment if it was accessed more frequently. The frequencies
+     * are estimated by a count-min sketch that is aged periodically. Scans of one-off keys therefore do not flush
+     * frequently used entries. All operations are O(1).
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static class TinyLFUPolicy<KeyType, ValueType> implements EvictionPolicy<KeyType, ValueType> {
+
+        // Constants
+        private static final byte WINDOW = 0;
+        private static final byte PROBATION = 1;
+        private static final byte PROTECTED = 2;
+        private static final float WINDOW_PERCENTAGE = 0.01f;
+        private static final float PROTECTED_PERCENTAGE = 0.8f;
+
+        // Attributes
+        private final AccessQueue<KeyType, ValueType> m_window;
+        private final AccessQueue<KeyType, ValueType> m_probation;
+        private final AccessQueue<KeyType, ValueType> m_protected;
+        private final int m_maxWindow;
+        private final int m_maxProtected;
+        private final FrequencySketch m_sketch;
+
+        // Constrcutors
+
+        /**
+         * Creates an instance of TinyLFUPolicy
+         *
+         * @param p_maxSize
+         *         the maximum number of cached elements
+         */
+        TinyLFUPolicy(final int p_maxSize) {
+            m_window = new AccessQueue<KeyType, ValueType>();
+            m_probation = new AccessQueue<KeyType, ValueType>();
+            m_protected = new AccessQueue<KeyType, ValueType>();
+            m_maxWindow = Math.max(1, (int) (p_maxSize * WINDOW_PERCENTAGE));
+            m_maxProtected = (int) ((p_maxSize - m_maxWindow) * PROTECTED_PERCENTAGE);
+            m_sketch = new FrequencySketch(p_maxSize);
+        }
+
+        // Methods
+
+        /**
+         * Defines the key of the cache entry which should be removed
+         *
+         * @param p_entries
+         *         the current cache entries
+         * @return return the key to remove
+         */
+        @Override
+        public KeyType evict(final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
+            CacheEntry<KeyType, ValueType> candidate = null;
+            CacheEntry<KeyType, ValueType> victim;
+
+            // The new entry is always admitted to the window. If the window is full, its LRU entry competes with
+            // the victim of the main space
+            if (m_window.size() >= m_maxWindow) {
+                candidate = m_window.peekLast();
+            }
+
+            victim = m_probation.peekLast();
+            if (victim == null) {
+                victim = m_protected.peekLast();
+            }
+
+            if (victim == null) {
+                assert candidate != null || m_window.size() > 0;
+                return candidate != null ? candidate.getKey() : m_window.peekLast().getKey();
+            }
+
+            if (candidate != null && m_sketch.frequency(candidate.getKey()) <=
+                    m_sketch.frequency(victim.getKey())) {
+                return candidate.getKey();
+            }
+
+            return victim.getKey();
+        }
+
+        /**
+         * A new cache entry was created
+         *
+         * @param p_entry
+         *         the created cache entry
+         */
+        @Override
+        public void newEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            CacheEntry<KeyType, ValueType> overflow;
+
+            p_entry.m_region = WINDOW;
+            m_window.addFirst(p_entry);
+
+            if (m_window.size() > m_maxWindow) {
+                // The candidate survived the admission in evict (or the cache is not full yet)
+                overflow = m_window.peekLast();
+                m_window.remove(overflow);
+                overflow.m_region = PROBATION;
+                m_probation.addFirst(overflow);
+            }
         }
 
         /**
@@ -690,6 +1812,32 @@ public class Cache<KeyType, ValueType> {
          */
         @Override
         public void accessEntry(final CacheEntry<KeyType, ValueType> p_entry) {
+            CacheEntry<KeyType, ValueType> demoted;
+
+            m_sketch.increment(p_entry.getKey());
+
+            switch (p_entry.m_region) {
+                case WINDOW:
+                    m_window.moveToFirst(p_entry);
+                    break;
+                case PROBATION:
+                    m_probation.remove(p_entry);
+                    p_entry.m_region = PROTECTED;
+                    m_protected.addFirst(p_entry);
+
+                    if (m_protected.size() > m_maxProtected) {
+                        demoted = m_protected.peekLast();
+                        m_protected.remove(demoted);
+                        demoted.m_region = PROBATION;
+                        m_probation.addFirst(demoted);
+                    }
+                    break;
+                case PROTECTED:
+                    m_protected.moveToFirst(p_entry);
+                    break;
+                default:
+                    break;
+            }
         }
 
         /**
@@ -703,6 +1851,271 @@ public class Cache<KeyType, ValueType> {
         @Override
         public void removeEntry(final CacheEntry<KeyType, ValueType> p_entry,
                 final Collection<CacheEntry<KeyType, ValueType>> p_entries) {
+            switch (p_entry.m_region) {
+                case WINDOW:
+                    m_window.remove(p_entry);
+                    break;
+                case PROBATION:
+                    m_probation.remove(p_entry);
+                    break;
+                case PROTECTED:
+                    m_protected.remove(p_entry);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+    }
+
+    /**
+     * Count-min sketch with four 4 bit counters per key to estimate the access frequency of keys. All counters are
+     * halved after a sample period of ten times the capacity to let the history decay.
+     */
+    private static final class FrequencySketch {
+
+        // Constants
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+                0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final int MAX_TABLE_SIZE = 1 << 22;
+
+        // Attributes
+        private final long[] m_table;
+        private final int m_tableMask;
+        private final int m_sampleSize;
+        private int m_additions;
+
+        // Constructors
+
+        /**
+         * Creates an instance of FrequencySketch
+         *
+         * @param p_capacity
+         *         the maximum number of cached elements
+         */
+        FrequencySketch(final int p_capacity) {
+            int size = 8;
+
+            // 16 counters per long, one long per element
+            while (size < p_capacity && size < MAX_TABLE_SIZE) {
+                size <<= 1;
+            }
+
+            m_table = new long[size];
+            m_tableMask = size - 1;
+            m_sampleSize = 10 * size;
+            m_additions = 0;
+        }
+
+        // Methods
+
+        /**
+         * Gets the estimated access frequency of a key
+         *
+         * @param p_key
+         *         the key
+         * @return the estimated frequency (0 - 15)
+         */
+        int frequency(final Object p_key) {
+            int hash = spread(p_key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            long h;
+
+            for (int i = 0; i < SEEDS.length; i++) {
+                h = hash(hash, i);
+                frequency = Math.min(frequency, (int) (m_table[index(h)] >>> counterShift(h)) & 0xF);
+            }
+
+            return frequency;
+        }
+
+        /**
+         * Increments the counters of a key. Ages all counters if the sample period is over.
+         *
+         * @param p_key
+         *         the key
+         */
+        void increment(final Object p_key) {
+            int hash = spread(p_key.hashCode());
+            boolean added = false;
+            long h;
+            int index;
+            int shift;
+
+            for (int i = 0; i < SEEDS.length; i++) {
+                h = hash(hash, i);
+                index = index(h);
+                shift = counterShift(h);
+
+                if ((m_table[index] >>> shift & 0xF) != 0xF) {
+                    m_table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+
+            if (added && ++m_additions >= m_sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * Halves all counters
+         */
+        private void reset() {
+            for (int i = 0; i < m_table.length; i++) {
+                m_table[i] = m_table[i] >>> 1 & RESET_MASK;
+            }
+
+            m_additions >>>= 1;
+        }
+
+        /**
+         * Applies a supplemental hash function
+         *
+         * @param p_hash
+         *         the hash code of the key
+         * @return the spread hash
+         */
+        private static int spread(final int p_hash) {
+            int hash = p_hash;
+
+            hash = (hash >>> 16 ^ hash) * 0x45d9f3b;
+            hash = (hash >>> 16 ^ hash) * 0x45d9f3b;
+            return hash >>> 16 ^ hash;
+        }
+
+        /**
+         * Derives the i-th hash of a key
+         *
+         * @param p_hash
+         *         the spread hash code of the key
+         * @param p_i
+         *         the number of the hash function
+         * @return the hash
+         */
+        private static long hash(final int p_hash, final int p_i) {
+            long hash = (p_hash + SEEDS[p_i]) * SEEDS[p_i];
+
+            return hash + (hash >>> 32);
+        }
+
+        /**
+         * Gets the table index of a counter
+         *
+         * @param p_hash
+         *         the hash of the counter
+         * @return the index of the long containing the counter
+         */
+        private int index(final long p_hash) {
+            return (int) (p_hash >>> 4) & m_tableMask;
+        }
+
+        /**
+         * Gets the bit offset of a counter within its long
+         *
+         * @param p_hash
+         *         the hash of the counter
+         * @return the bit offset
+         */
+        private static int counterShift(final long p_hash) {
+            return ((int) p_hash & 0xF) << 2;
+        }
+
+    }
+
+    /**
+     * Doubly linked list of cache entries using the links stored in the entries themselves.
+     * The first entry is the most recently added/moved one.
+     *
+     * @param <KeyType>
+     *         Type of the key
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static final class AccessQueue<KeyType, ValueType> {
+
+        // Attributes
+        private final CacheEntry<KeyType, ValueType> m_head;
+        private int m_size;
+
+        // Constructors
+
+        /**
+         * Creates an instance of AccessQueue
+         */
+        AccessQueue() {
+            m_head = new CacheEntry<KeyType, ValueType>(null, null);
+            m_head.m_prev = m_head;
+            m_head.m_next = m_head;
+            m_size = 0;
+        }
+
+        // Getters
+
+        /**
+         * Gets the number of linked entries
+         *
+         * @return the number of entries
+         */
+        int size() {
+            return m_size;
+        }
+
+        // Methods
+
+        /**
+         * Gets the last (least recently moved) entry
+         *
+         * @return the last entry or null if the queue is empty
+         */
+        CacheEntry<KeyType, ValueType> peekLast() {
+            return m_head.m_prev != m_head ? m_head.m_prev : null;
+        }
+
+        /**
+         * Links an entry at the front
+         *
+         * @param p_entry
+         *         the entry (must not be linked)
+         */
+        void addFirst(final CacheEntry<KeyType, ValueType> p_entry) {
+            assert p_entry.m_next == null && p_entry.m_prev == null;
+
+            p_entry.m_prev = m_head;
+            p_entry.m_next = m_head.m_next;
+            m_head.m_next.m_prev = p_entry;
+            m_head.m_next = p_entry;
+            m_size++;
+        }
+
+        /**
+         * Moves a linked entry to the front
+         *
+         * @param p_entry
+         *         the entry
+         */
+        void moveToFirst(final CacheEntry<KeyType, ValueType> p_entry) {
+            if (p_entry.m_next != null && m_head.m_next != p_entry) {
+                remove(p_entry);
+                addFirst(p_entry);
+            }
+        }
+
+        /**
+         * Unlinks an entry
+         *
+         * @param p_entry
+         *         the entry
+         */
+        void remove(final CacheEntry<KeyType, ValueType> p_entry) {
+            if (p_entry.m_next != null) {
+                p_entry.m_prev.m_next = p_entry.m_next;
+                p_entry.m_next.m_prev = p_entry.m_prev;
+                p_entry.m_prev = null;
+                p_entry.m_next = null;
+                m_size--;
+            }
         }
 
     }
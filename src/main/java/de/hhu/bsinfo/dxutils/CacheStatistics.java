@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import de.hhu.bsinfo.dxutils.stats.AbstractOperation;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.stats.TimePool;
+import de.hhu.bsinfo.dxutils.stats.ValuePool;
+
+/**
+ * Statistics operations of a cache, registered with the StatisticsManager. All operations are pools with one
+ * instance per thread, so recording does not need any synchronization. Latencies are recorded as count, total, best
+ * and worst time, which needs constant memory (percentile operations keep every sample).
+ */
+final class CacheStatistics {
+
+    // Attributes
+    private final ValuePool m_hits;
+    private final ValuePool m_misses;
+    private final ValuePool m_evictions;
+    private final ValuePool m_expirations;
+    private final TimePool m_getTime;
+    private final TimePool m_putTime;
+    private final TimePool m_writeLockWait;
+
+    // Constructors
+
+    /**
+     * Creates an instance of CacheStatistics and registers all operations
+     *
+     * @param p_name
+     *         the name of the cache (prefix of the operation names)
+     */
+    CacheStatistics(final String p_name) {
+        m_hits = new ValuePool(Cache.class, p_name + "-Hits");
+        m_misses = new ValuePool(Cache.class, p_name + "-Misses");
+        m_evictions = new ValuePool(Cache.class, p_name + "-Evictions");
+        m_expirations = new ValuePool(Cache.class, p_name + "-Expirations");
+        m_getTime = new TimePool(Cache.class, p_name + "-Get");
+        m_putTime = new TimePool(Cache.class, p_name + "-Put");
+        m_writeLockWait = new TimePool(Cache.class, p_name + "-WriteLockWait");
+
+        for (AbstractOperation operation : getOperations()) {
+            StatisticsManager.get().registerOperation(Cache.class, operation);
+        }
+    }
+
+    // Getters
+
+    /**
+     * Gets the number of hits
+     *
+     * @return the number of hits
+     */
+    long getHits() {
+        return m_hits.getCounter();
+    }
+
+    /**
+     * Gets the number of misses
+     *
+     * @return the number of misses
+     */
+    long getMisses() {
+        return m_misses.getCounter();
+    }
+
+    /**
+     * Gets the number of evictions
+     *
+     * @return the number of evictions
+     */
+    long getEvictions() {
+        return m_evictions.getCounter();
+    }
+
+    /**
+     * Gets the number of expired entries
+     *
+     * @return the number of expirations
+     */
+    long getExpirations() {
+        return m_expirations.getCounter();
+    }
+
+    // Methods
+
+    /**
+     * De-registers all operations from the StatisticsManager
+     */
+    void deregister() {
+        for (AbstractOperation operation : getOperations()) {
+            StatisticsManager.get().deregisterOperation(Cache.class, operation);
+        }
+    }
+
+    /**
+     * Records a get
+     *
+     * @param p_hit
+     *         true if a value was returned
+     * @param p_startNs
+     *         the start time of the get (System.nanoTime())
+     */
+    void recordGet(final boolean p_hit, final long p_startNs) {
+        m_getTime.record(System.nanoTime() - p_startNs);
+
+        if (p_hit) {
+            m_hits.inc();
+        } else {
+            m_misses.inc();
+        }
+    }
+
+    /**
+     * Records a put
+     *
+     * @param p_startNs
+     *         the start time of the put (System.nanoTime())
+     * @param p_lockedNs
+     *         the time the write lock was acquired (System.nanoTime())
+     */
+    void recordPut(final long p_startNs, final long p_lockedNs) {
+        long time = System.nanoTime();
+
+        m_putTime.record(time - p_startNs);
+        m_writeLockWait.record(p_lockedNs - p_startNs);
+    }
+
+    /**
+     * Records an eviction
+     */
+    void recordEviction() {
+        m_evictions.inc();
+    }
+
+    /**
+     * Records an expired entry
+     */
+    void recordExpiration() {
+        m_expirations.inc();
+    }
+
+    /**
+     * Gets all operations
+     *
+     * @return the operations
+     */
+    private AbstractOperation[] getOperations() {
+        return new AbstractOperation[] {m_hits, m_misses, m_evictions, m_expirations, m_getTime, m_putTime,
+                m_writeLockWait};
+    }
+
+}
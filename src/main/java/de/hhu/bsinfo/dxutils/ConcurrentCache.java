@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import de.hhu.bsinfo.dxutils.unit.StorageUnit;
+
+/**
+ * Lock striped variant of Cache for highly concurrent access. The keys are distributed to a fixed number of
+ * independent stripes by their hash code. Every stripe is a Cache with its own lock and eviction state, so
+ * operations on different stripes do not contend. The maximum size (or weight) is split as equally as possible
+ * between the stripes, i.e. the eviction policy is applied per stripe. There are never more stripes than the maximum,
+ * so the sum of the stripe limits is exactly the maximum. Timed out entries of all stripes are removed by a single
+ * background thread.
+ *
+ * @param <KeyType>
+ *         Type of the key
+ * @param <ValueType>
+ *         Type of the value
+ */
+public class ConcurrentCache<KeyType, ValueType> {
+
+    // Attributes
+    private final Cache<KeyType, ValueType>[] m_stripes;
+    private final int m_stripeMask;
+    private volatile ExpiryHandler m_expiryHandler;
+
+    // Constructors
+
+    /**
+     * Creates an instance of ConcurrentCache with LRU eviction and one stripe per available processor
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     */
+    public ConcurrentCache(final int p_maxSize) {
+        this(p_maxSize, Cache.POLICY.LRU, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an instance of ConcurrentCache
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @param p_policy
+     *         the eviction policy of every stripe
+     * @param p_concurrencyLevel
+     *         the estimated number of concurrently accessing threads (rounded up to the next power of two)
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCache(final int p_maxSize, final Cache.POLICY p_policy, final int p_concurrencyLevel) {
+        int stripes;
+
+        assert p_maxSize > 0;
+        assert p_policy != null;
+        assert p_concurrencyLevel > 0;
+
+        stripes = stripeCount(p_concurrencyLevel, p_maxSize);
+
+        m_stripes = (Cache<KeyType, ValueType>[]) new Cache<?, ?>[stripes];
+        m_stripeMask = stripes - 1;
+        for (int i = 0; i < stripes; i++) {
+            m_stripes[i] = new Cache<KeyType, ValueType>(p_maxSize / stripes + (i < p_maxSize % stripes ? 1 : 0),
+                    p_policy);
+            m_stripes[i].disableOwnExpiryThread();
+        }
+    }
+
+    /**
+     * Creates an instance of ConcurrentCache limited by the total weight of its entries.
+     * Every stripe only gets its share of the maximum weight (maxWeight / getStripeCount()), so an entry heavier
+     * than that share is rejected like an entry heavier than the maximum weight of a Cache. Lower the concurrency
+     * level if single entries can weigh more than that share.
+     *
+     * @param p_maxWeight
+     *         the maximum total weight of the cached entries
+     * @param p_policy
+     *         the eviction policy of every stripe
+     * @param p_weigher
+     *         determines the weight (size in bytes) of an entry
+     * @param p_concurrencyLevel
+     *         the estimated number of concurrently accessing threads (rounded up to the next power of two)
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCache(final StorageUnit p_maxWeight, final Cache.POLICY p_policy,
+            final Cache.Weigher<KeyType, ValueType> p_weigher, final int p_concurrencyLevel) {
+        long maxWeight = p_maxWeight.getBytes();
+        StorageUnit stripeWeight;
+        int stripes;
+
+        assert p_maxWeight.getBytes() > 0;
+        assert p_policy != null;
+        assert p_concurrencyLevel > 0;
+
+        stripes = stripeCount(p_concurrencyLevel, maxWeight);
+
+        m_stripes = (Cache<KeyType, ValueType>[]) new Cache<?, ?>[stripes];
+        m_stripeMask = stripes - 1;
+        for (int i = 0; i < stripes; i++) {
+            stripeWeight = new StorageUnit(maxWeight / stripes + (i < maxWeight % stripes ? 1 : 0),
+                    StorageUnit.BYTE);
+            m_stripes[i] = new Cache<KeyType, ValueType>(stripeWeight, p_policy, p_weigher);
+            m_stripes[i].disableOwnExpiryThread();
+        }
+    }
+
+    // Getters
+
+    /**
+     * Gets the number of stripes
+     *
+     * @return the number of stripes
+     */
+    public final int getStripeCount() {
+        return m_stripes.length;
+    }
+
+    // Methods
+
+    /**
+     * Creates a new cache entry or updates an existing one
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    public final void put(final KeyType p_key, final ValueType p_value) {
+        stripeFor(p_key).put(p_key, p_value);
+    }
+
+    /**
+     * Creates a new cache entry or updates an existing one with an individual TTL
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @param p_ttl
+     *         the TTL of the entry in ms (0 to use the TTL of the cache)
+     */
+    public final void put(final KeyType p_key, final ValueType p_value, final long p_ttl) {
+        stripeFor(p_key).put(p_key, p_value, p_ttl);
+
+        if (p_ttl > 0 && m_expiryHandler == null) {
+            startExpiryHandler();
+        }
+    }
+
+    /**
+     * Gets the value of a cache entry for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return the value of the cache entry or null if no entry exists
+     */
+    public final ValueType get(final KeyType p_key) {
+        return stripeFor(p_key).get(p_key);
+    }
+
+    /**
+     * Removes the cache entry for the given key
+     *
+     * @param p_key
+     *         the key
+     */
+    public final void remove(final KeyType p_key) {
+        stripeFor(p_key).remove(p_key);
+    }
+
+    /**
+     * Checks if a cache entry exists for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return true if a cache entry exists, false otherwise
+     */
+    public final boolean contains(final KeyType p_key) {
+        return stripeFor(p_key).contains(p_key);
+    }
+
+    /**
+     * Gets the number of cached entries. The stripes are not locked at once, so the result is only a snapshot if
+     * the cache is modified concurrently.
+     *
+     * @return the number of entries
+     */
+    public final int size() {
+        int ret = 0;
+
+        for (Cache<KeyType, ValueType> stripe : m_stripes) {
+            ret += stripe.size();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Gets the total weight of all entries (snapshot like size)
+     *
+     * @return the total weight (0 if the cache is not weight limited)
+     */
+    public final long getWeight() {
+        long ret = 0;
+
+        for (Cache<KeyType, ValueType> stripe : m_stripes) {
+            ret += stripe.getWeight();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes all entries from the cache (stripe by stripe)
+     */
+    public final void clear() {
+        for (Cache<KeyType, ValueType> stripe : m_stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Enables TTL for cache entries
+     *
+     * @param p_ttl
+     *         ttl in ms for all cache entries without an individual TTL
+     */
+    public final synchronized void enableTTL(final long p_ttl) {
+        for (Cache<KeyType, ValueType> stripe : m_stripes) {
+            stripe.enableTTL(p_ttl);
+        }
+
+        startExpiryHandler();
+    }
+
+    /**
+     * Disables TTL for cache entries. Entries with an individual TTL still time out on access.
+     */
+    public final synchronized void disableTTL() {
+        for (Cache<KeyType, ValueType> stripe : m_stripes) {
+            stripe.disableTTL();
+        }
+
+        if (m_expiryHandler != null) {
+            m_expiryHandler.stop();
+            m_expiryHandler = null;
+        }
+    }
+
+    /**
+     * Enables statistics (hits, misses, evictions, expirations and latencies of get and put) registered with the
+     * StatisticsManager. All stripes record to the same operations.
+     *
+     * @param p_name
+     *         the name of the cache used as prefix of the statistics operations
+     */
+    public final synchronized void enableStatistics(final String p_name) {
+        CacheStatistics statistics = new CacheStatistics(p_name);
+
+        disableStatistics();
+
+        for (Cache<KeyType, ValueType> stripe : m_stripes) {
+            stripe.setStatistics(statistics);
+        }
+    }
+
+    /**
+     * Disables statistics and de-registers them from the StatisticsManager
+     */
+    public final synchronized void disableStatistics() {
+        for (Cache<KeyType, ValueType> stripe : m_stripes) {
+            stripe.setStatistics(null);
+        }
+    }
+
+    /**
+     * Starts the ExpiryHandler if it is not running
+     */
+    private synchronized void startExpiryHandler() {
+        Thread t;
+
+        if (m_expiryHandler == null) {
+            m_expiryHandler = new ExpiryHandler();
+
+            t = new Thread(m_expiryHandler);
+            t.setName(ExpiryHandler.class.getSimpleName() + " for " + ConcurrentCache.class.getSimpleName());
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /**
+     * Determines the number of stripes
+     *
+     * @param p_concurrencyLevel
+     *         the estimated number of concurrently accessing threads
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @return the concurrency level rounded up to the next power of two, but not more than the maximum size rounded
+     * down to a power of two (every stripe holds at least one element)
+     */
+    private static int stripeCount(final int p_concurrencyLevel, final long p_maxSize) {
+        int ret = 1;
+
+        while (ret < p_concurrencyLevel && ret * 2L <= p_maxSize) {
+            ret <<= 1;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Gets the stripe responsible for the given key
+     *
+     * @param p_key
+     *         the key
+     * @return the stripe
+     */
+    private Cache<KeyType, ValueType> stripeFor(final KeyType p_key) {
+        int hash;
+
+        assert p_key != null;
+
+        // spread the higher bits as the lower ones select the stripe
+        hash = p_key.hashCode();
+        hash ^= hash >>> 16;
+
+        return m_stripes[hash & m_stripeMask];
+    }
+
+    /**
+     * Removes the timed out entries of all stripes. The stripes are locked one after another.
+     */
+    private class ExpiryHandler implements Runnable {
+
+        // Constants
+        private static final long SLEEP_TIME = 64;
+
+        // Attributes
+        private volatile boolean m_running;
+
+        // Constructors
+
+        /**
+         * Creates an instance of ExpiryHandler
+         */
+        ExpiryHandler() {
+            m_running = true;
+        }
+
+        // Methods
+
+        @Override
+        public void run() {
+            while (m_running) {
+                try {
+                    Thread.sleep(SLEEP_TIME);
+                } catch (final InterruptedException ignored) {
+                }
+
+                for (int i = 0; i < m_stripes.length && m_running; i++) {
+                    m_stripes[i].expireEntries();
+                }
+            }
+        }
+
+        /**
+         * Stops the ExpiryHandler
+         */
+        public void stop() {
+            m_running = false;
+        }
+
+    }
+
+}
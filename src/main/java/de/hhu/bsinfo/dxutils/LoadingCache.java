@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Cache which loads missing values with a loader function. Concurrent requests for a missing key are coalesced:
+ * only one caller runs the loader while all others wait for the same CompletableFuture, so a hot key does not hit
+ * the backend once per thread. Values can expire a fixed time after they were loaded and can be refreshed in the
+ * background before they expire (refresh-ahead), so hot keys never block on the loader again.
+ * The values are stored in a Cache with the given eviction policy.
+ *
+ * @param <KeyType>
+ *         Type of the key
+ * @param <ValueType>
+ *         Type of the value
+ */
+public class LoadingCache<KeyType, ValueType> {
+
+    // Attributes
+    private final Cache<KeyType, LoadedValue<ValueType>> m_cache;
+    private final ConcurrentMap<KeyType, CompletableFuture<ValueType>> m_inFlight;
+    private final long m_expireAfterWrite;
+    private final long m_refreshAfterWrite;
+    private final Executor m_executor;
+
+    // Constructors
+
+    /**
+     * Creates an instance of LoadingCache with LRU eviction and without expiry
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     */
+    public LoadingCache(final int p_maxSize) {
+        this(p_maxSize, Cache.POLICY.LRU, 0, 0, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an instance of LoadingCache
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     * @param p_policy
+     *         the eviction policy
+     * @param p_expireAfterWrite
+     *         time in ms after which a loaded value expires (0 for no expiry)
+     * @param p_refreshAfterWrite
+     *         time in ms after which a loaded value is reloaded in the background on access (0 for no refresh).
+     *         Must be lower than p_expireAfterWrite.
+     * @param p_executor
+     *         the executor to run asynchronous loads and refreshes on
+     */
+    public LoadingCache(final int p_maxSize, final Cache.POLICY p_policy, final long p_expireAfterWrite,
+            final long p_refreshAfterWrite, final Executor p_executor) {
+        assert p_expireAfterWrite >= 0;
+        assert p_refreshAfterWrite >= 0;
+        assert p_expireAfterWrite == 0 || p_refreshAfterWrite < p_expireAfterWrite;
+        assert p_executor != null;
+
+        m_cache = new Cache<KeyType, LoadedValue<ValueType>>(p_maxSize, p_policy);
+        m_inFlight = new ConcurrentHashMap<KeyType, CompletableFuture<ValueType>>();
+        m_expireAfterWrite = p_expireAfterWrite;
+        m_refreshAfterWrite = p_refreshAfterWrite;
+        m_executor = p_executor;
+    }
+
+    // Methods
+
+    /**
+     * Gets the value for the given key. On a miss, the calling thread loads the value or waits for the load which
+     * is already in progress for the key.
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         loads the value of a key (may return null, which is not cached)
+     * @return the value
+     * @throws java.util.concurrent.CompletionException
+     *         if the loader failed
+     */
+    public final ValueType get(final KeyType p_key, final Function<? super KeyType, ? extends ValueType> p_loader) {
+        LoadedValue<ValueType> loaded;
+
+        loaded = getIfPresent(p_key, p_loader);
+        if (loaded != null) {
+            return loaded.m_value;
+        }
+
+        return load(p_key, p_loader, false).join();
+    }
+
+    /**
+     * Gets the value for the given key. On a miss, the value is loaded on the executor.
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         loads the value of a key (may return null, which is not cached)
+     * @return a future for the value, which is already completed on a hit (completed exceptionally if the loader
+     * failed or the executor rejected the load)
+     */
+    public final CompletableFuture<ValueType> getAsync(final KeyType p_key,
+            final Function<? super KeyType, ? extends ValueType> p_loader) {
+        LoadedValue<ValueType> loaded;
+
+        loaded = getIfPresent(p_key, p_loader);
+        if (loaded != null) {
+            return CompletableFuture.completedFuture(loaded.m_value);
+        }
+
+        return load(p_key, p_loader, true);
+    }
+
+    /**
+     * Stores a value without loading it
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    public final void put(final KeyType p_key, final ValueType p_value) {
+        assert p_value != null;
+
+        m_cache.put(p_key, new LoadedValue<ValueType>(p_value), m_expireAfterWrite);
+    }
+
+    /**
+     * Removes the value for the given key. A load in progress is not cancelled.
+     *
+     * @param p_key
+     *         the key
+     */
+    public final void invalidate(final KeyType p_key) {
+        m_cache.remove(p_key);
+    }
+
+    /**
+     * Gets the number of cached values
+     *
+     * @return the number of values
+     */
+    public final int size() {
+        return m_cache.size();
+    }
+
+    /**
+     * Removes all values
+     */
+    public final void clear() {
+        m_cache.clear();
+    }
+
+    /**
+     * Enables statistics of the underlying cache registered with the StatisticsManager. A value found in the
+     * underlying cache counts as hit, even if it expired after write and is loaded again.
+     *
+     * @param p_name
+     *         the name of the cache used as prefix of the statistics operations
+     */
+    public final void enableStatistics(final String p_name) {
+        m_cache.enableStatistics(p_name);
+    }
+
+    /**
+     * Disables statistics and de-registers them from the StatisticsManager
+     */
+    public final void disableStatistics() {
+        m_cache.disableStatistics();
+    }
+
+    /**
+     * Gets a cached value which has not expired. Triggers a refresh if the value is due for it.
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         the loader for the refresh
+     * @return the cached value or null
+     */
+    private LoadedValue<ValueType> getIfPresent(final KeyType p_key,
+            final Function<? super KeyType, ? extends ValueType> p_loader) {
+        LoadedValue<ValueType> ret;
+        long age;
+
+        ret = m_cache.get(p_key);
+        if (ret != null) {
+            age = System.currentTimeMillis() - ret.m_loadTime;
+
+            if (m_expireAfterWrite != 0 && age >= m_expireAfterWrite) {
+                ret = null;
+            } else if (m_refreshAfterWrite != 0 && age >= m_refreshAfterWrite) {
+                // The old value is returned until the refresh completed
+                load(p_key, p_loader, true);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Loads the value for the given key or joins the load in progress
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         loads the value of a key
+     * @param p_async
+     *         true to run the loader on the executor, false to run it in the calling thread
+     * @return the future of the load
+     */
+    private CompletableFuture<ValueType> load(final KeyType p_key,
+            final Function<? super KeyType, ? extends ValueType> p_loader, final boolean p_async) {
+        CompletableFuture<ValueType> future;
+        CompletableFuture<ValueType> inFlight;
+
+        future = new CompletableFuture<ValueType>();
+        inFlight = m_inFlight.putIfAbsent(p_key, future);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        if (p_async) {
+            try {
+                m_executor.execute(() -> complete(p_key, p_loader, future));
+            } catch (final RuntimeException e) {
+                // E.g. rejected by a bounded or shut down executor, the load never runs
+                m_inFlight.remove(p_key, future);
+                future.completeExceptionally(e);
+            }
+        } else {
+            complete(p_key, p_loader, future);
+        }
+
+        return future;
+    }
+
+    /**
+     * Runs the loader and completes the future of the load
+     *
+     * @param p_key
+     *         the key
+     * @param p_loader
+     *         loads the value of a key
+     * @param p_future
+     *         the future of the load
+     */
+    private void complete(final KeyType p_key, final Function<? super KeyType, ? extends ValueType> p_loader,
+            final CompletableFuture<ValueType> p_future) {
+        ValueType value;
+
+        try {
+            value = p_loader.apply(p_key);
+        } catch (final Throwable e) {
+            m_inFlight.remove(p_key, p_future);
+            p_future.completeExceptionally(e);
+
+            return;
+        }
+
+        // Cache the value before removing the future, so later callers find one or the other
+        if (value != null) {
+            m_cache.put(p_key, new LoadedValue<ValueType>(value), m_expireAfterWrite);
+        }
+
+        m_inFlight.remove(p_key, p_future);
+        p_future.complete(value);
+    }
+
+    /**
+     * A cached value with its load time
+     *
+     * @param <ValueType>
+     *         Type of the value
+     */
+    private static final class LoadedValue<ValueType> {
+
+        // Attributes
+        private final ValueType m_value;
+        private final long m_loadTime;
+
+        // Constructors
+
+        /**
+         * Creates an instance of LoadedValue
+         *
+         * @param p_value
+         *         the value
+         */
+        private LoadedValue(final ValueType p_value) {
+            m_value = p_value;
+            m_loadTime = System.currentTimeMillis();
+        }
+
+    }
+
+}
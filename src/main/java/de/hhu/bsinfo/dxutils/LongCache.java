@@ -0,0 +1,362 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+import de.hhu.bsinfo.dxutils.hashtable.LongHashTable;
+
+/**
+ * LRU cache specialized for long keys (e.g. chunk IDs). In contrast to Cache, keys are not boxed and there are no
+ * entry objects: a LongHashTable maps the keys to slots and the key, value and LRU links of a slot are stored in
+ * parallel arrays. Lookups do not allocate and an entry needs about 40 bytes (plus the value itself) compared to
+ * well above 100 bytes for a boxed key, a HashMap node and a CacheEntry.
+ * Like Cache, reads record their accesses in an AccessBuffer instead of synchronizing on the LRU list, so the LRU
+ * order is approximate under concurrency.
+ *
+ * @param <ValueType>
+ *         Type of the value
+ */
+public class LongCache<ValueType> {
+
+    // Constants
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NIL = -1;
+
+    // Attributes
+    private final int m_maxSize;
+    private final LongHashTable m_index;
+
+    // Slots: key, value and links of the LRU list (most recently used at head, free slots are linked by m_next)
+    private long[] m_keys;
+    private Object[] m_values;
+    private int[] m_prev;
+    private int[] m_next;
+    private int m_head;
+    private int m_tail;
+    private int m_freeSlots;
+    private int m_usedSlots;
+
+    // Slots accessed by readers, moved to the head of the LRU list under the write lock
+    private final AccessBuffer m_accessBuffer;
+    private final int[] m_accessed;
+    private final IntConsumer m_applyAccess;
+
+    private final ReadWriteLock m_lock;
+
+    // Constructors
+
+    /**
+     * Creates an instance of LongCache
+     *
+     * @param p_maxSize
+     *         the maximum of cached elements
+     */
+    public LongCache(final int p_maxSize) {
+        int capacity;
+
+        assert p_maxSize > 0;
+
+        capacity = Math.min(p_maxSize, INITIAL_CAPACITY);
+
+        m_maxSize = p_maxSize;
+        m_index = new LongHashTable();
+        m_keys = new long[capacity];
+        m_values = new Object[capacity];
+        m_prev = new int[capacity];
+        m_next = new int[capacity];
+        m_head = NIL;
+        m_tail = NIL;
+        m_freeSlots = NIL;
+        m_usedSlots = 0;
+
+        m_accessBuffer = new AccessBuffer();
+        m_accessed = new int[m_accessBuffer.capacity()];
+        m_applyAccess = p_index -> moveToFirst(m_accessed[p_index]);
+
+        m_lock = new ReentrantReadWriteLock(false);
+    }
+
+    // Getters
+
+    /**
+     * Gets the number of cached entries
+     *
+     * @return the number of entries
+     */
+    public final int size() {
+        int ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_index.size();
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    // Methods
+
+    /**
+     * Creates a new cache entry or updates an existing one. Evicts the least recently used entry if the cache is
+     * full.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     */
+    public final void put(final long p_key, final ValueType p_value) {
+        int slot;
+
+        assert p_key != 0;
+
+        m_lock.writeLock().lock();
+
+        m_accessBuffer.drain(m_applyAccess);
+
+        slot = (int) m_index.get(p_key);
+        if (slot == NIL) {
+            if (m_index.size() >= m_maxSize) {
+                removeSlot(m_tail);
+            }
+
+            slot = allocateSlot();
+            m_keys[slot] = p_key;
+            m_index.put(p_key, slot);
+            linkFirst(slot);
+        } else {
+            moveToFirst(slot);
+        }
+
+        m_values[slot] = p_value;
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Gets the value of a cache entry for the given key
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value of the cache entry or null if no entry exists
+     */
+    @SuppressWarnings("unchecked")
+    public final ValueType get(final long p_key) {
+        ValueType ret = null;
+        boolean drain = false;
+        int slot;
+        int index;
+
+        assert p_key != 0;
+
+        m_lock.readLock().lock();
+
+        slot = (int) m_index.get(p_key);
+        if (slot != NIL) {
+            index = m_accessBuffer.claim();
+            if (index != -1) {
+                m_accessed[index] = slot;
+                drain = AccessBuffer.isLast(index);
+            } else {
+                // The buffer stripe is full: other readers may update the LRU list directly as well
+                synchronized (m_index) {
+                    moveToFirst(slot);
+                }
+                drain = true;
+            }
+
+            ret = (ValueType) m_values[slot];
+        }
+
+        m_lock.readLock().unlock();
+
+        if (drain && m_lock.writeLock().tryLock()) {
+            m_accessBuffer.drain(m_applyAccess);
+
+            m_lock.writeLock().unlock();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Checks if a cache entry exists for the given key (without updating the LRU order)
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return true if a cache entry exists, false otherwise
+     */
+    public final boolean contains(final long p_key) {
+        boolean ret;
+
+        assert p_key != 0;
+
+        m_lock.readLock().lock();
+
+        ret = m_index.get(p_key) != NIL;
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Removes the cache entry for the given key
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     */
+    public final void remove(final long p_key) {
+        int slot;
+
+        assert p_key != 0;
+
+        m_lock.writeLock().lock();
+
+        // The buffered accesses must not refer to freed slots
+        m_accessBuffer.drain(m_applyAccess);
+
+        slot = (int) m_index.get(p_key);
+        if (slot != NIL) {
+            removeSlot(slot);
+        }
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Removes all entries from the cache
+     */
+    public final void clear() {
+        m_lock.writeLock().lock();
+
+        m_accessBuffer.drain(m_applyAccess);
+        m_index.clear();
+        Arrays.fill(m_values, 0, m_usedSlots, null);
+        m_head = NIL;
+        m_tail = NIL;
+        m_freeSlots = NIL;
+        m_usedSlots = 0;
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Gets a free slot, grows the slot arrays if necessary. Caller must hold the write lock.
+     *
+     * @return the slot
+     */
+    private int allocateSlot() {
+        int ret;
+        int capacity;
+
+        if (m_freeSlots != NIL) {
+            ret = m_freeSlots;
+            m_freeSlots = m_next[ret];
+        } else {
+            if (m_usedSlots == m_keys.length) {
+                capacity = (int) Math.min(m_maxSize, m_keys.length * 2L);
+
+                m_keys = Arrays.copyOf(m_keys, capacity);
+                m_values = Arrays.copyOf(m_values, capacity);
+                m_prev = Arrays.copyOf(m_prev, capacity);
+                m_next = Arrays.copyOf(m_next, capacity);
+            }
+
+            ret = m_usedSlots++;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes the entry of a slot and frees the slot. Caller must hold the write lock.
+     *
+     * @param p_slot
+     *         the slot
+     */
+    private void removeSlot(final int p_slot) {
+        m_index.remove(m_keys[p_slot]);
+        unlink(p_slot);
+
+        m_keys[p_slot] = 0;
+        m_values[p_slot] = null;
+        m_next[p_slot] = m_freeSlots;
+        m_freeSlots = p_slot;
+    }
+
+    /**
+     * Inserts a slot at the head of the LRU list
+     *
+     * @param p_slot
+     *         the slot
+     */
+    private void linkFirst(final int p_slot) {
+        m_prev[p_slot] = NIL;
+        m_next[p_slot] = m_head;
+
+        if (m_head != NIL) {
+            m_prev[m_head] = p_slot;
+        } else {
+            m_tail = p_slot;
+        }
+
+        m_head = p_slot;
+    }
+
+    /**
+     * Removes a slot from the LRU list
+     *
+     * @param p_slot
+     *         the slot
+     */
+    private void unlink(final int p_slot) {
+        int prev = m_prev[p_slot];
+        int next = m_next[p_slot];
+
+        if (prev != NIL) {
+            m_next[prev] = next;
+        } else {
+            m_head = next;
+        }
+
+        if (next != NIL) {
+            m_prev[next] = prev;
+        } else {
+            m_tail = prev;
+        }
+    }
+
+    /**
+     * Moves a slot to the head of the LRU list
+     *
+     * @param p_slot
+     *         the slot
+     */
+    private void moveToFirst(final int p_slot) {
+        if (m_head != p_slot) {
+            unlink(p_slot);
+            linkFirst(p_slot);
+        }
+    }
+
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.hhu.bsinfo.dxutils.hashtable.LongHashTable;
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.unit.StorageUnit;
+
+/**
+ * Cache for serialized values stored outside of the java heap. All values are appended to a single memory region
+ * allocated with UnsafeMemory, which is used as a ring buffer: if there is not enough space for a new value, the
+ * oldest values are evicted (FIFO). The only structure on the java heap is a primitive index (LongHashTable) mapping
+ * the keys to the positions in the ring buffer. This keeps the garbage collector out of even very large caches.
+ * Values are written and read with the Exportable/Importable interfaces. The memory must be released with free().
+ *
+ * Layout of a value in the ring buffer (aligned to 8 bytes):
+ * [key (8 bytes)][length (4 bytes)][payload (length bytes)]
+ * A key of 0 marks the unused rest of the region before the ring buffer wraps around.
+ */
+public class OffHeapCache {
+
+    // Constants
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int ALIGNMENT = 8;
+
+    // Attributes
+    private final long m_address;
+    private final long m_capacity;
+    private final LongHashTable m_index;
+    private final ThreadLocal<BufferView> m_views;
+
+    private long m_head;
+    private long m_tail;
+    private long m_used;
+
+    private final ReadWriteLock m_lock;
+
+    // Constructors
+
+    /**
+     * Creates an instance of OffHeapCache
+     *
+     * @param p_capacity
+     *         the size of the memory region for the values (including a 12 byte header per value, padded to a
+     *         multiple of 8 bytes)
+     */
+    public OffHeapCache(final StorageUnit p_capacity) {
+        assert p_capacity.getBytes() >= ALIGNMENT;
+
+        m_capacity = p_capacity.getBytes() / ALIGNMENT * ALIGNMENT;
+        m_address = UnsafeMemory.allocate(m_capacity);
+        m_index = new LongHashTable();
+        m_views = new ThreadLocal<BufferView>() {
+            @Override
+            protected BufferView initialValue() {
+                return new BufferView(m_address);
+            }
+        };
+
+        m_head = 0;
+        m_tail = 0;
+        m_used = 0;
+
+        m_lock = new ReentrantReadWriteLock(false);
+    }
+
+    // Getters
+
+    /**
+     * Gets the size of the memory region
+     *
+     * @return the capacity in bytes
+     */
+    public final long getCapacity() {
+        return m_capacity;
+    }
+
+    /**
+     * Gets the number of bytes used in the memory region. This includes the headers and values which were removed
+     * or replaced, but not evicted yet.
+     *
+     * @return the used bytes
+     */
+    public final long getUsedBytes() {
+        long ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_used;
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets the number of cached values
+     *
+     * @return the number of values
+     */
+    public final int size() {
+        int ret;
+
+        m_lock.readLock().lock();
+
+        ret = m_index.size();
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    // Methods
+
+    /**
+     * Serializes a value into the cache. Evicts the oldest values if necessary. If the value throws an exception
+     * while being exported (e.g. because sizeofObject reports less than it writes), nothing is stored.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     * @return false if the value is larger than the whole cache and was not stored (a previous value of the key is
+     * removed)
+     */
+    public final boolean put(final long p_key, final Exportable p_value) {
+        BufferView view;
+        int length;
+        long recordSize;
+
+        assert p_key != 0;
+        assert p_value != null;
+
+        length = p_value.sizeofObject();
+        recordSize = align(HEADER_SIZE + length);
+
+        m_lock.writeLock().lock();
+
+        try {
+            // The old value stays in the ring buffer until it is evicted
+            m_index.remove(p_key);
+
+            if (recordSize > m_capacity) {
+                return false;
+            }
+
+            while (!reserve(recordSize)) {
+                evictOldest();
+            }
+
+            UnsafeMemory.writeLong(m_address + m_tail, p_key);
+            UnsafeMemory.writeInt(m_address + m_tail + Long.BYTES, length);
+
+            view = m_views.get();
+            view.map(m_address + m_tail + HEADER_SIZE, length);
+            try {
+                view.m_imExporter.exportObject(p_value);
+                assert view.m_buffer.position() == length :
+                        "sizeofObject of " + p_value + " does not match exported size";
+            } catch (final RuntimeException | Error e) {
+                // Roll back the header, tail and used space are not advanced so the reserved space stays free
+                UnsafeMemory.writeLong(m_address + m_tail, 0);
+
+                throw e;
+            }
+
+            m_index.put(p_key, m_tail);
+            m_tail += recordSize;
+            m_used += recordSize;
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+
+        return true;
+    }
+
+    /**
+     * Deserializes a cached value
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the object to import the value into
+     * @return true if the value was cached, false otherwise
+     */
+    public final boolean get(final long p_key, final Importable p_value) {
+        BufferView view;
+        long offset;
+
+        assert p_key != 0;
+        assert p_value != null;
+
+        m_lock.readLock().lock();
+
+        offset = m_index.get(p_key);
+        if (offset != -1) {
+            view = m_views.get();
+            view.map(m_address + offset + HEADER_SIZE, UnsafeMemory.readInt(m_address + offset + Long.BYTES));
+            view.m_imExporter.importObject(p_value);
+        }
+
+        m_lock.readLock().unlock();
+
+        return offset != -1;
+    }
+
+    /**
+     * Gets the serialized size of a cached value
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the size in bytes or -1 if no value is cached for the key
+     */
+    public final int getSize(final long p_key) {
+        int ret = -1;
+        long offset;
+
+        assert p_key != 0;
+
+        m_lock.readLock().lock();
+
+        offset = m_index.get(p_key);
+        if (offset != -1) {
+            ret = UnsafeMemory.readInt(m_address + offset + Long.BYTES);
+        }
+
+        m_lock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Checks if a value is cached for the given key
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return true if a value is cached, false otherwise
+     */
+    public final boolean contains(final long p_key) {
+        return getSize(p_key) != -1;
+    }
+
+    /**
+     * Removes the value for the given key. The memory is reclaimed when the ring buffer reaches the value.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     */
+    public final void remove(final long p_key) {
+        assert p_key != 0;
+
+        m_lock.writeLock().lock();
+
+        m_index.remove(p_key);
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Removes all values
+     */
+    public final void clear() {
+        m_lock.writeLock().lock();
+
+        m_index.clear();
+        m_head = 0;
+        m_tail = 0;
+        m_used = 0;
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Releases the memory region. The cache must not be used afterwards.
+     */
+    public final void free() {
+        m_lock.writeLock().lock();
+
+        m_index.clear();
+        UnsafeMemory.free(m_address);
+
+        m_lock.writeLock().unlock();
+    }
+
+    /**
+     * Tries to reserve space for a value at the tail of the ring buffer. Wraps around if the space at the end of the
+     * region is too small. Caller must hold the write lock.
+     *
+     * @param p_size
+     *         the aligned size of the value including the header
+     * @return true if m_tail points to enough free space, false if the oldest value has to be evicted first
+     */
+    private boolean reserve(final long p_size) {
+        if (m_used == 0) {
+            m_head = 0;
+            m_tail = 0;
+
+            return true;
+        }
+
+        if (m_tail > m_head) {
+            if (m_tail + p_size <= m_capacity) {
+                return true;
+            }
+
+            if (p_size <= m_head) {
+                // Mark the rest of the region as unused and wrap around
+                if (m_tail < m_capacity) {
+                    UnsafeMemory.writeLong(m_address + m_tail, 0);
+                }
+                m_used += m_capacity - m_tail;
+                m_tail = 0;
+
+                return true;
+            }
+
+            return false;
+        }
+
+        // The free space lies between tail and head (none if tail == head)
+        return m_tail + p_size <= m_head;
+    }
+
+    /**
+     * Evicts the value at the head of the ring buffer. Caller must hold the write lock.
+     */
+    private void evictOldest() {
+        long key;
+        long size;
+
+        if (m_head + HEADER_SIZE > m_capacity || UnsafeMemory.readLong(m_address + m_head) == 0) {
+            // Unused rest of the region
+            m_used -= m_capacity - m_head;
+            m_head = 0;
+
+            return;
+        }
+
+        key = UnsafeMemory.readLong(m_address + m_head);
+        size = align(HEADER_SIZE + UnsafeMemory.readInt(m_address + m_head + Long.BYTES));
+
+        // The key might have been removed or replaced by a newer value
+        if (m_index.get(key) == m_head) {
+            m_index.remove(key);
+        }
+
+        m_head += size;
+        m_used -= size;
+    }
+
+    /**
+     * Aligns a size to ALIGNMENT
+     *
+     * @param p_size
+     *         the size
+     * @return the aligned size
+     */
+    private static long align(final long p_size) {
+        return p_size + ALIGNMENT - 1 & ~(long) (ALIGNMENT - 1);
+    }
+
+    /**
+     * A direct ByteBuffer (per thread) which is moved over the memory region to serialize values without allocations
+     */
+    private static final class BufferView {
+
+        // Attributes
+        private final ByteBuffer m_buffer;
+        private final ByteBufferImExporter m_imExporter;
+
+        // Constructors
+
+        /**
+         * Creates an instance of BufferView
+         *
+         * @param p_address
+         *         an address in the memory region
+         */
+        private BufferView(final long p_address) {
+            m_buffer = ByteBufferHelper.wrap(p_address, 0);
+            m_imExporter = new ByteBufferImExporter(m_buffer);
+        }
+
+        // Methods
+
+        /**
+         * Maps the buffer to a part of the memory region
+         *
+         * @param p_address
+         *         the start address
+         * @param p_length
+         *         the length
+         */
+        private void map(final long p_address, final int p_length) {
+            ByteBufferHelper.setDirectAddress(m_buffer, p_address);
+            ByteBufferHelper.setCapacity(m_buffer, p_length);
+            m_buffer.clear();
+        }
+
+    }
+
+}
@@ -77,6 +77,60 @@ public final class UnsafeHandler {
         return sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
     }
 
+    /**
+     * Get the offset of the short array within the object short[]
+     *
+     * @return the short array offset
+     */
+    static int getArrayShortOffset() {
+        return sun.misc.Unsafe.ARRAY_SHORT_BASE_OFFSET;
+    }
+
+    /**
+     * Get the offset of the char array within the object char[]
+     *
+     * @return the char array offset
+     */
+    static int getArrayCharOffset() {
+        return sun.misc.Unsafe.ARRAY_CHAR_BASE_OFFSET;
+    }
+
+    /**
+     * Get the offset of the int array within the object int[]
+     *
+     * @return the int array offset
+     */
+    static int getArrayIntOffset() {
+        return sun.misc.Unsafe.ARRAY_INT_BASE_OFFSET;
+    }
+
+    /**
+     * Get the offset of the long array within the object long[]
+     *
+     * @return the long array offset
+     */
+    static int getArrayLongOffset() {
+        return sun.misc.Unsafe.ARRAY_LONG_BASE_OFFSET;
+    }
+
+    /**
+     * Get the offset of the float array within the object float[]
+     *
+     * @return the float array offset
+     */
+    static int getArrayFloatOffset() {
+        return sun.misc.Unsafe.ARRAY_FLOAT_BASE_OFFSET;
+    }
+
+    /**
+     * Get the offset of the double array within the object double[]
+     *
+     * @return the double array offset
+     */
+    static int getArrayDoubleOffset() {
+        return sun.misc.Unsafe.ARRAY_DOUBLE_BASE_OFFSET;
+    }
+
     // Classes
 
     /**
@@ -103,6 +103,8 @@ public final class UnsafeMemory {
      * @return Number of read elements.
      */
     public static int readBytes(final long p_ptr, final byte[] p_array, final int p_arrayOffset, final int p_length) {
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
         MS_UNSAFE_HANDLER.getUnsafe().copyMemory(null, p_ptr, p_array,
                 UnsafeHandler.getArrayByteOffset() + p_arrayOffset, p_length);
 
@@ -123,9 +125,11 @@ public final class UnsafeMemory {
      * @return Number of read elements.
      */
     public static int readShorts(final long p_ptr, final short[] p_array, final int p_arrayOffset, final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            p_array[i + p_arrayOffset] = MS_UNSAFE_HANDLER.getUnsafe().getShort(p_ptr + i * Short.BYTES);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(null, p_ptr, p_array,
+                UnsafeHandler.getArrayShortOffset() + (long) p_arrayOffset * Short.BYTES,
+                (long) p_length * Short.BYTES);
 
         return p_length;
     }
@@ -144,9 +148,11 @@ public final class UnsafeMemory {
      * @return Number of read elements.
      */
     public static int readChars(final long p_ptr, final char[] p_array, final int p_arrayOffset, final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            p_array[i + p_arrayOffset] = MS_UNSAFE_HANDLER.getUnsafe().getChar(p_ptr + i * Character.BYTES);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(null, p_ptr, p_array,
+                UnsafeHandler.getArrayCharOffset() + (long) p_arrayOffset * Character.BYTES,
+                (long) p_length * Character.BYTES);
 
         return p_length;
     }
@@ -165,9 +171,11 @@ public final class UnsafeMemory {
      * @return Number of read elements.
      */
     public static int readInts(final long p_ptr, final int[] p_array, final int p_arrayOffset, final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            p_array[i + p_arrayOffset] = MS_UNSAFE_HANDLER.getUnsafe().getInt(p_ptr + i * Integer.BYTES);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(null, p_ptr, p_array,
+                UnsafeHandler.getArrayIntOffset() + (long) p_arrayOffset * Integer.BYTES,
+                (long) p_length * Integer.BYTES);
 
         return p_length;
     }
@@ -186,9 +194,11 @@ public final class UnsafeMemory {
      * @return Number of read elements.
      */
     public static int readLongs(final long p_ptr, final long[] p_array, final int p_arrayOffset, final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            p_array[i + p_arrayOffset] = MS_UNSAFE_HANDLER.getUnsafe().getLong(p_ptr + i * Long.BYTES);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(null, p_ptr, p_array,
+                UnsafeHandler.getArrayLongOffset() + (long) p_arrayOffset * Long.BYTES,
+                (long) p_length * Long.BYTES);
 
         return p_length;
     }
@@ -207,9 +217,11 @@ public final class UnsafeMemory {
      * @return Number of read elements.
      */
     public static int readFloats(final long p_ptr, final float[] p_array, final int p_arrayOffset, final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            p_array[i + p_arrayOffset] = MS_UNSAFE_HANDLER.getUnsafe().getFloat(p_ptr + i * Float.BYTES);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(null, p_ptr, p_array,
+                UnsafeHandler.getArrayFloatOffset() + (long) p_arrayOffset * Float.BYTES,
+                (long) p_length * Float.BYTES);
 
         return p_length;
     }
@@ -229,9 +241,11 @@ public final class UnsafeMemory {
      */
     public static int readDoubles(final long p_ptr, final double[] p_array, final int p_arrayOffset,
             final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            p_array[i + p_arrayOffset] = MS_UNSAFE_HANDLER.getUnsafe().getDouble(p_ptr + i * Double.BYTES);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(null, p_ptr, p_array,
+                UnsafeHandler.getArrayDoubleOffset() + (long) p_arrayOffset * Double.BYTES,
+                (long) p_length * Double.BYTES);
 
         return p_length;
     }
@@ -327,6 +341,8 @@ public final class UnsafeMemory {
      * @return Number of written elements
      */
     public static int writeBytes(final long p_ptr, final byte[] p_array, final int p_arrayOffset, final int p_length) {
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
         MS_UNSAFE_HANDLER.getUnsafe().copyMemory(p_array, UnsafeHandler.getArrayByteOffset() + p_arrayOffset, null,
                 p_ptr, p_length);
 
@@ -348,9 +364,10 @@ public final class UnsafeMemory {
      */
     public static int writeShorts(final long p_ptr, final short[] p_array, final int p_arrayOffset,
             final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            MS_UNSAFE_HANDLER.getUnsafe().putShort(p_ptr + i * Short.BYTES, p_array[i + p_arrayOffset]);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(p_array, UnsafeHandler.getArrayShortOffset() +
+                (long) p_arrayOffset * Short.BYTES, null, p_ptr, (long) p_length * Short.BYTES);
 
         return p_length;
     }
@@ -370,9 +387,10 @@ public final class UnsafeMemory {
      */
     public static int writeChars(final long p_ptr, final char[] p_array, final int p_arrayOffset,
             final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            MS_UNSAFE_HANDLER.getUnsafe().putChar(p_ptr + i * Character.BYTES, p_array[i + p_arrayOffset]);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(p_array, UnsafeHandler.getArrayCharOffset() +
+                (long) p_arrayOffset * Character.BYTES, null, p_ptr, (long) p_length * Character.BYTES);
 
         return p_length;
     }
@@ -391,9 +409,10 @@ public final class UnsafeMemory {
      * @return Number of written elements
      */
     public static int writeInts(final long p_ptr, final int[] p_array, final int p_arrayOffset, final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            MS_UNSAFE_HANDLER.getUnsafe().putInt(p_ptr + i * Integer.BYTES, p_array[i + p_arrayOffset]);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(p_array, UnsafeHandler.getArrayIntOffset() +
+                (long) p_arrayOffset * Integer.BYTES, null, p_ptr, (long) p_length * Integer.BYTES);
 
         return p_length;
     }
@@ -412,9 +431,10 @@ public final class UnsafeMemory {
      * @return Number of written elements
      */
     public static int writeLongs(final long p_ptr, final long[] p_array, final int p_arrayOffset, final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            MS_UNSAFE_HANDLER.getUnsafe().putLong(p_ptr + i * Long.BYTES, p_array[i + p_arrayOffset]);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(p_array, UnsafeHandler.getArrayLongOffset() +
+                (long) p_arrayOffset * Long.BYTES, null, p_ptr, (long) p_length * Long.BYTES);
 
         return p_length;
     }
@@ -434,9 +454,10 @@ public final class UnsafeMemory {
      */
     public static int writeFloats(final long p_ptr, final float[] p_array, final int p_arrayOffset,
             final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            MS_UNSAFE_HANDLER.getUnsafe().putFloat(p_ptr + i * Float.BYTES, p_array[i + p_arrayOffset]);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(p_array, UnsafeHandler.getArrayFloatOffset() +
+                (long) p_arrayOffset * Float.BYTES, null, p_ptr, (long) p_length * Float.BYTES);
 
         return p_length;
     }
@@ -456,9 +477,10 @@ public final class UnsafeMemory {
      */
     public static int writeDoubles(final long p_ptr, final double[] p_array, final int p_arrayOffset,
             final int p_length) {
-        for (int i = 0; i < p_length; i++) {
-            MS_UNSAFE_HANDLER.getUnsafe().putDouble(p_ptr + i * Double.BYTES, p_array[i + p_arrayOffset]);
-        }
+        assert p_arrayOffset >= 0 && p_length >= 0 && p_arrayOffset + p_length <= p_array.length;
+
+        MS_UNSAFE_HANDLER.getUnsafe().copyMemory(p_array, UnsafeHandler.getArrayDoubleOffset() +
+                (long) p_arrayOffset * Double.BYTES, null, p_ptr, (long) p_length * Double.BYTES);
 
         return p_length;
     }
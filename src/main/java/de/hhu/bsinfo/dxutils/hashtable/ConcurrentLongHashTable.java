@@ -0,0 +1,513 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Thread-safe counterpart of LongHashTable: stores key-value tuples whereas keys and values are longs.
+ * Open addressing with linear probing, every slot (key and value) is updated with CAS. Reads are lock-free, writes
+ * are lock-free as well but help resizing: when the table is full, a larger table is allocated and all writers
+ * cooperatively copy chunks of the old table. Until the copy is finished, every slot that was already copied is
+ * marked as moved and accesses to it are forwarded to the new table.
+ * Key 0 is reserved (empty slot). The values -1 (returned if a key is not found) and Long.MAX_VALUE (internal
+ * marker) cannot be stored.
+ */
+public final class ConcurrentLongHashTable {
+
+    private static final Logger LOGGER = LogManager.getFormatterLogger(ConcurrentLongHashTable.class.getSimpleName());
+
+    private static final int INITIAL_SIZE = 1024;
+    private static final int MAX_SIZE = 1 << 29;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int COPY_CHUNK_SIZE = 1024;
+
+    // Values are stored inverted, so the zeroed array contains absent values only
+    private static final long ABSENT = 0;
+    private static final long MOVED = Long.MIN_VALUE;
+
+    private static final int NOT_FOUND = -1;
+    private static final int FULL = -2;
+
+    private final AtomicReference<Table> m_table;
+    private final LongAdder m_size;
+
+    /**
+     * Creates an instance of ConcurrentLongHashTable.
+     */
+    public ConcurrentLongHashTable() {
+        this(INITIAL_SIZE);
+    }
+
+    /**
+     * Creates an instance of ConcurrentLongHashTable.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two)
+     */
+    public ConcurrentLongHashTable(final int p_initialSize) {
+        assert p_initialSize > 0 && p_initialSize <= MAX_SIZE;
+
+        m_table = new AtomicReference<>(new Table(HashTableMode.powerOfTwoCapacity(p_initialSize)));
+        m_size = new LongAdder();
+    }
+
+    /**
+     * Returns the size. The size is exact only if there are no concurrent modifications.
+     *
+     * @return the number of entries in the hash table
+     */
+    public int size() {
+        return (int) m_size.sum();
+    }
+
+    /**
+     * Returns whether this hash table is empty or not.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return m_size.sum() == 0;
+    }
+
+    /**
+     * Returns the capacity of the current table (excluding a table being filled by a resize).
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return m_table.get().m_capacity;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped. Never blocks and never helps resizing.
+     *
+     * @param p_key
+     *         the searched key (must not be 0)
+     * @return the value to which the key is mapped or -1 if not found
+     */
+    public long get(final long p_key) {
+        Table table = m_table.get();
+        int hash = HashFunctionCollection.hash(p_key);
+        int index;
+        long value;
+
+        assert p_key != 0;
+
+        while (true) {
+            index = table.indexOf(p_key, hash);
+            if (index == NOT_FOUND) {
+                return -1;
+            }
+
+            if (index != FULL) {
+                value = table.getValue(index);
+                if (value != MOVED) {
+                    return ~value;
+                }
+            }
+
+            // The key was moved or the table is full and the key may only be stored in the next table
+            table = table.m_next.get();
+            if (table == null) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Maps the given key-value tuple.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value (must not be -1 or Long.MAX_VALUE)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public long put(final long p_key, final long p_value) {
+        return ~update(p_key, p_value, false);
+    }
+
+    /**
+     * Maps the given key-value tuple if the key is not mapped yet.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value (must not be -1 or Long.MAX_VALUE)
+     * @return the value the key is mapped to or -1 if the given value was mapped
+     */
+    public long putIfAbsent(final long p_key, final long p_value) {
+        return ~update(p_key, p_value, true);
+    }
+
+    /**
+     * Removes the given key. The slot is not freed before the next resize.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public long remove(final long p_key) {
+        long old;
+
+        assert p_key != 0;
+
+        old = store(helpResize(), p_key, HashFunctionCollection.hash(p_key), ABSENT, false);
+        if (old != ABSENT) {
+            m_size.decrement();
+        }
+
+        return ~old;
+    }
+
+    /**
+     * Clears the hash table. Not atomic: modifications running concurrently may be lost or survive.
+     */
+    public void clear() {
+        m_table.set(new Table(INITIAL_SIZE));
+        m_size.reset();
+    }
+
+    /**
+     * Maps the given key-value tuple and updates the size.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     * @param p_onlyIfAbsent
+     *         whether an existing mapping must not be replaced
+     * @return the previous value (stored representation)
+     */
+    private long update(final long p_key, final long p_value, final boolean p_onlyIfAbsent) {
+        long old;
+
+        assert p_key != 0;
+        assert p_value != -1 && p_value != ~MOVED;
+
+        old = store(helpResize(), p_key, HashFunctionCollection.hash(p_key), ~p_value, p_onlyIfAbsent);
+        if (old == ABSENT) {
+            m_size.increment();
+        }
+
+        return old;
+    }
+
+    /**
+     * Stores a value (stored representation) for a key starting at the given table and following the moved slots.
+     * Storing ABSENT removes the key.
+     *
+     * @param p_table
+     *         the table to start at
+     * @param p_key
+     *         the key
+     * @param p_hash
+     *         the hash of the key
+     * @param p_value
+     *         the value (stored representation)
+     * @param p_onlyIfAbsent
+     *         whether an existing mapping must not be replaced
+     * @return the previous value (stored representation)
+     */
+    private long store(final Table p_table, final long p_key, final int p_hash, final long p_value,
+            final boolean p_onlyIfAbsent) {
+        Table table = p_table;
+        int index;
+        long old;
+
+        while (true) {
+            if (p_value == ABSENT) {
+                // Removals never claim a slot
+                index = table.indexOf(p_key, p_hash);
+                if (index == NOT_FOUND) {
+                    return ABSENT;
+                }
+            } else {
+                index = table.claim(p_key, p_hash);
+                if (index == FULL) {
+                    resize(table);
+                }
+            }
+
+            if (index != FULL) {
+                do {
+                    old = table.getValue(index);
+                    if (old == MOVED || p_onlyIfAbsent && old != ABSENT) {
+                        break;
+                    }
+                } while (!table.compareAndSetValue(index, old, p_value));
+
+                if (old != MOVED) {
+                    return old;
+                }
+            }
+
+            table = table.m_next.get();
+            if (table == null) {
+                // A removal of a key which is not in a full table
+                return ABSENT;
+            }
+        }
+    }
+
+    /**
+     * Copies one chunk of the current table if it is resized.
+     *
+     * @return the current table
+     */
+    private Table helpResize() {
+        Table table = m_table.get();
+        Table next = table.m_next.get();
+        int start;
+        int end;
+
+        if (next != null) {
+            start = table.m_copyIndex.getAndAdd(COPY_CHUNK_SIZE);
+            if (start < table.m_capacity) {
+                end = Math.min(start + COPY_CHUNK_SIZE, table.m_capacity);
+                for (int i = start; i < end; i++) {
+                    copySlot(table, next, i);
+                }
+
+                if (table.m_copied.addAndGet(end - start) == table.m_capacity) {
+                    promote(table);
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Copies one slot to the next table and marks it as moved. The value is copied before marking, so readers
+     * forwarded to the next table always find it. Only one thread copies a slot, every other writer either updates
+     * the slot before it is marked (and the copy is repeated) or is forwarded afterwards.
+     *
+     * @param p_table
+     *         the table to copy from
+     * @param p_next
+     *         the next table
+     * @param p_index
+     *         the index of the slot
+     */
+    private void copySlot(final Table p_table, final Table p_next, final int p_index) {
+        long key;
+        long value;
+
+        while (true) {
+            // The value is written after the key is claimed, so read it first
+            value = p_table.getValue(p_index);
+            key = p_table.getKey(p_index);
+
+            if (key != 0) {
+                // Also removes a previous copy if the key was removed concurrently
+                store(p_next, key, HashFunctionCollection.hash(key), value, false);
+            }
+
+            if (p_table.compareAndSetValue(p_index, value, MOVED)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the current table by its successors as long as they are copied completely.
+     *
+     * @param p_table
+     *         the table that was copied completely
+     */
+    private void promote(final Table p_table) {
+        Table table = p_table;
+        Table next;
+
+        while (table.m_copied.get() == table.m_capacity) {
+            next = table.m_next.get();
+            if (!m_table.compareAndSet(table, next)) {
+                break;
+            }
+
+            LOGGER.trace("Resized to %d", next.m_capacity);
+
+            table = next;
+        }
+    }
+
+    /**
+     * Starts resizing a table if it is not resized yet.
+     *
+     * @param p_table
+     *         the table
+     */
+    private void resize(final Table p_table) {
+        int capacity;
+
+        if (p_table.m_next.get() == null) {
+            // Grow to a load of at most one third, tables with many removed keys may shrink
+            capacity = HashTableMode.powerOfTwoCapacity((int) Math.min(m_size.sum() * 3 + 1, MAX_SIZE));
+            capacity = Math.max(capacity, INITIAL_SIZE);
+
+            p_table.m_next.compareAndSet(null, new Table(capacity));
+        }
+    }
+
+    /**
+     * One generation of the hash table: keys and values are interleaved in one array.
+     */
+    private final class Table {
+
+        private final AtomicLongArray m_slots;
+        private final int m_capacity;
+        private final int m_mask;
+        private final int m_shift;
+        private final int m_threshold;
+
+        private final AtomicInteger m_claimed;
+        private final AtomicReference<Table> m_next;
+        private final AtomicInteger m_copyIndex;
+        private final AtomicInteger m_copied;
+
+        /**
+         * Creates an instance of Table.
+         *
+         * @param p_capacity
+         *         the capacity (power of two)
+         */
+        private Table(final int p_capacity) {
+            m_slots = new AtomicLongArray(p_capacity * 2);
+            m_capacity = p_capacity;
+            m_mask = p_capacity - 1;
+            m_shift = Integer.numberOfLeadingZeros(m_mask);
+            m_threshold = (int) (p_capacity * LOAD_FACTOR);
+
+            m_claimed = new AtomicInteger();
+            m_next = new AtomicReference<>();
+            m_copyIndex = new AtomicInteger();
+            m_copied = new AtomicInteger();
+        }
+
+        /**
+         * Searches the slot of a key.
+         *
+         * @param p_key
+         *         the key
+         * @param p_hash
+         *         the hash of the key
+         * @return the index, NOT_FOUND or FULL if all slots are claimed by other keys
+         */
+        private int indexOf(final long p_key, final int p_hash) {
+            int index = p_hash >>> m_shift;
+            long key;
+
+            for (int i = 0; i < m_capacity; i++) {
+                key = getKey(index);
+                if (key == p_key) {
+                    return index;
+                }
+                if (key == 0) {
+                    return NOT_FOUND;
+                }
+
+                index = index + 1 & m_mask;
+            }
+
+            return FULL;
+        }
+
+        /**
+         * Searches the slot of a key and claims a free one if the key is not found. Starts resizing if the load
+         * factor is exceeded, but keeps claiming as long as there are free slots: slots of a key are never freed, so
+         * a key can be stored in the next table directly only if it cannot be claimed anymore.
+         *
+         * @param p_key
+         *         the key
+         * @param p_hash
+         *         the hash of the key
+         * @return the index or FULL if all slots are claimed by other keys
+         */
+        private int claim(final long p_key, final int p_hash) {
+            int index = p_hash >>> m_shift;
+            long key;
+
+            for (int i = 0; i < m_capacity; i++) {
+                key = getKey(index);
+                if (key == 0) {
+                    if (m_slots.compareAndSet(index * 2, 0, p_key)) {
+                        if (m_claimed.incrementAndGet() >= m_threshold) {
+                            resize(this);
+                        }
+
+                        return index;
+                    }
+
+                    key = getKey(index);
+                }
+                if (key == p_key) {
+                    return index;
+                }
+
+                index = index + 1 & m_mask;
+            }
+
+            return FULL;
+        }
+
+        /**
+         * Returns the key of a slot.
+         *
+         * @param p_index
+         *         the index
+         * @return the key
+         */
+        private long getKey(final int p_index) {
+            return m_slots.get(p_index * 2);
+        }
+
+        /**
+         * Returns the value (stored representation) of a slot.
+         *
+         * @param p_index
+         *         the index
+         * @return the value
+         */
+        private long getValue(final int p_index) {
+            return m_slots.get(p_index * 2 + 1);
+        }
+
+        /**
+         * Sets the value (stored representation) of a slot if it was not changed.
+         *
+         * @param p_index
+         *         the index
+         * @param p_expected
+         *         the expected value
+         * @param p_value
+         *         the new value
+         * @return true if the value was set
+         */
+        private boolean compareAndSetValue(final int p_index, final long p_expected, final long p_value) {
+            return m_slots.compareAndSet(p_index * 2 + 1, p_expected, p_value);
+        }
+    }
+}
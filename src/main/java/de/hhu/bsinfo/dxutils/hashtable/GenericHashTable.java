@@ -20,25 +20,18 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 /**
  * Stores key-value tuples whereas keys are longs and values generic objects.
+ * The key 0 is stored outside of the slots as free slots are marked by the key 0.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
 @SuppressWarnings("unchecked")
-public final class GenericHashTable<T> {
-
-    private static final int INITIAL_SIZE = 100;
-    private static final float LOAD_FACTOR = 0.9f;
-
-    private static final Logger LOGGER = LogManager.getFormatterLogger(GenericHashTable.class.getSimpleName());
+public final class GenericHashTable<T> extends OpenAddressingTable<GenericHashTable<T>> {
 
     private HashTableElement<T>[] m_table;
-    private int m_elementCapacity;
-    private int m_count;
+    private HashTableElement<T> m_zero;
+    private final HashStrategy m_hashStrategy;
 
     private ArrayList<HashTableElement<T>> m_list;
 
@@ -46,11 +39,7 @@ public final class GenericHashTable<T> {
      * Creates an instance of GenericHashTable.
      */
     public GenericHashTable() {
-        m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
-
-        m_table = new HashTableElement[m_elementCapacity];
-        m_list = new ArrayList<>();
+        this(INITIAL_SIZE, HashTableMode.DEFAULT);
     }
 
     /**
@@ -60,41 +49,56 @@ public final class GenericHashTable<T> {
      *         the initial size
      */
     public GenericHashTable(final int p_initialSize) {
-
-        assert p_initialSize > 0;
-
-        m_count = 0;
-        m_elementCapacity = p_initialSize;
-
-        m_table = new HashTableElement[m_elementCapacity];
-        m_list = new ArrayList<>();
+        this(p_initialSize, HashTableMode.DEFAULT);
     }
 
     /**
-     * Returns the size.
+     * Creates an instance of GenericHashTable.
      *
-     * @return the number of entries in the hash table
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
      */
-    public int size() {
-        return m_count;
+    public GenericHashTable(final int p_initialSize, final int p_mode) {
+        this(p_initialSize, p_mode, HashStrategy.MURMUR3);
     }
 
     /**
-     * Returns the capacity.
+     * Creates an instance of GenericHashTable.
      *
-     * @return the capacity
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
+     * @param p_hashStrategy
+     *         the hash function for the keys
      */
-    public int capacity() {
-        return m_elementCapacity;
+    public GenericHashTable(final int p_initialSize, final int p_mode, final HashStrategy p_hashStrategy) {
+        super(p_initialSize, p_mode);
+
+        m_hashStrategy = p_hashStrategy;
+
+        m_table = (HashTableElement<T>[]) new HashTableElement<?>[m_elementCapacity];
+        m_list = new ArrayList<>();
     }
 
     /**
-     * Returns whether this hash table is empty or not.
+     * Creates the old generation of an incrementally rehashed GenericHashTable by taking over its table.
      *
-     * @return true if empty, false otherwise
+     * @param p_table
+     *         the hash table to take the table from
      */
-    public boolean isEmpty() {
-        return m_count == 0;
+    private GenericHashTable(final GenericHashTable<T> p_table) {
+        super(p_table);
+
+        m_hashStrategy = p_table.m_hashStrategy;
+        m_table = p_table.m_table;
+    }
+
+    @Override
+    public int size() {
+        return m_zero == null ? super.size() : super.size() + 1;
     }
 
     /**
@@ -112,7 +116,20 @@ public final class GenericHashTable<T> {
      * @return view on ArrayList with entries as pairs of index + value
      */
     public List<HashTableElement<T>> convert() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int count = 0;
+        if (m_zero != null) {
+            if (m_list.isEmpty()) {
+                m_list.add(m_zero);
+            } else {
+                m_list.set(0, m_zero);
+            }
+            count++;
+        }
+
         for (int i = 0; i < m_elementCapacity; i++) {
             HashTableElement<T> element = m_table[i];
             if (element != null) {
@@ -125,7 +142,45 @@ public final class GenericHashTable<T> {
             }
         }
 
-        return m_list.subList(0, m_count);
+        return m_list.subList(0, count);
+    }
+
+    /**
+     * Visits all entries without allocating an element list.
+     *
+     * @param p_consumer
+     *         the consumer called for every entry
+     */
+    public void forEach(final LongObjectConsumer<T> p_consumer) {
+        HashTableElement<T> element;
+
+        if (m_zero != null) {
+            p_consumer.accept(0, m_zero.getValue());
+        }
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            element = m_table[i];
+            if (element != null) {
+                p_consumer.accept(element.getKey(), element.getValue());
+            }
+        }
+
+        if (m_old != null) {
+            m_old.forEach(p_consumer);
+        }
+    }
+
+    /**
+     * Returns a cursor over all entries. The table must not be modified while the cursor is used.
+     *
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return new Cursor();
     }
 
     /**
@@ -136,9 +191,19 @@ public final class GenericHashTable<T> {
      * @return the list with all values.
      */
     public T[] values(final Class p_class) {
-        T[] ret = (T[]) Array.newInstance(p_class, m_count);
+        T[] ret;
+
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        ret = (T[]) Array.newInstance(p_class, size());
 
         int count = 0;
+        if (m_zero != null) {
+            ret[count++] = m_zero.getValue();
+        }
+
         for (int i = 0; i < m_elementCapacity; i++) {
             HashTableElement<T> element = m_table[i];
             if (element != null) {
@@ -158,19 +223,17 @@ public final class GenericHashTable<T> {
      */
     public T get(final long p_key) {
         T ret = null;
-        HashTableElement<T> iter;
-        int index;
+        int slot;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        if (p_key == 0) {
+            return m_zero == null ? null : m_zero.getValue();
+        }
 
-        iter = m_table[index];
-        while (iter != null) {
-            if (iter.getKey() == p_key) {
-                ret = iter.getValue();
-                break;
-            }
-            index = (index + 1) % m_elementCapacity;
-            iter = m_table[index];
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = m_table[slot].getValue();
+        } else if (m_old != null) {
+            ret = m_old.get(p_key);
         }
 
         return ret;
@@ -181,35 +244,72 @@ public final class GenericHashTable<T> {
      *
      * @param p_key
      *         the key
+     * @param p_value
+     *         the value
      */
     public void put(final long p_key, final T p_value) {
-        HashTableElement<T> iter;
-        int index;
+        int slot;
+
+        if (p_key == 0) {
+            if (m_zero == null) {
+                m_zero = new HashTableElement<>(p_key, p_value);
+            } else {
+                m_zero.setValue(p_value);
+            }
+            return;
+        }
+
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            // Replace value in entry
+            m_table[slot].setValue(p_value);
+        } else {
+            // Add new entry
+            m_table[~slot] = new HashTableElement<>(p_key, p_value);
+            added();
+        }
+    }
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+    /**
+     * Removes the given key from GenericHashTable.
+     * The following entries of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_key
+     *         the key
+     * @return the value the key was mapped to or null if the key was not found
+     */
+    public T remove(final long p_key) {
+        T ret = null;
+        int slot;
 
-        iter = m_table[index];
-        while (iter != null) {
-            if (iter.getKey() == p_key) {
-                // Replace value in entry
-                iter.setValue(p_value);
-                return;
+        if (p_key == 0) {
+            if (m_zero != null) {
+                ret = m_zero.getValue();
+                m_zero = null;
             }
-            index = (index + 1) % m_elementCapacity;
-            iter = m_table[index];
+            return ret;
+        }
+
+        if (m_old != null) {
+            rehashStep(p_key);
         }
 
-        // Add new entry
-        m_table[index] = new HashTableElement<T>(p_key, p_value);
-        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = m_table[slot].getValue();
+            removeSlot(slot);
         }
+
+        return ret;
     }
 
     /**
      * Clears the GenericHashTable.
      */
     public void clear() {
+        m_old = null;
+        m_zero = null;
+
         int length = m_table.length;
 
         /* The array and list is never truncated as the maximum number of concurrently accessed
@@ -224,35 +324,94 @@ public final class GenericHashTable<T> {
         m_count = 0;
     }
 
+    @Override
+    long keyAt(final int p_slot) {
+        return m_table[p_slot] == null ? 0 : m_table[p_slot].getKey();
+    }
+
+    @Override
+    int hash(final long p_key) {
+        return m_hashStrategy.hash(p_key);
+    }
+
+    @Override
+    void moveSlot(final int p_from, final int p_to) {
+        m_table[p_to] = m_table[p_from];
+    }
+
+    @Override
+    void clearSlot(final int p_slot) {
+        m_table[p_slot] = null;
+    }
+
+    @Override
+    GenericHashTable<T> detach() {
+        return new GenericHashTable<>(this);
+    }
+
+    @Override
+    void allocate() {
+        m_table = (HashTableElement<T>[]) new HashTableElement<?>[m_elementCapacity];
+    }
+
+    @Override
+    void migrateSlot(final GenericHashTable<T> p_old, final int p_from, final int p_to) {
+        m_table[p_to] = p_old.m_table[p_from];
+    }
+
     /**
-     * Increases the capacity of and internally reorganizes GenericHashTable.
+     * Cursor over the entries of GenericHashTable. Call next() before accessing the first entry.
      */
-    private void rehash() {
-        int index = 0;
-        int oldCount;
-        int oldElementCapacity;
-        HashTableElement<T>[] oldTable;
-        HashTableElement<T>[] newTable;
-
-        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+    public final class Cursor {
 
-        oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+        private HashTableElement<T> m_element;
+        private int m_index;
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
+        /**
+         * Creates an instance of Cursor.
+         */
+        private Cursor() {
+            // The key 0 is visited first
+            m_index = m_zero != null ? -2 : -1;
+        }
 
-        newTable = new HashTableElement[m_elementCapacity];
-        m_table = newTable;
+        /**
+         * Moves to the next entry.
+         *
+         * @return true if there is another entry, false otherwise
+         */
+        public boolean next() {
+            if (m_index == -2) {
+                m_index = -1;
+                m_element = m_zero;
+                return true;
+            }
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            HashTableElement<T> element = oldTable[index];
-            if (element != null) {
-                put(element.getKey(), element.getValue());
+            m_index = nextSlot(m_index);
+            if (m_index < m_elementCapacity) {
+                m_element = m_table[m_index];
+                return true;
             }
-            index = (index + 1) % m_elementCapacity;
+
+            return false;
+        }
+
+        /**
+         * Returns the key of the current entry.
+         *
+         * @return the key
+         */
+        public long key() {
+            return m_element.getKey();
+        }
+
+        /**
+         * Returns the value of the current entry.
+         *
+         * @return the value
+         */
+        public T value() {
+            return m_element.getValue();
         }
-        m_count = oldCount;
     }
 }
@@ -23,6 +23,21 @@ public final class HashFunctionCollection {
         return hash >> 16 ^ hash;
     }
 
+    /**
+     * Hashes the given long key to 64 bits with the finalizer of MurmurHash3 (for tables with more than 2^32 slots).
+     *
+     * @param p_key
+     *         the key
+     * @return the hash value
+     */
+    static long hash64(final long p_key) {
+        long hash = p_key;
+
+        hash = (hash ^ hash >>> 33) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ hash >>> 33) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ hash >>> 33;
+    }
+
     /**
      * Hashes the given long key with MurmurHash3.
      *
@@ -36,7 +51,7 @@ public final class HashFunctionCollection {
         int h1 = 0x9747b28c;
         int k1;
 
-        k1 = ((short) p_key & 0xff) + ((int) p_key & 0xff00) + ((int) p_key & 0xff0000) + ((int) p_key & 0xff000000);
+        k1 = (int) p_key;
         k1 *= c1;
         k1 = k1 << 15 | k1 >>> 17;
         k1 *= c2;
@@ -44,8 +59,7 @@ public final class HashFunctionCollection {
         h1 = h1 << 13 | h1 >>> 19;
         h1 = h1 * 5 + 0xe6546b64;
 
-        k1 = (int) ((p_key & 0xff00000000L) + (p_key & 0xff0000000000L) + (p_key & 0xff000000000000L) +
-                (p_key & 0xff000000000000L));
+        k1 = (int) (p_key >>> 32);
         k1 *= c1;
         k1 = k1 << 15 | k1 >>> 17;
         k1 *= c2;
@@ -62,4 +76,67 @@ public final class HashFunctionCollection {
 
         return h1;
     }
+
+    /**
+     * Hashes the given long key with the avalanche step of xxHash64 (folded to 32 bits).
+     *
+     * @param p_key
+     *         the key
+     * @return the hash value
+     */
+    public static int mix64(final long p_key) {
+        long hash = p_key;
+
+        hash ^= hash >>> 33;
+        hash *= 0xc2b2ae3d27d4eb4fL;
+        hash ^= hash >>> 29;
+        hash *= 0x165667b19e3779f9L;
+        hash ^= hash >>> 32;
+
+        return (int) hash;
+    }
+
+    /**
+     * Hashes the given long key with Fibonacci hashing (multiplication with 2^64 / golden ratio). Only the upper
+     * bits of the product are well distributed and returned.
+     *
+     * @param p_key
+     *         the key
+     * @return the hash value
+     */
+    public static int fibonacci(final long p_key) {
+        return (int) (p_key * 0x9e3779b97f4a7c15L >>> 32);
+    }
+
+    /**
+     * Folds the given long key to 32 bits without mixing.
+     *
+     * @param p_key
+     *         the key
+     * @return the hash value
+     */
+    public static int identity(final long p_key) {
+        return (int) (p_key ^ p_key >>> 32);
+    }
+
+    /**
+     * Returns an id of a built-in hash strategy (stored in exported tables).
+     *
+     * @param p_strategy
+     *         the hash strategy
+     * @return the id or 0 if it is not a built-in strategy
+     */
+    static int getStrategyId(final HashStrategy p_strategy) {
+        if (p_strategy == HashStrategy.MURMUR3) {
+            return 1;
+        } else if (p_strategy == HashStrategy.MIX64) {
+            return 2;
+        } else if (p_strategy == HashStrategy.FIBONACCI) {
+            return 3;
+        } else if (p_strategy == HashStrategy.IDENTITY) {
+            return 4;
+        }
+
+        return 0;
+    }
 }
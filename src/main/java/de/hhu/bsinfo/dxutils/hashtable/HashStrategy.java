@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+/**
+ * Computes the hash of a key for the hash tables. In mode POWER_OF_TWO, the home slot is taken from the upper bits
+ * of the hash, otherwise from the remainder of the (positive) hash.
+ */
+@FunctionalInterface
+public interface HashStrategy {
+
+    /**
+     * MurmurHash3 of both halves of the key (default).
+     */
+    HashStrategy MURMUR3 = HashFunctionCollection::hash;
+
+    /**
+     * The avalanche step of xxHash64, a fast 64 bit mixer.
+     */
+    HashStrategy MIX64 = HashFunctionCollection::mix64;
+
+    /**
+     * Fibonacci hashing, a single multiplication. Suited for sequential keys.
+     */
+    HashStrategy FIBONACCI = HashFunctionCollection::fibonacci;
+
+    /**
+     * No mixing, the halves of the key are folded. Only for the default mode with dense keys (e.g. local IDs), the
+     * upper bits used in mode POWER_OF_TWO are zero for small keys.
+     */
+    HashStrategy IDENTITY = HashFunctionCollection::identity;
+
+    /**
+     * Hashes a key.
+     *
+     * @param p_key
+     *         the key
+     * @return the hash value
+     */
+    int hash(long p_key);
+}
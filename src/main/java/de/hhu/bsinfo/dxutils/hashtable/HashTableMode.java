@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+/**
+ * Modes of the hash tables in this package. Modes are flags and can be combined.
+ */
+public final class HashTableMode {
+
+    /**
+     * Arbitrary capacities, slots are determined with modulo. The capacity grows to 2 * capacity + 1.
+     */
+    public static final int DEFAULT = 0;
+
+    /**
+     * Capacities are powers of two. The home slot of a key is taken from the upper bits of its hash (precomputed
+     * shift) and probing wraps around by masking, avoiding integer divisions on every access.
+     */
+    public static final int POWER_OF_TWO = 1;
+
+    /**
+     * Robin Hood insertion: an inserted key displaces entries which are closer to their
+     * home index. This bounds the variance of the probe lengths and lets lookups of missing keys stop at the first
+     * entry closer to its home than the key would be.
+     */
+    public static final int ROBIN_HOOD = 2;
+
+    /**
+     * Incremental rehashing: when the load factor is exceeded, the old table is kept and the following put, add and
+     * remove calls move a bounded number of its slots to the new table (lookups check both tables). This bounds the
+     * latency of single modifications, there is no stop-the-world reinsertion of all entries.
+     */
+    public static final int INCREMENTAL_REHASH = 4;
+
+    /**
+     * Static class
+     */
+    private HashTableMode() {
+    }
+
+    /**
+     * Rounds a capacity up to the next power of two
+     *
+     * @param p_capacity
+     *         the capacity
+     * @return the next power of two (at least 2)
+     */
+    static int powerOfTwoCapacity(final int p_capacity) {
+        assert p_capacity <= 1 << 30;
+
+        return p_capacity <= 2 ? 2 : Integer.highestOneBit(p_capacity - 1) << 1;
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Stores a set of ints in an open-addressing table (linear probing, no tombstones).
+ * One slot takes 4 bytes, a HashSet<Integer> needs a boxed Integer and a node (about 50 bytes) per element.
+ * The element 0 marks free slots and is stored in a flag instead. The modes POWER_OF_TWO and ROBIN_HOOD are
+ * supported, see HashTableMode.
+ */
+public class IntHashSet extends OpenAddressingSet<IntHashSet> {
+
+    private int[] m_table;
+
+    /**
+     * Creates an instance of IntHashSet.
+     */
+    public IntHashSet() {
+        this(INITIAL_SIZE, HashTableMode.DEFAULT);
+    }
+
+    /**
+     * Creates an instance of IntHashSet.
+     *
+     * @param p_initialSize
+     *         the initial size
+     */
+    public IntHashSet(final int p_initialSize) {
+        this(p_initialSize, HashTableMode.DEFAULT);
+    }
+
+    /**
+     * Creates an instance of IntHashSet.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode (INCREMENTAL_REHASH is not supported)
+     */
+    public IntHashSet(final int p_initialSize, final int p_mode) {
+        super(p_initialSize, p_mode);
+
+        m_table = new int[m_elementCapacity];
+    }
+
+    /**
+     * Creates the old generation of a rehashed IntHashSet by taking over its table.
+     *
+     * @param p_set
+     *         the set to take the table from
+     */
+    private IntHashSet(final IntHashSet p_set) {
+        super(p_set);
+
+        m_table = p_set.m_table;
+    }
+
+    /**
+     * Checks if the given element is contained.
+     *
+     * @param p_element
+     *         the element
+     * @return true if contained, false otherwise
+     */
+    public final boolean contains(final int p_element) {
+        return containsElement(p_element);
+    }
+
+    /**
+     * Adds the given element.
+     *
+     * @param p_element
+     *         the element
+     * @return true if the element was added, false if it was already contained
+     */
+    public final boolean add(final int p_element) {
+        return addElement(p_element);
+    }
+
+    /**
+     * Removes the given element.
+     * The following elements of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_element
+     *         the element
+     * @return true if the element was removed, false if it was not contained
+     */
+    public final boolean remove(final int p_element) {
+        return removeElement(p_element);
+    }
+
+    /**
+     * Visits all elements without allocating.
+     *
+     * @param p_consumer
+     *         the consumer called for every element
+     */
+    public void forEach(final IntConsumer p_consumer) {
+        int element;
+
+        if (m_containsZero) {
+            p_consumer.accept(0);
+        }
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            element = m_table[i];
+            if (element != 0) {
+                p_consumer.accept(element);
+            }
+        }
+    }
+
+    /**
+     * Returns a cursor over all elements. The set must not be modified while the cursor is used.
+     *
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Clears the IntHashSet.
+     */
+    public final void clear() {
+        int length = m_table.length;
+
+        // This is faster than Arrays.fill
+        m_table[0] = 0;
+        for (int i = 1; i < length; i += i) {
+            System.arraycopy(m_table, 0, m_table, i, length - i < i ? length - i : i);
+        }
+
+        m_count = 0;
+        m_containsZero = false;
+    }
+
+    @Override
+    long keyAt(final int p_slot) {
+        return m_table[p_slot];
+    }
+
+    @Override
+    int hash(final long p_key) {
+        return HashFunctionCollection.hash((int) p_key);
+    }
+
+    @Override
+    void moveSlot(final int p_from, final int p_to) {
+        m_table[p_to] = m_table[p_from];
+    }
+
+    @Override
+    void clearSlot(final int p_slot) {
+        m_table[p_slot] = 0;
+    }
+
+    @Override
+    void setElement(final int p_slot, final long p_element) {
+        m_table[p_slot] = (int) p_element;
+    }
+
+    @Override
+    IntHashSet detach() {
+        return new IntHashSet(this);
+    }
+
+    @Override
+    void allocate() {
+        m_table = new int[m_elementCapacity];
+    }
+
+    @Override
+    void migrateSlot(final IntHashSet p_old, final int p_from, final int p_to) {
+        m_table[p_to] = p_old.m_table[p_from];
+    }
+
+    /**
+     * Cursor over the elements of IntHashSet. Call next() before accessing the first element.
+     */
+    public final class Cursor {
+
+        private int m_index = firstPosition();
+
+        /**
+         * Creates an instance of Cursor.
+         */
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next element.
+         *
+         * @return true if there is another element, false otherwise
+         */
+        public boolean next() {
+            m_index = nextPosition(m_index);
+
+            return m_index < m_elementCapacity;
+        }
+
+        /**
+         * Returns the current element.
+         *
+         * @return the element
+         */
+        public int key() {
+            return m_index == -1 ? 0 : m_table[m_index];
+        }
+    }
+}
@@ -19,8 +19,10 @@ package de.hhu.bsinfo.dxutils.hashtable;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
 
 /**
  * Stores key-value tuples whereas keys and values are ints.
@@ -28,16 +30,11 @@ import org.apache.logging.log4j.Logger;
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
-public class IntHashTable {
+public class IntHashTable extends OpenAddressingTable<IntHashTable> implements Importable, Exportable {
 
-    private static final int INITIAL_SIZE = 100;
-    private static final float LOAD_FACTOR = 0.9f;
-
-    private static final Logger LOGGER = LogManager.getFormatterLogger(IntHashTable.class.getSimpleName());
+    private static final int BATCH_SIZE = 16;
 
     private int[] m_table;
-    private int m_elementCapacity;
-    private int m_count;
 
     private ArrayList<int[]> m_list;
 
@@ -45,11 +42,7 @@ public class IntHashTable {
      * Creates an instance of IntHashTable.
      */
     public IntHashTable() {
-        m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
-
-        m_table = new int[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
-        m_list = new ArrayList<>();
+        this(INITIAL_SIZE, HashTableMode.DEFAULT);
     }
 
     /**
@@ -59,41 +52,35 @@ public class IntHashTable {
      *         the initial size
      */
     public IntHashTable(final int p_initialSize) {
-
-        assert p_initialSize > 0;
-
-        m_count = 0;
-        m_elementCapacity = p_initialSize;
-
-        m_table = new int[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
-        m_list = new ArrayList<>();
+        this(p_initialSize, HashTableMode.DEFAULT);
     }
 
     /**
-     * Returns the size.
+     * Creates an instance of IntHashTable.
      *
-     * @return the number of entries in the hash table
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
      */
-    public int size() {
-        return m_count;
-    }
+    public IntHashTable(final int p_initialSize, final int p_mode) {
+        super(p_initialSize, p_mode);
 
-    /**
-     * Returns the capacity.
-     *
-     * @return the capacity
-     */
-    public int capacity() {
-        return m_elementCapacity;
+
+        m_table = new int[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
+        m_list = new ArrayList<>();
     }
 
     /**
-     * Returns whether this hash table is empty or not.
+     * Creates the old generation of an incrementally rehashed IntHashTable by taking over its table.
      *
-     * @return true if empty, false otherwise
+     * @param p_table
+     *         the hash table to take the table from
      */
-    public boolean isEmpty() {
-        return m_count == 0;
+    private IntHashTable(final IntHashTable p_table) {
+        super(p_table);
+
+        m_table = p_table.m_table;
     }
 
     /**
@@ -111,6 +98,10 @@ public class IntHashTable {
      * @return the int array.
      */
     public int[] getTable() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         return m_table;
     }
 
@@ -121,6 +112,10 @@ public class IntHashTable {
      */
     public List<int[]> convert() {
 
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int count = 0;
         for (int i = 0; i < m_elementCapacity; i++) {
             int key = getKey(i);
@@ -142,6 +137,88 @@ public class IntHashTable {
         return m_list.subList(0, m_count);
     }
 
+    /**
+     * Visits all entries without allocating.
+     *
+     * @param p_consumer
+     *         the consumer called for every entry
+     */
+    public void forEach(final IntIntConsumer p_consumer) {
+        int key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+
+        if (m_old != null) {
+            m_old.forEach(p_consumer);
+        }
+    }
+
+    /**
+     * Returns a cursor over all entries. The table must not be modified while the cursor is used.
+     *
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return new Cursor();
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        // The raw slots are exported, the layout depends on the mode
+        p_exporter.writeInt(getLayout());
+        p_exporter.writeInt(m_elementCapacity);
+        p_exporter.writeInt(m_count);
+        p_exporter.writeInts(m_table);
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        int layout;
+        int capacity;
+        int count;
+        int[] table;
+
+        layout = p_importer.readInt(0);
+        capacity = p_importer.readInt(0);
+        count = p_importer.readInt(0);
+
+        m_old = null;
+        table = layout == getLayout() && m_table.length == capacity * 2 ? m_table : new int[capacity * 2];
+        p_importer.readInts(table);
+
+        if (layout == getLayout()) {
+            setCapacity(capacity);
+            m_table = table;
+            m_count = count;
+        } else {
+            // Different mode, reinsert the entries
+            clear();
+            reinsert(table, capacity, layout);
+        }
+    }
+
+    @Override
+    public int sizeofObject() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return 3 * Integer.BYTES + m_table.length * Integer.BYTES;
+    }
+
     /**
      * Returns the value to which the specified key is mapped in IntHashTable.
      *
@@ -151,25 +228,64 @@ public class IntHashTable {
      */
     public final int get(final int p_key) {
         int ret = -1;
-        int index;
-        int iter;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                break;
-            }
-            iter = getKey(++index);
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+        } else if (m_old != null) {
+            ret = m_old.get(p_key);
         }
 
         return ret;
     }
 
+    /**
+     * Returns the values to which the specified keys are mapped in IntHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is probed, so the cache misses of a batch
+     * overlap instead of being serialized by the probing.
+     *
+     * @param p_keys
+     *         the searched keys (must not be 0)
+     * @param p_values
+     *         the array to store the values in (-1 if not found), at least as long as the keys
+     */
+    public final void getAll(final int[] p_keys, final int[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        int[] first = new int[BATCH_SIZE];
+        int length;
+        int slot;
+        int key;
+
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
+            }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
+            }
+
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
+
+                assert key != 0;
+
+                slot = first[j] == key ? homes[j] : find(key, homes[j]);
+                if (slot != -1) {
+                    p_values[i + j] = getValue(slot);
+                } else {
+                    p_values[i + j] = m_old != null ? m_old.get(key) : -1;
+                }
+            }
+        }
+    }
+
     /**
      * Maps the given key to the given value in IntHashTable.
      *
@@ -179,25 +295,58 @@ public class IntHashTable {
      *         the value
      */
     public final void put(final int p_key, final int p_value) {
-        int iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            set(slot, p_key, p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
+        }
+    }
+
+    /**
+     * Maps the given keys to the given values in IntHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is stored, see getAll().
+     *
+     * @param p_keys
+     *         the keys (must not be 0)
+     * @param p_values
+     *         the values, at least as long as the keys
+     */
+    public final void putAll(final int[] p_keys, final int[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        int[] first = new int[BATCH_SIZE];
+        int length;
+        int capacity;
+        int key;
+
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+            capacity = m_elementCapacity;
 
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                set(index, p_key, p_value);
-                return;
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
+            }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
             }
-            iter = getKey(++index);
-        }
 
-        set(index, p_key, p_value);
-        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
+
+                // Replace in place if the key was found in its home slot and the batch did not move it
+                if (first[j] == key && m_old == null && capacity == m_elementCapacity && getKey(homes[j]) == key) {
+                    set(homes[j], key, p_values[i + j]);
+                } else {
+                    put(key, p_values[i + j]);
+                }
+            }
         }
     }
 
@@ -213,29 +362,44 @@ public class IntHashTable {
      */
     public final int add(final int p_key, final int p_value) {
         int ret = -1;
-        int index;
-        int iter;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                set(index, p_key, ret + p_value);
-                break;
-            }
-            iter = getKey(++index);
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            ret = getValue(slot);
+            set(slot, p_key, ret + p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
         }
-        if (ret == -1) {
-            set(index, p_key, p_value);
-            m_count++;
+
+        return ret;
+    }
+
+    /**
+     * Removes the given key from IntHashTable.
+     * The following entries of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final int remove(final int p_key) {
+        int ret = -1;
+        int slot;
+
+        assert p_key != 0;
+
+        if (m_old != null) {
+            rehashStep(p_key);
         }
 
-        if (m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+            removeSlot(slot);
         }
 
         return ret;
@@ -245,6 +409,8 @@ public class IntHashTable {
      * Clears the IntHashTable.
      */
     public final void clear() {
+        m_old = null;
+
         int length = m_table.length;
 
         /* The array and list is never truncated as the maximum number of concurrently accessed
@@ -266,6 +432,10 @@ public class IntHashTable {
      * @return the old int array.
      */
     public final int[] replace() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int[] newTable = new int[m_table.length];
         int[] oldTable = m_table;
         m_table = newTable;
@@ -287,7 +457,7 @@ public class IntHashTable {
     protected void set(final int p_index, final int p_key, final int p_value) {
         int index;
 
-        index = p_index % m_elementCapacity * 2;
+        index = wrap(p_index) * 2;
         m_table[index] = p_key;
         m_table[index + 1] = p_value;
     }
@@ -300,7 +470,7 @@ public class IntHashTable {
      * @return the key
      */
     protected int getKey(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 2];
+        return m_table[wrap(p_index) * 2];
     }
 
     /**
@@ -311,37 +481,114 @@ public class IntHashTable {
      * @return the value
      */
     protected int getValue(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 2 + 1];
+        return m_table[wrap(p_index) * 2 + 1];
+    }
+
+    @Override
+    long keyAt(final int p_slot) {
+        return m_table[p_slot * 2];
+    }
+
+    @Override
+    int hash(final long p_key) {
+        return HashFunctionCollection.hash((int) p_key);
+    }
+
+    @Override
+    void moveSlot(final int p_from, final int p_to) {
+        m_table[p_to * 2] = m_table[p_from * 2];
+        m_table[p_to * 2 + 1] = m_table[p_from * 2 + 1];
+    }
+
+    @Override
+    void clearSlot(final int p_slot) {
+        m_table[p_slot * 2] = 0;
+        m_table[p_slot * 2 + 1] = 0;
+    }
+
+    @Override
+    IntHashTable detach() {
+        return new IntHashTable(this);
+    }
+
+    @Override
+    void allocate() {
+        m_table = new int[m_elementCapacity * 2];
+    }
+
+    @Override
+    void migrateSlot(final IntHashTable p_old, final int p_from, final int p_to) {
+        m_table[p_to * 2] = p_old.m_table[p_from * 2];
+        m_table[p_to * 2 + 1] = p_old.m_table[p_from * 2 + 1];
     }
 
     /**
-     * Increases the capacity of and internally reorganizes IntHashTable.
+     * Returns the flags of the mode which determine the layout of the slots.
+     *
+     * @return the flags
      */
-    private void rehash() {
-        int index = 0;
-        int oldCount;
-        int oldElementCapacity;
-        int[] oldTable;
-        int[] newTable;
+    private int getLayout() {
+        return getModeFlags();
+    }
 
-        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+    /**
+     * Puts all entries of a raw table with another layout.
+     *
+     * @param p_table
+     *         the raw table
+     * @param p_capacity
+     *         the capacity of the raw table
+     * @param p_layout
+     *         the layout of the raw table
+     */
+    private void reinsert(final int[] p_table, final int p_capacity, final int p_layout) {
+        IntHashTable table = new IntHashTable(1, p_layout);
 
-        oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+        table.setCapacity(p_capacity);
+        table.m_table = p_table;
+        table.forEach(this::put);
+    }
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
-        newTable = new int[m_elementCapacity * 2];
-        m_table = newTable;
+    /**
+     * Cursor over the entries of IntHashTable. Call next() before accessing the first entry.
+     */
+    public final class Cursor {
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            if (oldTable[index * 2] != 0) {
-                add(oldTable[index * 2], oldTable[index * 2 + 1]);
-            }
-            index = (index + 1) % m_elementCapacity;
+        private int m_index = -1;
+
+        /**
+         * Creates an instance of Cursor.
+         */
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return true if there is another entry, false otherwise
+         */
+        public boolean next() {
+            m_index = nextSlot(m_index);
+
+            return m_index < m_elementCapacity;
         }
-        m_count = oldCount;
-    }
 
+        /**
+         * Returns the key of the current entry.
+         *
+         * @return the key
+         */
+        public int key() {
+            return getKey(m_index);
+        }
+
+        /**
+         * Returns the value of the current entry.
+         *
+         * @return the value
+         */
+        public int value() {
+            return getValue(m_index);
+        }
+    }
 }
@@ -19,8 +19,10 @@ package de.hhu.bsinfo.dxutils.hashtable;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
 
 /**
  * Stores key-value tuples whereas keys are ints and values longs.
@@ -28,16 +30,11 @@ import org.apache.logging.log4j.Logger;
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
-public class IntLongHashTable {
+public class IntLongHashTable extends OpenAddressingTable<IntLongHashTable> implements Importable, Exportable {
 
-    private static final int INITIAL_SIZE = 100;
-    private static final float LOAD_FACTOR = 0.9f;
-
-    private static final Logger LOGGER = LogManager.getFormatterLogger(IntLongHashTable.class.getSimpleName());
+    private static final int BATCH_SIZE = 16;
 
     private int[] m_table;
-    private int m_elementCapacity;
-    private int m_count;
 
     private ArrayList<long[]> m_list;
 
@@ -45,12 +42,7 @@ public class IntLongHashTable {
      * Creates an instance of LongIntHashTable.
      */
     public IntLongHashTable() {
-        m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
-
-        m_table = new int[m_elementCapacity *
-                3]; // keys (4 bytes) and values (8 bytes) are stored one after another -> triple size
-        m_list = new ArrayList<>();
+        this(INITIAL_SIZE, HashTableMode.DEFAULT);
     }
 
     /**
@@ -60,11 +52,20 @@ public class IntLongHashTable {
      *         the initial size
      */
     public IntLongHashTable(final int p_initialSize) {
+        this(p_initialSize, HashTableMode.DEFAULT);
+    }
 
-        assert p_initialSize > 0;
+    /**
+     * Creates an instance of IntLongHashTable.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
+     */
+    public IntLongHashTable(final int p_initialSize, final int p_mode) {
+        super(p_initialSize, p_mode);
 
-        m_count = 0;
-        m_elementCapacity = p_initialSize;
 
         m_table = new int[m_elementCapacity *
                 3]; // keys (4 bytes) and values (8 bytes) are stored one after another -> triple size
@@ -72,30 +73,15 @@ public class IntLongHashTable {
     }
 
     /**
-     * Returns the size.
+     * Creates the old generation of an incrementally rehashed IntLongHashTable by taking over its table.
      *
-     * @return the number of entries in the hash table
+     * @param p_table
+     *         the hash table to take the table from
      */
-    public int size() {
-        return m_count;
-    }
+    private IntLongHashTable(final IntLongHashTable p_table) {
+        super(p_table);
 
-    /**
-     * Returns the capacity.
-     *
-     * @return the capacity
-     */
-    public int capacity() {
-        return m_elementCapacity;
-    }
-
-    /**
-     * Returns whether this hash table is empty or not.
-     *
-     * @return true if empty, false otherwise
-     */
-    public boolean isEmpty() {
-        return m_count == 0;
+        m_table = p_table.m_table;
     }
 
     /**
@@ -113,6 +99,10 @@ public class IntLongHashTable {
      * @return the int array.
      */
     public int[] getTable() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         return m_table;
     }
 
@@ -123,6 +113,10 @@ public class IntLongHashTable {
      */
     public List<long[]> convert() {
 
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int count = 0;
         for (int i = 0; i < m_elementCapacity; i++) {
             long key = getKey(i);
@@ -144,6 +138,88 @@ public class IntLongHashTable {
         return m_list.subList(0, m_count);
     }
 
+    /**
+     * Visits all entries without allocating.
+     *
+     * @param p_consumer
+     *         the consumer called for every entry
+     */
+    public void forEach(final IntLongConsumer p_consumer) {
+        int key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+
+        if (m_old != null) {
+            m_old.forEach(p_consumer);
+        }
+    }
+
+    /**
+     * Returns a cursor over all entries. The table must not be modified while the cursor is used.
+     *
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return new Cursor();
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        // The raw slots are exported, the layout depends on the mode
+        p_exporter.writeInt(getLayout());
+        p_exporter.writeInt(m_elementCapacity);
+        p_exporter.writeInt(m_count);
+        p_exporter.writeInts(m_table);
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        int layout;
+        int capacity;
+        int count;
+        int[] table;
+
+        layout = p_importer.readInt(0);
+        capacity = p_importer.readInt(0);
+        count = p_importer.readInt(0);
+
+        m_old = null;
+        table = layout == getLayout() && m_table.length == capacity * 3 ? m_table : new int[capacity * 3];
+        p_importer.readInts(table);
+
+        if (layout == getLayout()) {
+            setCapacity(capacity);
+            m_table = table;
+            m_count = count;
+        } else {
+            // Different mode, reinsert the entries
+            clear();
+            reinsert(table, capacity, layout);
+        }
+    }
+
+    @Override
+    public int sizeofObject() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return 3 * Integer.BYTES + m_table.length * Integer.BYTES;
+    }
+
     /**
      * Returns the value to which the specified key is mapped in LongIntHashTable.
      *
@@ -153,25 +229,64 @@ public class IntLongHashTable {
      */
     public final long get(final int p_key) {
         long ret = -1;
-        int iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                break;
-            }
-            iter = getKey(++index);
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+        } else if (m_old != null) {
+            ret = m_old.get(p_key);
         }
 
         return ret;
     }
 
+    /**
+     * Returns the values to which the specified keys are mapped in IntLongHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is probed, so the cache misses of a batch
+     * overlap instead of being serialized by the probing.
+     *
+     * @param p_keys
+     *         the searched keys (must not be 0)
+     * @param p_values
+     *         the array to store the values in (-1 if not found), at least as long as the keys
+     */
+    public final void getAll(final int[] p_keys, final long[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        int[] first = new int[BATCH_SIZE];
+        int length;
+        int slot;
+        int key;
+
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
+            }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
+            }
+
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
+
+                assert key != 0;
+
+                slot = first[j] == key ? homes[j] : find(key, homes[j]);
+                if (slot != -1) {
+                    p_values[i + j] = getValue(slot);
+                } else {
+                    p_values[i + j] = m_old != null ? m_old.get(key) : -1;
+                }
+            }
+        }
+    }
+
     /**
      * Maps the given key to the given value in LongIntHashTable.
      *
@@ -181,25 +296,58 @@ public class IntLongHashTable {
      *         the value
      */
     public final void put(final int p_key, final long p_value) {
-        int iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            set(slot, p_key, p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
+        }
+    }
+
+    /**
+     * Maps the given keys to the given values in IntLongHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is stored, see getAll().
+     *
+     * @param p_keys
+     *         the keys (must not be 0)
+     * @param p_values
+     *         the values, at least as long as the keys
+     */
+    public final void putAll(final int[] p_keys, final long[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        int[] first = new int[BATCH_SIZE];
+        int length;
+        int capacity;
+        int key;
+
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+            capacity = m_elementCapacity;
 
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                set(index, p_key, p_value);
-                return;
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
             }
-            iter = getKey(++index);
-        }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
+            }
+
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
 
-        set(index, p_key, p_value);
-        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+                // Replace in place if the key was found in its home slot and the batch did not move it
+                if (first[j] == key && m_old == null && capacity == m_elementCapacity && getKey(homes[j]) == key) {
+                    set(homes[j], key, p_values[i + j]);
+                } else {
+                    put(key, p_values[i + j]);
+                }
+            }
         }
     }
 
@@ -215,29 +363,44 @@ public class IntLongHashTable {
      */
     public final long add(final int p_key, final long p_value) {
         long ret = -1;
-        int iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                set(index, p_key, ret + p_value);
-                break;
-            }
-            iter = getKey(++index);
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            ret = getValue(slot);
+            set(slot, p_key, ret + p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
         }
-        if (ret == -1) {
-            set(index, p_key, p_value);
-            m_count++;
+
+        return ret;
+    }
+
+    /**
+     * Removes the given key from IntLongHashTable.
+     * The following entries of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final long remove(final int p_key) {
+        long ret = -1;
+        int slot;
+
+        assert p_key != 0;
+
+        if (m_old != null) {
+            rehashStep(p_key);
         }
 
-        if (m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+            removeSlot(slot);
         }
 
         return ret;
@@ -247,6 +410,8 @@ public class IntLongHashTable {
      * Clears the LongIntHashTable.
      */
     public final void clear() {
+        m_old = null;
+
         int length = m_table.length;
 
         /* The array and list is never truncated as the maximum number of concurrently accessed
@@ -268,6 +433,10 @@ public class IntLongHashTable {
      * @return the old long array.
      */
     public final int[] replace() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int[] newTable = new int[m_table.length];
         int[] oldTable = m_table;
         m_table = newTable;
@@ -289,7 +458,7 @@ public class IntLongHashTable {
     protected void set(final int p_index, final int p_key, final long p_value) {
         int index;
 
-        index = p_index % m_elementCapacity * 3;
+        index = wrap(p_index) * 3;
         m_table[index] = p_key;
         m_table[index + 1] = (int) (p_value >>> 32);
         m_table[index + 2] = (int) p_value;
@@ -303,7 +472,7 @@ public class IntLongHashTable {
      * @return the key
      */
     protected int getKey(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 3];
+        return m_table[wrap(p_index) * 3];
     }
 
     /**
@@ -314,39 +483,119 @@ public class IntLongHashTable {
      * @return the value
      */
     protected long getValue(final int p_index) {
-        return (long) m_table[p_index % m_elementCapacity * 3 + 1] << 32 |
-                m_table[p_index % m_elementCapacity * 3 + 2] & 0xFFFFFFFFL;
+        int index = wrap(p_index) * 3;
+
+        return (long) m_table[index + 1] << 32 | m_table[index + 2] & 0xFFFFFFFFL;
+    }
+
+    @Override
+    long keyAt(final int p_slot) {
+        return m_table[p_slot * 3];
+    }
+
+    @Override
+    int hash(final long p_key) {
+        return HashFunctionCollection.hash((int) p_key);
+    }
+
+    @Override
+    void moveSlot(final int p_from, final int p_to) {
+        m_table[p_to * 3] = m_table[p_from * 3];
+        m_table[p_to * 3 + 1] = m_table[p_from * 3 + 1];
+        m_table[p_to * 3 + 2] = m_table[p_from * 3 + 2];
+    }
+
+    @Override
+    void clearSlot(final int p_slot) {
+        m_table[p_slot * 3] = 0;
+        m_table[p_slot * 3 + 1] = 0;
+        m_table[p_slot * 3 + 2] = 0;
+    }
+
+    @Override
+    IntLongHashTable detach() {
+        return new IntLongHashTable(this);
+    }
+
+    @Override
+    void allocate() {
+        m_table = new int[m_elementCapacity * 3];
+    }
+
+    @Override
+    void migrateSlot(final IntLongHashTable p_old, final int p_from, final int p_to) {
+        m_table[p_to * 3] = p_old.m_table[p_from * 3];
+        m_table[p_to * 3 + 1] = p_old.m_table[p_from * 3 + 1];
+        m_table[p_to * 3 + 2] = p_old.m_table[p_from * 3 + 2];
+    }
+
+    /**
+     * Returns the flags of the mode which determine the layout of the slots.
+     *
+     * @return the flags
+     */
+    private int getLayout() {
+        return getModeFlags();
     }
 
     /**
-     * Increases the capacity of and internally reorganizes LongIntHashTable.
+     * Puts all entries of a raw table with another layout.
+     *
+     * @param p_table
+     *         the raw table
+     * @param p_capacity
+     *         the capacity of the raw table
+     * @param p_layout
+     *         the layout of the raw table
      */
-    private void rehash() {
-        int index = 0;
-        int oldCount;
-        int oldElementCapacity;
-        int[] oldTable;
-        int[] newTable;
+    private void reinsert(final int[] p_table, final int p_capacity, final int p_layout) {
+        IntLongHashTable table = new IntLongHashTable(1, p_layout);
 
-        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+        table.setCapacity(p_capacity);
+        table.m_table = p_table;
+        table.forEach(this::put);
+    }
 
-        oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+    /**
+     * Cursor over the entries of IntLongHashTable. Call next() before accessing the first entry.
+     */
+    public final class Cursor {
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
-        newTable = new int[m_elementCapacity * 3];
-        m_table = newTable;
+        private int m_index = -1;
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            int key = oldTable[index * 3];
-            if (key != 0) {
-                add(key, (long) oldTable[index * 3 + 1] << 32 | oldTable[index * 3 + 2] & 0xFFFFFFFFL);
-            }
-            index = (index + 1) % m_elementCapacity;
+        /**
+         * Creates an instance of Cursor.
+         */
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return true if there is another entry, false otherwise
+         */
+        public boolean next() {
+            m_index = nextSlot(m_index);
+
+            return m_index < m_elementCapacity;
         }
-        m_count = oldCount;
-    }
 
+        /**
+         * Returns the key of the current entry.
+         *
+         * @return the key
+         */
+        public int key() {
+            return getKey(m_index);
+        }
+
+        /**
+         * Returns the value of the current entry.
+         *
+         * @return the value
+         */
+        public long value() {
+            return getValue(m_index);
+        }
+    }
 }
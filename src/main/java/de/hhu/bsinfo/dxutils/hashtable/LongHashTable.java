@@ -19,8 +19,10 @@ package de.hhu.bsinfo.dxutils.hashtable;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
 
 /**
  * Stores key-value tuples whereas keys and values are longs.
@@ -28,16 +30,12 @@ import org.apache.logging.log4j.Logger;
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
-public class LongHashTable {
+public class LongHashTable extends OpenAddressingTable<LongHashTable> implements Importable, Exportable {
 
-    private static final int INITIAL_SIZE = 100;
-    private static final float LOAD_FACTOR = 0.9f;
-
-    private static final Logger LOGGER = LogManager.getFormatterLogger(LongHashTable.class.getSimpleName());
+    private static final int BATCH_SIZE = 16;
 
     private long[] m_table;
-    private int m_elementCapacity;
-    private int m_count;
+    private final HashStrategy m_hashStrategy;
 
     private ArrayList<long[]> m_list;
 
@@ -45,11 +43,7 @@ public class LongHashTable {
      * Creates an instance of LongHashTable.
      */
     public LongHashTable() {
-        m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
-
-        m_table = new long[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
-        m_list = new ArrayList<>();
+        this(INITIAL_SIZE, HashTableMode.DEFAULT);
     }
 
     /**
@@ -59,41 +53,51 @@ public class LongHashTable {
      *         the initial size
      */
     public LongHashTable(final int p_initialSize) {
-
-        assert p_initialSize > 0;
-
-        m_count = 0;
-        m_elementCapacity = p_initialSize;
-
-        m_table = new long[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
-        m_list = new ArrayList<>();
+        this(p_initialSize, HashTableMode.DEFAULT);
     }
 
     /**
-     * Returns the size.
+     * Creates an instance of LongHashTable.
      *
-     * @return the number of entries in the hash table
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
      */
-    public int size() {
-        return m_count;
+    public LongHashTable(final int p_initialSize, final int p_mode) {
+        this(p_initialSize, p_mode, HashStrategy.MURMUR3);
     }
 
     /**
-     * Returns the capacity.
+     * Creates an instance of LongHashTable.
      *
-     * @return the capacity
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
+     * @param p_hashStrategy
+     *         the hash function for the keys
      */
-    public int capacity() {
-        return m_elementCapacity;
+    public LongHashTable(final int p_initialSize, final int p_mode, final HashStrategy p_hashStrategy) {
+        super(p_initialSize, p_mode);
+
+        m_hashStrategy = p_hashStrategy;
+
+        m_table = new long[m_elementCapacity * 2]; // keys and values are stored one after another -> double size
+        m_list = new ArrayList<>();
     }
 
     /**
-     * Returns whether this hash table is empty or not.
+     * Creates the old generation of an incrementally rehashed LongHashTable by taking over its table.
      *
-     * @return true if empty, false otherwise
+     * @param p_table
+     *         the hash table to take the table from
      */
-    public boolean isEmpty() {
-        return m_count == 0;
+    private LongHashTable(final LongHashTable p_table) {
+        super(p_table);
+
+        m_hashStrategy = p_table.m_hashStrategy;
+        m_table = p_table.m_table;
     }
 
     /**
@@ -111,6 +115,10 @@ public class LongHashTable {
      * @return the long array.
      */
     public long[] getTable() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         return m_table;
     }
 
@@ -121,6 +129,10 @@ public class LongHashTable {
      */
     public List<long[]> convert() {
 
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int count = 0;
         for (int i = 0; i < m_elementCapacity; i++) {
             long key = getKey(i);
@@ -142,6 +154,90 @@ public class LongHashTable {
         return m_list.subList(0, m_count);
     }
 
+    /**
+     * Visits all entries without allocating.
+     *
+     * @param p_consumer
+     *         the consumer called for every entry
+     */
+    public void forEach(final LongLongConsumer p_consumer) {
+        long key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+
+        if (m_old != null) {
+            m_old.forEach(p_consumer);
+        }
+    }
+
+    /**
+     * Returns a cursor over all entries. The table must not be modified while the cursor is used.
+     *
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return new Cursor();
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        // The raw slots are exported, the layout depends on the mode
+        p_exporter.writeInt(getLayout());
+        p_exporter.writeInt(m_elementCapacity);
+        p_exporter.writeInt(m_count);
+        p_exporter.writeLongs(m_table);
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        int layout;
+        int capacity;
+        int count;
+        long[] table;
+
+        layout = p_importer.readInt(0);
+        capacity = p_importer.readInt(0);
+        count = p_importer.readInt(0);
+
+        m_old = null;
+        table = layout == getLayout() && layout >> 8 != 0 && m_table.length == capacity * 2 ? m_table :
+                new long[capacity * 2];
+        p_importer.readLongs(table);
+
+        // Custom hash strategies cannot be compared, always reinsert
+        if (layout == getLayout() && layout >> 8 != 0) {
+            setCapacity(capacity);
+            m_table = table;
+            m_count = count;
+        } else {
+            // Different mode or hash strategy, reinsert the entries
+            clear();
+            reinsert(table, capacity, layout);
+        }
+    }
+
+    @Override
+    public int sizeofObject() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return 3 * Integer.BYTES + m_table.length * Long.BYTES;
+    }
+
     /**
      * Returns the value to which the specified key is mapped in LongHashTable.
      *
@@ -151,25 +247,64 @@ public class LongHashTable {
      */
     public final long get(final long p_key) {
         long ret = -1;
-        long iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                break;
-            }
-            iter = getKey(++index);
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+        } else if (m_old != null) {
+            ret = m_old.get(p_key);
         }
 
         return ret;
     }
 
+    /**
+     * Returns the values to which the specified keys are mapped in LongHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is probed, so the cache misses of a batch
+     * overlap instead of being serialized by the probing.
+     *
+     * @param p_keys
+     *         the searched keys (must not be 0)
+     * @param p_values
+     *         the array to store the values in (-1 if not found), at least as long as the keys
+     */
+    public final void getAll(final long[] p_keys, final long[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        long[] first = new long[BATCH_SIZE];
+        int length;
+        int slot;
+        long key;
+
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
+            }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
+            }
+
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
+
+                assert key != 0;
+
+                slot = first[j] == key ? homes[j] : find(key, homes[j]);
+                if (slot != -1) {
+                    p_values[i + j] = getValue(slot);
+                } else {
+                    p_values[i + j] = m_old != null ? m_old.get(key) : -1;
+                }
+            }
+        }
+    }
+
     /**
      * Maps the given key to the given value in LongHashTable.
      *
@@ -179,25 +314,58 @@ public class LongHashTable {
      *         the value
      */
     public final void put(final long p_key, final long p_value) {
-        long iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            set(slot, p_key, p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
+        }
+    }
+
+    /**
+     * Maps the given keys to the given values in LongHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is stored, see getAll().
+     *
+     * @param p_keys
+     *         the keys (must not be 0)
+     * @param p_values
+     *         the values, at least as long as the keys
+     */
+    public final void putAll(final long[] p_keys, final long[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        long[] first = new long[BATCH_SIZE];
+        int length;
+        int capacity;
+        long key;
+
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+            capacity = m_elementCapacity;
 
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                set(index, p_key, p_value);
-                return;
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
+            }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
             }
-            iter = getKey(++index);
-        }
 
-        set(index, p_key, p_value);
-        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
+
+                // Replace in place if the key was found in its home slot and the batch did not move it
+                if (first[j] == key && m_old == null && capacity == m_elementCapacity && getKey(homes[j]) == key) {
+                    set(homes[j], key, p_values[i + j]);
+                } else {
+                    put(key, p_values[i + j]);
+                }
+            }
         }
     }
 
@@ -213,29 +381,44 @@ public class LongHashTable {
      */
     public final long add(final long p_key, final long p_value) {
         long ret = -1;
-        long iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                set(index, p_key, ret + p_value);
-                break;
-            }
-            iter = getKey(++index);
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            ret = getValue(slot);
+            set(slot, p_key, ret + p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
         }
-        if (ret == -1) {
-            set(index, p_key, p_value);
-            m_count++;
+
+        return ret;
+    }
+
+    /**
+     * Removes the given key from LongHashTable.
+     * The following entries of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final long remove(final long p_key) {
+        long ret = -1;
+        int slot;
+
+        assert p_key != 0;
+
+        if (m_old != null) {
+            rehashStep(p_key);
         }
 
-        if (m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+            removeSlot(slot);
         }
 
         return ret;
@@ -245,6 +428,8 @@ public class LongHashTable {
      * Clears the LongHashTable.
      */
     public final void clear() {
+        m_old = null;
+
         int length = m_table.length;
 
         /* The array and list is never truncated as the maximum number of concurrently accessed
@@ -266,6 +451,10 @@ public class LongHashTable {
      * @return the old long array.
      */
     public final long[] replace() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         long[] newTable = new long[m_table.length];
         long[] oldTable = m_table;
         m_table = newTable;
@@ -287,7 +476,7 @@ public class LongHashTable {
     protected void set(final int p_index, final long p_key, final long p_value) {
         int index;
 
-        index = p_index % m_elementCapacity * 2;
+        index = wrap(p_index) * 2;
         m_table[index] = p_key;
         m_table[index + 1] = p_value;
     }
@@ -300,7 +489,7 @@ public class LongHashTable {
      * @return the key
      */
     protected long getKey(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 2];
+        return m_table[wrap(p_index) * 2];
     }
 
     /**
@@ -311,37 +500,114 @@ public class LongHashTable {
      * @return the value
      */
     protected long getValue(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 2 + 1];
+        return m_table[wrap(p_index) * 2 + 1];
+    }
+
+    @Override
+    long keyAt(final int p_slot) {
+        return m_table[p_slot * 2];
+    }
+
+    @Override
+    int hash(final long p_key) {
+        return m_hashStrategy.hash(p_key);
+    }
+
+    @Override
+    void moveSlot(final int p_from, final int p_to) {
+        m_table[p_to * 2] = m_table[p_from * 2];
+        m_table[p_to * 2 + 1] = m_table[p_from * 2 + 1];
+    }
+
+    @Override
+    void clearSlot(final int p_slot) {
+        m_table[p_slot * 2] = 0;
+        m_table[p_slot * 2 + 1] = 0;
+    }
+
+    @Override
+    LongHashTable detach() {
+        return new LongHashTable(this);
+    }
+
+    @Override
+    void allocate() {
+        m_table = new long[m_elementCapacity * 2];
+    }
+
+    @Override
+    void migrateSlot(final LongHashTable p_old, final int p_from, final int p_to) {
+        m_table[p_to * 2] = p_old.m_table[p_from * 2];
+        m_table[p_to * 2 + 1] = p_old.m_table[p_from * 2 + 1];
     }
 
     /**
-     * Increases the capacity of and internally reorganizes LongHashTable.
+     * Returns the flags of the mode and the hash strategy which determine the layout of the slots.
+     *
+     * @return the flags
      */
-    private void rehash() {
-        int index = 0;
-        int oldCount;
-        int oldElementCapacity;
-        long[] oldTable;
-        long[] newTable;
+    private int getLayout() {
+        return getModeFlags() | HashFunctionCollection.getStrategyId(m_hashStrategy) << 8;
+    }
 
-        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+    /**
+     * Puts all entries of a raw table with another layout.
+     *
+     * @param p_table
+     *         the raw table
+     * @param p_capacity
+     *         the capacity of the raw table
+     * @param p_layout
+     *         the layout of the raw table
+     */
+    private void reinsert(final long[] p_table, final int p_capacity, final int p_layout) {
+        LongHashTable table = new LongHashTable(1, p_layout);
 
-        oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+        table.setCapacity(p_capacity);
+        table.m_table = p_table;
+        table.forEach(this::put);
+    }
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
-        newTable = new long[m_elementCapacity * 2];
-        m_table = newTable;
+    /**
+     * Cursor over the entries of LongHashTable. Call next() before accessing the first entry.
+     */
+    public final class Cursor {
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            if (oldTable[index * 2] != 0) {
-                add(oldTable[index * 2], oldTable[index * 2 + 1]);
-            }
-            index = (index + 1) % m_elementCapacity;
+        private int m_index = -1;
+
+        /**
+         * Creates an instance of Cursor.
+         */
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return true if there is another entry, false otherwise
+         */
+        public boolean next() {
+            m_index = nextSlot(m_index);
+
+            return m_index < m_elementCapacity;
         }
-        m_count = oldCount;
-    }
 
+        /**
+         * Returns the key of the current entry.
+         *
+         * @return the key
+         */
+        public long key() {
+            return getKey(m_index);
+        }
+
+        /**
+         * Returns the value of the current entry.
+         *
+         * @return the value
+         */
+        public long value() {
+            return getValue(m_index);
+        }
+    }
 }
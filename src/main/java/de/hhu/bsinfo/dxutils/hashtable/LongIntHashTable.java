@@ -19,8 +19,10 @@ package de.hhu.bsinfo.dxutils.hashtable;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
 
 /**
  * Stores key-value tuples whereas keys are longs and values ints.
@@ -28,16 +30,12 @@ import org.apache.logging.log4j.Logger;
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 26.02.2018
  */
-public class LongIntHashTable {
+public class LongIntHashTable extends OpenAddressingTable<LongIntHashTable> implements Importable, Exportable {
 
-    private static final int INITIAL_SIZE = 100;
-    private static final float LOAD_FACTOR = 0.9f;
-
-    private static final Logger LOGGER = LogManager.getFormatterLogger(LongIntHashTable.class.getSimpleName());
+    private static final int BATCH_SIZE = 16;
 
     private int[] m_table;
-    private int m_elementCapacity;
-    private int m_count;
+    private final HashStrategy m_hashStrategy;
 
     private ArrayList<long[]> m_list;
 
@@ -45,12 +43,7 @@ public class LongIntHashTable {
      * Creates an instance of LongIntHashTable.
      */
     public LongIntHashTable() {
-        m_count = 0;
-        m_elementCapacity = INITIAL_SIZE;
-
-        m_table = new int[m_elementCapacity *
-                3]; // keys (8 bytes) and values (4 bytes) are stored one after another -> triple size
-        m_list = new ArrayList<>();
+        this(INITIAL_SIZE, HashTableMode.DEFAULT);
     }
 
     /**
@@ -60,42 +53,52 @@ public class LongIntHashTable {
      *         the initial size
      */
     public LongIntHashTable(final int p_initialSize) {
-
-        assert p_initialSize > 0;
-
-        m_count = 0;
-        m_elementCapacity = p_initialSize;
-
-        m_table = new int[m_elementCapacity *
-                3]; // keys (8 bytes) and values (4 bytes) are stored one after another -> triple size
-        m_list = new ArrayList<>();
+        this(p_initialSize, HashTableMode.DEFAULT);
     }
 
     /**
-     * Returns the size.
+     * Creates an instance of LongIntHashTable.
      *
-     * @return the number of entries in the hash table
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
      */
-    public int size() {
-        return m_count;
+    public LongIntHashTable(final int p_initialSize, final int p_mode) {
+        this(p_initialSize, p_mode, HashStrategy.MURMUR3);
     }
 
     /**
-     * Returns the capacity.
+     * Creates an instance of LongIntHashTable.
      *
-     * @return the capacity
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
+     * @param p_hashStrategy
+     *         the hash function for the keys
      */
-    public int capacity() {
-        return m_elementCapacity;
+    public LongIntHashTable(final int p_initialSize, final int p_mode, final HashStrategy p_hashStrategy) {
+        super(p_initialSize, p_mode);
+
+        m_hashStrategy = p_hashStrategy;
+
+        m_table = new int[m_elementCapacity *
+                3]; // keys (8 bytes) and values (4 bytes) are stored one after another -> triple size
+        m_list = new ArrayList<>();
     }
 
     /**
-     * Returns whether this hash table is empty or not.
+     * Creates the old generation of an incrementally rehashed LongIntHashTable by taking over its table.
      *
-     * @return true if empty, false otherwise
+     * @param p_table
+     *         the hash table to take the table from
      */
-    public boolean isEmpty() {
-        return m_count == 0;
+    private LongIntHashTable(final LongIntHashTable p_table) {
+        super(p_table);
+
+        m_hashStrategy = p_table.m_hashStrategy;
+        m_table = p_table.m_table;
     }
 
     /**
@@ -113,6 +116,10 @@ public class LongIntHashTable {
      * @return the int array.
      */
     public int[] getTable() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         return m_table;
     }
 
@@ -123,6 +130,10 @@ public class LongIntHashTable {
      */
     public List<long[]> convert() {
 
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int count = 0;
         for (int i = 0; i < m_elementCapacity; i++) {
             long key = getKey(i);
@@ -144,6 +155,90 @@ public class LongIntHashTable {
         return m_list.subList(0, m_count);
     }
 
+    /**
+     * Visits all entries without allocating.
+     *
+     * @param p_consumer
+     *         the consumer called for every entry
+     */
+    public void forEach(final LongIntConsumer p_consumer) {
+        long key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = getKey(i);
+            if (key != 0) {
+                p_consumer.accept(key, getValue(i));
+            }
+        }
+
+        if (m_old != null) {
+            m_old.forEach(p_consumer);
+        }
+    }
+
+    /**
+     * Returns a cursor over all entries. The table must not be modified while the cursor is used.
+     *
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return new Cursor();
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        // The raw slots are exported, the layout depends on the mode
+        p_exporter.writeInt(getLayout());
+        p_exporter.writeInt(m_elementCapacity);
+        p_exporter.writeInt(m_count);
+        p_exporter.writeInts(m_table);
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        int layout;
+        int capacity;
+        int count;
+        int[] table;
+
+        layout = p_importer.readInt(0);
+        capacity = p_importer.readInt(0);
+        count = p_importer.readInt(0);
+
+        m_old = null;
+        table = layout == getLayout() && layout >> 8 != 0 && m_table.length == capacity * 3 ? m_table :
+                new int[capacity * 3];
+        p_importer.readInts(table);
+
+        // Custom hash strategies cannot be compared, always reinsert
+        if (layout == getLayout() && layout >> 8 != 0) {
+            setCapacity(capacity);
+            m_table = table;
+            m_count = count;
+        } else {
+            // Different mode or hash strategy, reinsert the entries
+            clear();
+            reinsert(table, capacity, layout);
+        }
+    }
+
+    @Override
+    public int sizeofObject() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        return 3 * Integer.BYTES + m_table.length * Integer.BYTES;
+    }
+
     /**
      * Returns the value to which the specified key is mapped in LongIntHashTable.
      *
@@ -153,25 +248,64 @@ public class LongIntHashTable {
      */
     public final int get(final long p_key) {
         int ret = -1;
-        long iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                break;
-            }
-            iter = getKey(++index);
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+        } else if (m_old != null) {
+            ret = m_old.get(p_key);
         }
 
         return ret;
     }
 
+    /**
+     * Returns the values to which the specified keys are mapped in LongIntHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is probed, so the cache misses of a batch
+     * overlap instead of being serialized by the probing.
+     *
+     * @param p_keys
+     *         the searched keys (must not be 0)
+     * @param p_values
+     *         the array to store the values in (-1 if not found), at least as long as the keys
+     */
+    public final void getAll(final long[] p_keys, final int[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        long[] first = new long[BATCH_SIZE];
+        int length;
+        int slot;
+        long key;
+
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
+            }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
+            }
+
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
+
+                assert key != 0;
+
+                slot = first[j] == key ? homes[j] : find(key, homes[j]);
+                if (slot != -1) {
+                    p_values[i + j] = getValue(slot);
+                } else {
+                    p_values[i + j] = m_old != null ? m_old.get(key) : -1;
+                }
+            }
+        }
+    }
+
     /**
      * Maps the given key to the given value in LongIntHashTable.
      *
@@ -181,25 +315,58 @@ public class LongIntHashTable {
      *         the value
      */
     public final void put(final long p_key, final int p_value) {
-        long iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            set(slot, p_key, p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
+        }
+    }
+
+    /**
+     * Maps the given keys to the given values in LongIntHashTable.
+     * The home slots of BATCH_SIZE keys are loaded before any of them is stored, see getAll().
+     *
+     * @param p_keys
+     *         the keys (must not be 0)
+     * @param p_values
+     *         the values, at least as long as the keys
+     */
+    public final void putAll(final long[] p_keys, final int[] p_values) {
+        int[] homes = new int[BATCH_SIZE];
+        long[] first = new long[BATCH_SIZE];
+        int length;
+        int capacity;
+        long key;
 
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                set(index, p_key, p_value);
-                return;
+        assert p_values.length >= p_keys.length;
+
+        for (int i = 0; i < p_keys.length; i += BATCH_SIZE) {
+            length = Math.min(BATCH_SIZE, p_keys.length - i);
+            capacity = m_elementCapacity;
+
+            for (int j = 0; j < length; j++) {
+                homes[j] = home(p_keys[i + j]);
             }
-            iter = getKey(++index);
-        }
+            for (int j = 0; j < length; j++) {
+                first[j] = getKey(homes[j]);
+            }
+
+            for (int j = 0; j < length; j++) {
+                key = p_keys[i + j];
 
-        set(index, p_key, p_value);
-        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+                // Replace in place if the key was found in its home slot and the batch did not move it
+                if (first[j] == key && m_old == null && capacity == m_elementCapacity && getKey(homes[j]) == key) {
+                    set(homes[j], key, p_values[i + j]);
+                } else {
+                    put(key, p_values[i + j]);
+                }
+            }
         }
     }
 
@@ -215,29 +382,44 @@ public class LongIntHashTable {
      */
     public final int add(final long p_key, final int p_value) {
         int ret = -1;
-        long iter;
-        int index;
+        int slot;
 
         assert p_key != 0;
 
-        index = (HashFunctionCollection.hash(p_key) & 0x7FFFFFFF) % m_elementCapacity;
-
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == p_key) {
-                ret = getValue(index);
-                set(index, p_key, ret + p_value);
-                break;
-            }
-            iter = getKey(++index);
+        slot = insertionSlot(p_key);
+        if (slot >= 0) {
+            ret = getValue(slot);
+            set(slot, p_key, ret + p_value);
+        } else {
+            set(~slot, p_key, p_value);
+            added();
         }
-        if (ret == -1) {
-            set(index, p_key, p_value);
-            m_count++;
+
+        return ret;
+    }
+
+    /**
+     * Removes the given key from LongIntHashTable.
+     * The following entries of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final int remove(final long p_key) {
+        int ret = -1;
+        int slot;
+
+        assert p_key != 0;
+
+        if (m_old != null) {
+            rehashStep(p_key);
         }
 
-        if (m_count >= m_elementCapacity * LOAD_FACTOR) {
-            rehash();
+        slot = find(p_key, home(p_key));
+        if (slot != -1) {
+            ret = getValue(slot);
+            removeSlot(slot);
         }
 
         return ret;
@@ -247,6 +429,8 @@ public class LongIntHashTable {
      * Clears the LongIntHashTable.
      */
     public final void clear() {
+        m_old = null;
+
         int length = m_table.length;
 
         /* The array and list is never truncated as the maximum number of concurrently accessed
@@ -268,6 +452,10 @@ public class LongIntHashTable {
      * @return the old long array.
      */
     public final int[] replace() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
         int[] newTable = new int[m_table.length];
         int[] oldTable = m_table;
         m_table = newTable;
@@ -289,7 +477,7 @@ public class LongIntHashTable {
     protected void set(final int p_index, final long p_key, final int p_value) {
         int index;
 
-        index = p_index % m_elementCapacity * 3;
+        index = wrap(p_index) * 3;
         m_table[index] = (int) (p_key >>> 32);
         m_table[index + 1] = (int) p_key;
         m_table[index + 2] = p_value;
@@ -303,8 +491,9 @@ public class LongIntHashTable {
      * @return the key
      */
     protected long getKey(final int p_index) {
-        return (long) m_table[p_index % m_elementCapacity * 3] << 32 |
-                m_table[p_index % m_elementCapacity * 3 + 1] & 0xFFFFFFFFL;
+        int index = wrap(p_index) * 3;
+
+        return (long) m_table[index] << 32 | m_table[index + 1] & 0xFFFFFFFFL;
     }
 
     /**
@@ -315,38 +504,117 @@ public class LongIntHashTable {
      * @return the value
      */
     protected int getValue(final int p_index) {
-        return m_table[p_index % m_elementCapacity * 3 + 2];
+        return m_table[wrap(p_index) * 3 + 2];
+    }
+
+    @Override
+    long keyAt(final int p_slot) {
+        return (long) m_table[p_slot * 3] << 32 | m_table[p_slot * 3 + 1] & 0xFFFFFFFFL;
+    }
+
+    @Override
+    int hash(final long p_key) {
+        return m_hashStrategy.hash(p_key);
+    }
+
+    @Override
+    void moveSlot(final int p_from, final int p_to) {
+        m_table[p_to * 3] = m_table[p_from * 3];
+        m_table[p_to * 3 + 1] = m_table[p_from * 3 + 1];
+        m_table[p_to * 3 + 2] = m_table[p_from * 3 + 2];
+    }
+
+    @Override
+    void clearSlot(final int p_slot) {
+        m_table[p_slot * 3] = 0;
+        m_table[p_slot * 3 + 1] = 0;
+        m_table[p_slot * 3 + 2] = 0;
+    }
+
+    @Override
+    LongIntHashTable detach() {
+        return new LongIntHashTable(this);
+    }
+
+    @Override
+    void allocate() {
+        m_table = new int[m_elementCapacity * 3];
+    }
+
+    @Override
+    void migrateSlot(final LongIntHashTable p_old, final int p_from, final int p_to) {
+        m_table[p_to * 3] = p_old.m_table[p_from * 3];
+        m_table[p_to * 3 + 1] = p_old.m_table[p_from * 3 + 1];
+        m_table[p_to * 3 + 2] = p_old.m_table[p_from * 3 + 2];
+    }
+
+    /**
+     * Returns the flags of the mode and the hash strategy which determine the layout of the slots.
+     *
+     * @return the flags
+     */
+    private int getLayout() {
+        return getModeFlags() | HashFunctionCollection.getStrategyId(m_hashStrategy) << 8;
     }
 
     /**
-     * Increases the capacity of and internally reorganizes LongIntHashTable.
+     * Puts all entries of a raw table with another layout.
+     *
+     * @param p_table
+     *         the raw table
+     * @param p_capacity
+     *         the capacity of the raw table
+     * @param p_layout
+     *         the layout of the raw table
      */
-    private void rehash() {
-        int index = 0;
-        int oldCount;
-        int oldElementCapacity;
-        int[] oldTable;
-        int[] newTable;
+    private void reinsert(final int[] p_table, final int p_capacity, final int p_layout) {
+        LongIntHashTable table = new LongIntHashTable(1, p_layout);
 
-        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+        table.setCapacity(p_capacity);
+        table.m_table = p_table;
+        table.forEach(this::put);
+    }
 
-        oldCount = m_count;
-        oldElementCapacity = m_elementCapacity;
-        oldTable = m_table;
+    /**
+     * Cursor over the entries of LongIntHashTable. Call next() before accessing the first entry.
+     */
+    public final class Cursor {
 
-        m_elementCapacity = m_elementCapacity * 2 + 1;
-        newTable = new int[m_elementCapacity * 3];
-        m_table = newTable;
+        private int m_index = -1;
 
-        m_count = 0;
-        while (index < oldElementCapacity) {
-            long key = (long) oldTable[index * 3] << 32 | oldTable[index * 3 + 1] & 0xFFFFFFFFL;
-            if (key != 0) {
-                add(key, oldTable[index * 3 + 2]);
-            }
-            index = (index + 1) % m_elementCapacity;
+        /**
+         * Creates an instance of Cursor.
+         */
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return true if there is another entry, false otherwise
+         */
+        public boolean next() {
+            m_index = nextSlot(m_index);
+
+            return m_index < m_elementCapacity;
         }
-        m_count = oldCount;
-    }
 
+        /**
+         * Returns the key of the current entry.
+         *
+         * @return the key
+         */
+        public long key() {
+            return getKey(m_index);
+        }
+
+        /**
+         * Returns the value of the current entry.
+         *
+         * @return the value
+         */
+        public int value() {
+            return getValue(m_index);
+        }
+    }
 }
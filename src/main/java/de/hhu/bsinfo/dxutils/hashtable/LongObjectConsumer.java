@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+/**
+ * Visits the entries of a GenericHashTable without allocating an element list.
+ *
+ * @param <T>
+ *         the value type
+ */
+@FunctionalInterface
+public interface LongObjectConsumer<T> {
+
+    /**
+     * Visits one entry.
+     *
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    void accept(long p_key, T p_value);
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+
+/**
+ * Stores key-value tuples whereas keys and values are longs, like LongHashTable, but the slots are stored in
+ * memory outside of the java heap. The table is invisible for the garbage collector, rehashing does not need
+ * heap memory and the capacity is only limited by the main memory (more than Integer.MAX_VALUE slots possible).
+ * Capacities are powers of two. The memory must be freed explicitly by calling free().
+ */
+public class OffHeapLongHashTable {
+
+    private static final long INITIAL_SIZE = 128;
+    private static final long MAX_SIZE = 1L << 58;
+    private static final float LOAD_FACTOR = 0.9f;
+    private static final int SLOT_SIZE = Long.BYTES + Long.BYTES;
+
+    private static final Logger LOGGER = LogManager.getFormatterLogger(OffHeapLongHashTable.class.getSimpleName());
+
+    private long m_address;
+    private long m_elementCapacity;
+    private long m_count;
+    private long m_mask;
+    private int m_shift;
+
+    /**
+     * Creates an instance of OffHeapLongHashTable.
+     */
+    public OffHeapLongHashTable() {
+        this(INITIAL_SIZE);
+    }
+
+    /**
+     * Creates an instance of OffHeapLongHashTable.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two)
+     */
+    public OffHeapLongHashTable(final long p_initialSize) {
+        assert p_initialSize > 0 && p_initialSize <= MAX_SIZE;
+
+        m_count = 0;
+        setCapacity(p_initialSize <= 2 ? 2 : Long.highestOneBit(p_initialSize - 1) << 1);
+        m_address = allocate(m_elementCapacity);
+    }
+
+    /**
+     * Returns the size.
+     *
+     * @return the number of entries in the hash table
+     */
+    public long size() {
+        return m_count;
+    }
+
+    /**
+     * Returns the capacity.
+     *
+     * @return the capacity
+     */
+    public long capacity() {
+        return m_elementCapacity;
+    }
+
+    /**
+     * Returns whether this hash table is empty or not.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return m_count == 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped in OffHeapLongHashTable.
+     *
+     * @param p_key
+     *         the searched key (must not be 0)
+     * @return the value to which the key is mapped in OffHeapLongHashTable or -1 if not found
+     */
+    public final long get(final long p_key) {
+        long index;
+        long iter;
+
+        assert p_key != 0;
+
+        index = home(p_key);
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                return getValue(index);
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Maps the given key to the given value in OffHeapLongHashTable.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     */
+    public final void put(final long p_key, final long p_value) {
+        long index;
+        long iter;
+
+        assert p_key != 0;
+
+        index = home(p_key);
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                setValue(index, p_value);
+                return;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        set(index, p_key, p_value);
+        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
+            rehash();
+        }
+    }
+
+    /**
+     * Maps the given key to the given value in OffHeapLongHashTable.
+     * If the key already exists given value is added to old value.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @param p_value
+     *         the value
+     * @return the old value or -1 if the key was not found
+     */
+    public final long add(final long p_key, final long p_value) {
+        long ret;
+        long index;
+        long iter;
+
+        assert p_key != 0;
+
+        index = home(p_key);
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                setValue(index, ret + p_value);
+                return ret;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        set(index, p_key, p_value);
+        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
+            rehash();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes the given key from OffHeapLongHashTable.
+     * The following entries of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_key
+     *         the key (must not be 0)
+     * @return the value the key was mapped to or -1 if the key was not found
+     */
+    public final long remove(final long p_key) {
+        long ret;
+        long index;
+        long iter;
+
+        assert p_key != 0;
+
+        index = home(p_key);
+
+        iter = getKey(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = getValue(index);
+                shiftBackward(index);
+                m_count--;
+                return ret;
+            }
+            index = index + 1 & m_mask;
+            iter = getKey(index);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Clears the OffHeapLongHashTable. The capacity is kept.
+     */
+    public final void clear() {
+        UnsafeMemory.set(m_address, m_elementCapacity * SLOT_SIZE, (byte) 0);
+        m_count = 0;
+    }
+
+    /**
+     * Frees the memory of the OffHeapLongHashTable. The table must not be used afterwards.
+     */
+    public final void free() {
+        if (m_address != 0) {
+            UnsafeMemory.free(m_address);
+            m_address = 0;
+            m_count = 0;
+        }
+    }
+
+    /**
+     * Fills the gap at the given index by moving back all following entries of the cluster which may be stored
+     * there (their home index does not lie cyclically between the gap and their position).
+     *
+     * @param p_index
+     *         the index of the removed entry
+     */
+    private void shiftBackward(final long p_index) {
+        long gap = p_index;
+        long index = p_index;
+        long home;
+        long key;
+
+        while (true) {
+            index = index + 1 & m_mask;
+            key = getKey(index);
+            if (key == 0) {
+                break;
+            }
+
+            home = home(key);
+            if (gap <= index ? home <= gap || home > index : home <= gap && home > index) {
+                set(gap, key, getValue(index));
+                gap = index;
+            }
+        }
+
+        set(gap, 0, 0);
+    }
+
+    /**
+     * Sets the capacity and derives mask and shift.
+     *
+     * @param p_capacity
+     *         the new capacity (power of two)
+     */
+    private void setCapacity(final long p_capacity) {
+        m_elementCapacity = p_capacity;
+        m_mask = p_capacity - 1;
+        m_shift = Long.numberOfLeadingZeros(m_mask);
+    }
+
+    /**
+     * Returns the home index of a key.
+     *
+     * @param p_key
+     *         the key
+     * @return the index
+     */
+    private long home(final long p_key) {
+        return HashFunctionCollection.hash64(p_key) >>> m_shift;
+    }
+
+    /**
+     * Returns the key at the given index.
+     *
+     * @param p_index
+     *         the index
+     * @return the key
+     */
+    private long getKey(final long p_index) {
+        return UnsafeMemory.readLong(m_address + p_index * SLOT_SIZE);
+    }
+
+    /**
+     * Returns the value at the given index.
+     *
+     * @param p_index
+     *         the index
+     * @return the value
+     */
+    private long getValue(final long p_index) {
+        return UnsafeMemory.readLong(m_address + p_index * SLOT_SIZE + Long.BYTES);
+    }
+
+    /**
+     * Sets the value at the given index.
+     *
+     * @param p_index
+     *         the index
+     * @param p_value
+     *         the value
+     */
+    private void setValue(final long p_index, final long p_value) {
+        UnsafeMemory.writeLong(m_address + p_index * SLOT_SIZE + Long.BYTES, p_value);
+    }
+
+    /**
+     * Sets the key-value tuple at the given index.
+     *
+     * @param p_index
+     *         the index
+     * @param p_key
+     *         the key
+     * @param p_value
+     *         the value
+     */
+    private void set(final long p_index, final long p_key, final long p_value) {
+        UnsafeMemory.writeLong(m_address + p_index * SLOT_SIZE, p_key);
+        setValue(p_index, p_value);
+    }
+
+    /**
+     * Allocates and zeroes the memory for the given capacity.
+     *
+     * @param p_capacity
+     *         the capacity
+     * @return the address
+     */
+    private static long allocate(final long p_capacity) {
+        long address = UnsafeMemory.allocate(p_capacity * SLOT_SIZE);
+
+        UnsafeMemory.set(address, p_capacity * SLOT_SIZE, (byte) 0);
+
+        return address;
+    }
+
+    /**
+     * Doubles the capacity of and internally reorganizes OffHeapLongHashTable. The old memory is freed afterwards.
+     */
+    private void rehash() {
+        long oldAddress;
+        long oldElementCapacity;
+        long key;
+        long index;
+        long iter;
+
+        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+
+        assert m_elementCapacity < MAX_SIZE;
+
+        oldAddress = m_address;
+        oldElementCapacity = m_elementCapacity;
+
+        setCapacity(m_elementCapacity * 2);
+        m_address = allocate(m_elementCapacity);
+
+        for (long i = 0; i < oldElementCapacity; i++) {
+            key = UnsafeMemory.readLong(oldAddress + i * SLOT_SIZE);
+            if (key != 0) {
+                // Keys are unique, insert without comparing
+                index = home(key);
+                iter = getKey(index);
+                while (iter != 0) {
+                    index = index + 1 & m_mask;
+                    iter = getKey(index);
+                }
+                set(index, key, UnsafeMemory.readLong(oldAddress + i * SLOT_SIZE + Long.BYTES));
+            }
+        }
+
+        UnsafeMemory.free(oldAddress);
+    }
+}
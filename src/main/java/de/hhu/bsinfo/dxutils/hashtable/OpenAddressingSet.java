@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+/**
+ * Open-addressing core of the primitive hash sets. The element 0 marks free slots and is stored in a flag instead.
+ * INCREMENTAL_REHASH is not supported.
+ *
+ * @param <T>
+ *         the type of the subclass
+ */
+abstract class OpenAddressingSet<T extends OpenAddressingSet<T>> extends OpenAddressingTable<T> {
+
+    boolean m_containsZero;
+
+    /**
+     * Creates an instance of OpenAddressingSet. The subclass allocates the slots for the capacity.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode (INCREMENTAL_REHASH is not supported)
+     */
+    OpenAddressingSet(final int p_initialSize, final int p_mode) {
+        super(p_initialSize, p_mode);
+
+        assert (p_mode & HashTableMode.INCREMENTAL_REHASH) == 0;
+    }
+
+    /**
+     * Creates the old generation of a rehashed set. The subclass takes over the slots.
+     *
+     * @param p_set
+     *         the set to take the slots from
+     */
+    OpenAddressingSet(final T p_set) {
+        super(p_set);
+    }
+
+    @Override
+    public int size() {
+        return m_containsZero ? m_count + 1 : m_count;
+    }
+
+    /**
+     * Adds all elements of the given set (union).
+     *
+     * @param p_set
+     *         the set
+     * @return true if at least one element was added
+     */
+    public final boolean addAll(final T p_set) {
+        boolean ret = p_set.m_containsZero && addElement(0);
+        long element;
+
+        for (int i = 0; i < p_set.m_elementCapacity; i++) {
+            element = p_set.keyAt(i);
+            if (element != 0) {
+                ret |= addElement(element);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes all elements which are not contained in the given set (intersection).
+     *
+     * @param p_set
+     *         the set
+     * @return true if at least one element was removed
+     */
+    public final boolean retainAll(final T p_set) {
+        boolean ret = false;
+        long element;
+
+        if (m_containsZero && !p_set.m_containsZero) {
+            m_containsZero = false;
+            ret = true;
+        }
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            element = keyAt(i);
+            if (element != 0 && !p_set.containsElement(element)) {
+                // Removing shifts not yet visited elements back into this slot, but never in front of it
+                removeSlot(i--);
+                ret = true;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Stores an element in a slot.
+     *
+     * @param p_slot
+     *         the slot
+     * @param p_element
+     *         the element (narrowed to the element type)
+     */
+    abstract void setElement(int p_slot, long p_element);
+
+    /**
+     * Checks if the given element is contained.
+     *
+     * @param p_element
+     *         the element
+     * @return true if contained, false otherwise
+     */
+    final boolean containsElement(final long p_element) {
+        if (p_element == 0) {
+            return m_containsZero;
+        }
+
+        return find(p_element, home(p_element)) != -1;
+    }
+
+    /**
+     * Adds the given element.
+     *
+     * @param p_element
+     *         the element
+     * @return true if the element was added, false if it was already contained
+     */
+    final boolean addElement(final long p_element) {
+        int slot;
+
+        if (p_element == 0) {
+            if (m_containsZero) {
+                return false;
+            }
+
+            m_containsZero = true;
+            return true;
+        }
+
+        slot = insertionSlot(p_element);
+        if (slot >= 0) {
+            return false;
+        }
+
+        setElement(~slot, p_element);
+        added();
+
+        return true;
+    }
+
+    /**
+     * Removes the given element.
+     *
+     * @param p_element
+     *         the element
+     * @return true if the element was removed, false if it was not contained
+     */
+    final boolean removeElement(final long p_element) {
+        int slot;
+
+        if (p_element == 0) {
+            if (!m_containsZero) {
+                return false;
+            }
+
+            m_containsZero = false;
+            return true;
+        }
+
+        slot = find(p_element, home(p_element));
+        if (slot == -1) {
+            return false;
+        }
+
+        removeSlot(slot);
+
+        return true;
+    }
+
+    /**
+     * Returns the start position of a cursor.
+     *
+     * @return -2 if the element 0 is contained (visited first), -1 otherwise
+     */
+    final int firstPosition() {
+        return m_containsZero ? -2 : -1;
+    }
+
+    /**
+     * Moves a cursor position to the next element.
+     *
+     * @param p_position
+     *         the current position (-1 stands for the element 0)
+     * @return the next position (the capacity if there is none)
+     */
+    final int nextPosition(final int p_position) {
+        return p_position == -2 ? -1 : nextSlot(p_position);
+    }
+}
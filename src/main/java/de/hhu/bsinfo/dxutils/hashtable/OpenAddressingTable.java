@@ -0,0 +1,561 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Open-addressing core of the hash tables and sets (linear probing, no tombstones). The subclasses store
+ * the slots in typed arrays, the probing works on the keys widened to long. The key 0 marks free slots.
+ * Implements the modes of HashTableMode: home index computation, Robin Hood insertion, backward-shift deletion and
+ * (incremental) rehashing, which moves the entries of an old generation to the new slots cluster by cluster.
+ *
+ * @param <T>
+ *         the type of the subclass (the old generation has the same type)
+ */
+abstract class OpenAddressingTable<T extends OpenAddressingTable<T>> {
+
+    static final int INITIAL_SIZE = 100;
+    static final float LOAD_FACTOR = 0.9f;
+    private static final int REHASH_STEP = 4;
+
+    private static final Logger LOGGER = LogManager.getFormatterLogger(OpenAddressingTable.class.getSimpleName());
+
+    int m_elementCapacity;
+    int m_count;
+
+    final boolean m_powerOfTwo;
+    final boolean m_robinHood;
+    final boolean m_incremental;
+    private int m_mask;
+    private int m_shift;
+
+    T m_old;
+    private int m_migrateIndex;
+    private int m_migrateEnd;
+
+    /**
+     * Creates an instance of OpenAddressingTable. The subclass allocates the slots for the capacity.
+     *
+     * @param p_initialSize
+     *         the initial size (rounded up to the next power of two in mode POWER_OF_TWO)
+     * @param p_mode
+     *         the mode, see HashTableMode
+     */
+    OpenAddressingTable(final int p_initialSize, final int p_mode) {
+        assert p_initialSize > 0;
+
+        m_powerOfTwo = (p_mode & HashTableMode.POWER_OF_TWO) != 0;
+        m_robinHood = (p_mode & HashTableMode.ROBIN_HOOD) != 0;
+        m_incremental = (p_mode & HashTableMode.INCREMENTAL_REHASH) != 0;
+        m_count = 0;
+        setCapacity(m_powerOfTwo ? HashTableMode.powerOfTwoCapacity(p_initialSize) : p_initialSize);
+    }
+
+    /**
+     * Creates the old generation of a rehashed table. The subclass takes over the slots.
+     *
+     * @param p_table
+     *         the table to take the slots from
+     */
+    OpenAddressingTable(final OpenAddressingTable<T> p_table) {
+        m_powerOfTwo = p_table.m_powerOfTwo;
+        m_robinHood = p_table.m_robinHood;
+        m_incremental = false;
+        m_count = p_table.m_count;
+        setCapacity(p_table.m_elementCapacity);
+    }
+
+    /**
+     * Returns the size.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return m_old == null ? m_count : m_count + m_old.m_count;
+    }
+
+    /**
+     * Returns the capacity.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return m_elementCapacity;
+    }
+
+    /**
+     * Returns whether this table is empty or not.
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the maximum probe length, i.e. the number of slots a lookup of the worst placed key inspects.
+     *
+     * @return the maximum probe length (0 if empty)
+     */
+    public int getMaxProbeLength() {
+        int ret = 0;
+        long key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = keyAt(i);
+            if (key != 0) {
+                ret = Math.max(ret, distance(home(key), i) + 1);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the average probe length of all keys (1 if every key is stored at its home index).
+     *
+     * @return the average probe length (0 if empty)
+     */
+    public double getAverageProbeLength() {
+        long sum = 0;
+        long key;
+
+        for (int i = 0; i < m_elementCapacity; i++) {
+            key = keyAt(i);
+            if (key != 0) {
+                sum += distance(home(key), i) + 1;
+            }
+        }
+
+        return m_count == 0 ? 0 : (double) sum / m_count;
+    }
+
+    /**
+     * Returns the key stored in a slot.
+     *
+     * @param p_slot
+     *         the slot (within the table)
+     * @return the key widened to long (0 if the slot is free)
+     */
+    abstract long keyAt(int p_slot);
+
+    /**
+     * Hashes a key.
+     *
+     * @param p_key
+     *         the key widened to long
+     * @return the hash
+     */
+    abstract int hash(long p_key);
+
+    /**
+     * Copies the entry of a slot to another slot.
+     *
+     * @param p_from
+     *         the slot to copy
+     * @param p_to
+     *         the slot to overwrite
+     */
+    abstract void moveSlot(int p_from, int p_to);
+
+    /**
+     * Marks a slot as free.
+     *
+     * @param p_slot
+     *         the slot
+     */
+    abstract void clearSlot(int p_slot);
+
+    /**
+     * Creates the old generation for rehashing, which takes over the current slots.
+     *
+     * @return the old generation
+     */
+    abstract T detach();
+
+    /**
+     * Allocates free slots for the current capacity.
+     */
+    abstract void allocate();
+
+    /**
+     * Copies an entry of the old generation to a slot.
+     *
+     * @param p_old
+     *         the old generation
+     * @param p_from
+     *         the slot in the old generation
+     * @param p_to
+     *         the slot in this table
+     */
+    abstract void migrateSlot(T p_old, int p_from, int p_to);
+
+    /**
+     * Sets the capacity and derives mask and shift for the power of two mode.
+     *
+     * @param p_capacity
+     *         the new capacity
+     */
+    final void setCapacity(final int p_capacity) {
+        m_elementCapacity = p_capacity;
+
+        if (m_powerOfTwo) {
+            m_mask = p_capacity - 1;
+            m_shift = Integer.numberOfLeadingZeros(m_mask);
+        }
+    }
+
+    /**
+     * Returns the flags of the mode which determine the layout of the slots.
+     *
+     * @return the flags
+     */
+    final int getModeFlags() {
+        return (m_powerOfTwo ? HashTableMode.POWER_OF_TWO : 0) | (m_robinHood ? HashTableMode.ROBIN_HOOD : 0);
+    }
+
+    /**
+     * Returns the home index of a key.
+     *
+     * @param p_key
+     *         the key
+     * @return the index
+     */
+    final int home(final long p_key) {
+        int hash = hash(p_key);
+
+        return m_powerOfTwo ? hash >>> m_shift : (hash & 0x7FFFFFFF) % m_elementCapacity;
+    }
+
+    /**
+     * Maps an index (possibly beyond the end of the table after probing) to the table.
+     *
+     * @param p_index
+     *         the index
+     * @return the index within the table
+     */
+    final int wrap(final int p_index) {
+        return m_powerOfTwo ? p_index & m_mask : p_index % m_elementCapacity;
+    }
+
+    /**
+     * Probes for a key starting at its home index.
+     *
+     * @param p_key
+     *         the key
+     * @param p_start
+     *         the home index of the key
+     * @return the slot of the key or -1 if not found
+     */
+    final int find(final long p_key, final int p_start) {
+        int ret = -1;
+        int index = p_start;
+        long iter;
+
+        iter = keyAt(index);
+        while (iter != 0) {
+            if (iter == p_key) {
+                ret = wrap(index);
+                break;
+            }
+            if (m_robinHood && (index - p_start & 3) == 3 && isCloserToHome(iter, index, index - p_start)) {
+                break;
+            }
+            iter = keyAt(wrap(++index));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the slot of a key or prepares a slot to insert it at. Continues an incremental rehash first.
+     *
+     * @param p_key
+     *         the key
+     * @return the slot of the key or, if the key is not contained, the complement (~) of the prepared slot
+     */
+    final int insertionSlot(final long p_key) {
+        int ret;
+
+        if (m_old != null) {
+            rehashStep(p_key);
+        }
+
+        ret = probe(p_key, home(p_key));
+        if (ret < 0) {
+            makeRoom(~ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Counts an entry stored at a slot returned by insertionSlot() and grows the table if the load factor is reached.
+     */
+    final void added() {
+        if (++m_count >= m_elementCapacity * LOAD_FACTOR) {
+            rehash();
+        }
+    }
+
+    /**
+     * Removes the entry of a slot.
+     * The following entries of the cluster are shifted backwards to close the gap, so no tombstones are needed.
+     *
+     * @param p_slot
+     *         the slot
+     */
+    final void removeSlot(final int p_slot) {
+        int gap = p_slot;
+        int index = p_slot;
+        int home;
+        long key;
+
+        // Move back all following entries of the cluster which may be stored in the gap (their home index does not
+        // lie cyclically between the gap and their position)
+        while (true) {
+            index = wrap(index + 1);
+            key = keyAt(index);
+            if (key == 0) {
+                break;
+            }
+
+            home = home(key);
+            if (gap <= index ? home <= gap || home > index : home <= gap && home > index) {
+                moveSlot(index, gap);
+                gap = index;
+            }
+        }
+
+        clearSlot(gap);
+        m_count--;
+    }
+
+    /**
+     * Returns the next occupied slot.
+     *
+     * @param p_slot
+     *         the current slot (-1 to start)
+     * @return the next occupied slot or the capacity if there is none
+     */
+    final int nextSlot(final int p_slot) {
+        int ret = p_slot + 1;
+
+        while (ret < m_elementCapacity && keyAt(ret) == 0) {
+            ret++;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Moves the entry with the given key (if stored in the old generation) and the next REHASH_STEP slots of the
+     * old generation to the new slots.
+     *
+     * @param p_key
+     *         the key which is accessed next
+     */
+    final void rehashStep(final long p_key) {
+        int slot;
+
+        slot = m_old.find(p_key, m_old.home(p_key));
+        if (slot != -1) {
+            migrateCluster(slot);
+        }
+
+        migrate(REHASH_STEP);
+    }
+
+    /**
+     * Moves all remaining entries of the old generation to the new slots.
+     */
+    final void finishRehash() {
+        migrate(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Probes for the slot to insert a key at, starting at its home index.
+     *
+     * @param p_key
+     *         the key
+     * @param p_start
+     *         the home index of the key
+     * @return the slot of the key or, if the key is not contained, the complement (~) of the first free slot or, in
+     * Robin Hood mode, of the first slot whose entry is closer to its home index
+     */
+    private int probe(final long p_key, final int p_start) {
+        int ret;
+        int index = p_start;
+        long iter;
+
+        iter = keyAt(index);
+        while (iter != 0 && iter != p_key) {
+            if (m_robinHood && isCloserToHome(iter, index, index - p_start)) {
+                break;
+            }
+            iter = keyAt(wrap(++index));
+        }
+
+        if (iter == p_key) {
+            ret = wrap(index);
+        } else {
+            ret = ~wrap(index);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Frees a slot returned by probe(). In Robin Hood mode, the slot may hold an entry closer to its home index: this
+     * entry and the following entries of the cluster are moved one slot further. This keeps the entries of a cluster
+     * ordered by their home index, which is what Robin Hood displacement establishes.
+     *
+     * @param p_slot
+     *         the slot
+     */
+    private void makeRoom(final int p_slot) {
+        int index = p_slot;
+        int previous;
+
+        while (keyAt(index) != 0) {
+            index = wrap(index + 1);
+        }
+
+        while (index != p_slot) {
+            previous = index == 0 ? m_elementCapacity - 1 : index - 1;
+            moveSlot(previous, index);
+            index = previous;
+        }
+    }
+
+    /**
+     * Checks if the entry at the given index is closer to its home index than the searched key. In Robin Hood mode,
+     * the searched key cannot be stored behind such an entry. Lookups only check every fourth slot to save most of
+     * the hashing, stopping a few slots later is still correct. Insertions must check every slot.
+     *
+     * @param p_resident
+     *         the key at the index
+     * @param p_index
+     *         the index
+     * @param p_distance
+     *         the distance of the index from the home index of the searched key
+     * @return true if the search can stop
+     */
+    private boolean isCloserToHome(final long p_resident, final int p_index, final int p_distance) {
+        return distance(home(p_resident), p_index) < p_distance;
+    }
+
+    /**
+     * Returns the distance of an index from a home index (cyclic).
+     *
+     * @param p_home
+     *         the home index
+     * @param p_index
+     *         the index (possibly beyond the end of the table after probing)
+     * @return the distance
+     */
+    private int distance(final int p_home, final int p_index) {
+        int ret = wrap(p_index) - p_home;
+
+        return ret < 0 ? ret + m_elementCapacity : ret;
+    }
+
+    /**
+     * Increases the capacity: the current slots become the old generation and the entries are moved to the new slots.
+     * In mode INCREMENTAL_REHASH, the following modifications move the entries step by step, otherwise all at once.
+     * A previous incremental rehash is finished first.
+     */
+    private void rehash() {
+        if (m_old != null) {
+            finishRehash();
+        }
+
+        LOGGER.trace("Re-hashing (count:  %d)", m_count);
+
+        m_old = detach();
+        m_count = 0;
+        setCapacity(m_powerOfTwo ? m_elementCapacity * 2 : m_elementCapacity * 2 + 1);
+        allocate();
+
+        // Start behind a free slot to never split a cluster
+        m_migrateIndex = 0;
+        while (m_old.keyAt(m_migrateIndex) != 0) {
+            m_migrateIndex++;
+        }
+        m_migrateEnd = m_migrateIndex + m_old.m_elementCapacity;
+
+        if (!m_incremental) {
+            finishRehash();
+        }
+    }
+
+    /**
+     * Moves the clusters starting in the next slots of the old generation to the new slots.
+     *
+     * @param p_slots
+     *         the number of slots to process
+     */
+    private void migrate(final int p_slots) {
+        for (int i = 0; i < p_slots && m_migrateIndex < m_migrateEnd; i++) {
+            if (m_old.keyAt(m_old.wrap(m_migrateIndex)) != 0) {
+                migrateCluster(m_migrateIndex);
+            }
+            m_migrateIndex++;
+        }
+
+        if (m_migrateIndex == m_migrateEnd) {
+            LOGGER.trace("Finished re-hashing (count:  %d)", m_count);
+
+            m_old = null;
+        }
+    }
+
+    /**
+     * Moves the whole cluster containing the given slot of the old generation to the new slots. As the whole cluster
+     * is freed, the probe sequences of all other entries of the old generation stay intact.
+     *
+     * @param p_index
+     *         the index of a slot of the cluster
+     */
+    private void migrateCluster(final int p_index) {
+        int capacity = m_old.m_elementCapacity;
+        int index = m_old.wrap(p_index);
+        int slot;
+        long key;
+
+        // There is at least one free slot (load factor < 1)
+        while (m_old.keyAt(index == 0 ? capacity - 1 : index - 1) != 0) {
+            index = index == 0 ? capacity - 1 : index - 1;
+        }
+
+        key = m_old.keyAt(index);
+        while (key != 0) {
+            // The key is not contained in the new slots
+            slot = ~probe(key, home(key));
+            makeRoom(slot);
+            migrateSlot(m_old, index, slot);
+            m_count++;
+
+            m_old.clearSlot(index);
+            m_old.m_count--;
+            index = m_old.wrap(index + 1);
+            key = m_old.keyAt(index);
+        }
+    }
+}
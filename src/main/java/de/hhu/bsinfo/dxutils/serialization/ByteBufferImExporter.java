@@ -17,7 +17,6 @@
 package de.hhu.bsinfo.dxutils.serialization;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 
 /**
  * Implementation of an Importer/Exporter for ByteBuffers.
@@ -26,6 +25,7 @@ import java.nio.charset.StandardCharsets;
  */
 public class ByteBufferImExporter implements Importer, Exporter {
     private ByteBuffer m_byteBuffer;
+    private StringDictionary m_stringDictionary;
 
     /**
      * Constructor
@@ -37,6 +37,16 @@ public class ByteBufferImExporter implements Importer, Exporter {
         m_byteBuffer = p_buffer;
     }
 
+    /**
+     * Intern the imported strings
+     *
+     * @param p_dictionary
+     *         Dictionary to intern the strings with, null to disable interning
+     */
+    public void setStringDictionary(final StringDictionary p_dictionary) {
+        m_stringDictionary = p_dictionary;
+    }
+
     @Override
     public void exportObject(final Exportable p_object) {
         p_object.exportObject(this);
@@ -90,7 +100,7 @@ public class ByteBufferImExporter implements Importer, Exporter {
 
     @Override
     public void writeString(final String p_str) {
-        writeByteArray(p_str.getBytes(StandardCharsets.US_ASCII));
+        StringCodec.writeString(this, p_str);
     }
 
     @Override
@@ -166,7 +176,7 @@ public class ByteBufferImExporter implements Importer, Exporter {
 
     @Override
     public String readString(final String p_string) {
-        return new String(readByteArray(null));
+        return StringCodec.readString(this, m_stringDictionary);
     }
 
     @Override
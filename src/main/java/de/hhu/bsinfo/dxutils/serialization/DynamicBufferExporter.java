@@ -0,0 +1,401 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Exporter writing into a chain of direct segments which grows on demand, so objects can be exported without
+ * determining their size first. The segments are taken from and given back to a pool of the current thread. The
+ * result is exposed as ByteBuffer[] for a GatheringByteChannel. Typical usage: exportObject(), getBuffers() or
+ * writeTo(), release(). The byte order (big endian) is the same as of a ByteBufferImExporter with a default buffer.
+ */
+public class DynamicBufferExporter implements Exporter {
+    private static final int SEGMENT_SIZE = 32 * 1024;
+    private static final int MAX_POOLED_SEGMENTS = 64;
+
+    private static final ThreadLocal<ArrayDeque<ByteBuffer>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final ArrayList<ByteBuffer> m_segments;
+    private ByteBuffer[] m_buffers;
+    private ByteBuffer m_current;
+    private boolean m_finished;
+
+    /**
+     * Constructor
+     */
+    public DynamicBufferExporter() {
+        m_segments = new ArrayList<>();
+        m_buffers = new ByteBuffer[0];
+    }
+
+    /**
+     * Get the number of bytes written
+     *
+     * @return Number of bytes
+     */
+    public long getSize() {
+        long ret = 0;
+
+        for (ByteBuffer segment : m_segments) {
+            ret += m_finished ? segment.limit() : segment.position();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Finish writing and get the segments. Each segment is flipped (position 0, limit at the end of its data). No
+     * further data can be written until release() is called.
+     *
+     * @return Segments with the data written, valid until release() is called (the array is reused)
+     */
+    public ByteBuffer[] getBuffers() {
+        if (!m_finished) {
+            for (ByteBuffer segment : m_segments) {
+                segment.flip();
+            }
+
+            m_finished = true;
+        }
+
+        if (m_buffers.length != m_segments.size()) {
+            m_buffers = new ByteBuffer[m_segments.size()];
+        }
+
+        return m_segments.toArray(m_buffers);
+    }
+
+    /**
+     * Finish writing and write all data to a channel
+     *
+     * @param p_channel
+     *         Channel to write to
+     * @return Number of bytes written
+     * @throws IOException
+     *         If writing to the channel failed
+     */
+    public long writeTo(final GatheringByteChannel p_channel) throws IOException {
+        ByteBuffer[] buffers = getBuffers();
+        long size = getSize();
+        long ret = 0;
+
+        while (ret < size) {
+            ret += p_channel.write(buffers);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Give the segments back to the pool of the current thread. The exporter can be used for the next object
+     * afterwards.
+     */
+    public void release() {
+        ArrayDeque<ByteBuffer> pool = POOL.get();
+
+        for (ByteBuffer segment : m_segments) {
+            if (pool.size() < MAX_POOLED_SEGMENTS) {
+                pool.addLast(segment);
+            }
+        }
+
+        m_segments.clear();
+        m_current = null;
+        m_finished = false;
+    }
+
+    @Override
+    public void exportObject(final Exportable p_object) {
+        p_object.exportObject(this);
+    }
+
+    @Override
+    public void writeBoolean(final boolean p_v) {
+        segment(Byte.BYTES).put((byte) (p_v ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(final byte p_v) {
+        segment(Byte.BYTES).put(p_v);
+    }
+
+    @Override
+    public void writeShort(final short p_v) {
+        segment(Short.BYTES).putShort(p_v);
+    }
+
+    @Override
+    public void writeChar(final char p_v) {
+        segment(Character.BYTES).putChar(p_v);
+    }
+
+    @Override
+    public void writeInt(final int p_v) {
+        segment(Integer.BYTES).putInt(p_v);
+    }
+
+    @Override
+    public void writeLong(final long p_v) {
+        segment(Long.BYTES).putLong(p_v);
+    }
+
+    @Override
+    public void writeFloat(final float p_v) {
+        segment(Float.BYTES).putFloat(p_v);
+    }
+
+    @Override
+    public void writeDouble(final double p_v) {
+        segment(Double.BYTES).putDouble(p_v);
+    }
+
+    @Override
+    public void writeCompactNumber(final int p_v) {
+        byte[] number = CompactNumber.compact(p_v);
+        writeBytes(number);
+    }
+
+    @Override
+    public void writeString(final String p_str) {
+        StringCodec.writeString(this, p_str);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array) {
+        return writeBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array) {
+        return writeShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeChars(final char[] p_array) {
+        return writeChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeInts(final int[] p_array) {
+        return writeInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array) {
+        return writeLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array) {
+        return writeFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array) {
+        return writeDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        ByteBuffer segment;
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            segment = segment(Byte.BYTES);
+            chunk = Math.min(segment.remaining(), p_length - done);
+            segment.put(p_array, p_offset + done, chunk);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array, final int p_offset, final int p_length) {
+        ByteBuffer segment;
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            segment = segment(Short.BYTES);
+            chunk = Math.min(segment.remaining() / Short.BYTES, p_length - done);
+            segment.asShortBuffer().put(p_array, p_offset + done, chunk);
+            segment.position(segment.position() + chunk * Short.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeChars(final char[] p_array, final int p_offset, final int p_length) {
+        ByteBuffer segment;
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            segment = segment(Character.BYTES);
+            chunk = Math.min(segment.remaining() / Character.BYTES, p_length - done);
+            segment.asCharBuffer().put(p_array, p_offset + done, chunk);
+            segment.position(segment.position() + chunk * Character.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeInts(final int[] p_array, final int p_offset, final int p_length) {
+        ByteBuffer segment;
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            segment = segment(Integer.BYTES);
+            chunk = Math.min(segment.remaining() / Integer.BYTES, p_length - done);
+            segment.asIntBuffer().put(p_array, p_offset + done, chunk);
+            segment.position(segment.position() + chunk * Integer.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array, final int p_offset, final int p_length) {
+        ByteBuffer segment;
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            segment = segment(Long.BYTES);
+            chunk = Math.min(segment.remaining() / Long.BYTES, p_length - done);
+            segment.asLongBuffer().put(p_array, p_offset + done, chunk);
+            segment.position(segment.position() + chunk * Long.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array, final int p_offset, final int p_length) {
+        ByteBuffer segment;
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            segment = segment(Float.BYTES);
+            chunk = Math.min(segment.remaining() / Float.BYTES, p_length - done);
+            segment.asFloatBuffer().put(p_array, p_offset + done, chunk);
+            segment.position(segment.position() + chunk * Float.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        ByteBuffer segment;
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            segment = segment(Double.BYTES);
+            chunk = Math.min(segment.remaining() / Double.BYTES, p_length - done);
+            segment.asDoubleBuffer().put(p_array, p_offset + done, chunk);
+            segment.position(segment.position() + chunk * Double.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public void writeByteArray(final byte[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeBytes(p_array);
+    }
+
+    @Override
+    public void writeShortArray(final short[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeShorts(p_array);
+    }
+
+    @Override
+    public void writeCharArray(final char[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeChars(p_array);
+    }
+
+    @Override
+    public void writeIntArray(final int[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeInts(p_array);
+    }
+
+    @Override
+    public void writeLongArray(final long[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeLongs(p_array);
+    }
+
+    @Override
+    public void writeFloatArray(final float[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeFloats(p_array);
+    }
+
+    @Override
+    public void writeDoubleArray(final double[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeDoubles(p_array);
+    }
+
+    /**
+     * Get a segment with room for the given number of bytes. A primitive never spans two segments, the end of the
+     * previous segment stays unused.
+     *
+     * @param p_bytes
+     *         Number of bytes to write next
+     * @return Segment to write to
+     */
+    private ByteBuffer segment(final int p_bytes) {
+        assert !m_finished : "Exporter finished, call release() first";
+
+        if (m_current == null || m_current.remaining() < p_bytes) {
+            m_current = POOL.get().pollLast();
+            if (m_current == null) {
+                m_current = ByteBuffer.allocateDirect(SEGMENT_SIZE);
+            } else {
+                m_current.clear();
+            }
+
+            m_segments.add(m_current);
+        }
+
+        return m_current;
+    }
+}
@@ -0,0 +1,741 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Importer/Exporter for a file using a FileChannel. All data is serialized into a direct buffer which is written in
+ * large blocks and refilled in bulk when reading, instead of one system call per primitive like the
+ * RandomAccessFileImExporter. The byte order (big endian) is the same as of the RandomAccessFileImExporter.
+ * Reading and writing can be mixed, both continue at the current position of the file. Call close() (or flush())
+ * after exporting.
+ */
+public class FileChannelImExporter implements Importer, Exporter {
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel m_channel;
+    private final ByteBuffer m_buffer;
+    private boolean m_reading;
+
+    /**
+     * Constructor
+     *
+     * @param p_fileName
+     *         Name of the file to open (created if it does not exist)
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    public FileChannelImExporter(final String p_fileName) throws IOException {
+        this(new File(p_fileName), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_file
+     *         File to open (created if it does not exist)
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    public FileChannelImExporter(final File p_file) throws IOException {
+        this(p_file, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_file
+     *         File to open (created if it does not exist)
+     * @param p_bufferSize
+     *         Size of the buffer in bytes (at least 8)
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    public FileChannelImExporter(final File p_file, final int p_bufferSize) throws IOException {
+        assert p_bufferSize >= Long.BYTES;
+
+        m_channel = FileChannel.open(p_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        m_buffer = ByteBuffer.allocateDirect(p_bufferSize);
+        m_reading = false;
+    }
+
+    /**
+     * Write all buffered data to the file
+     */
+    public void flush() {
+        if (!m_reading) {
+            try {
+                writeBuffer();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Close the backend flushing all buffers
+     */
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                m_channel.close();
+            } catch (final IOException ignored) {
+
+            }
+        }
+    }
+
+    @Override
+    public void exportObject(final Exportable p_object) {
+        p_object.exportObject(this);
+    }
+
+    @Override
+    public void writeBoolean(final boolean p_v) {
+        prepareWrite(Byte.BYTES);
+        m_buffer.put((byte) (p_v ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(final byte p_v) {
+        prepareWrite(Byte.BYTES);
+        m_buffer.put(p_v);
+    }
+
+    @Override
+    public void writeShort(final short p_v) {
+        prepareWrite(Short.BYTES);
+        m_buffer.putShort(p_v);
+    }
+
+    @Override
+    public void writeChar(final char p_v) {
+        prepareWrite(Character.BYTES);
+        m_buffer.putChar(p_v);
+    }
+
+    @Override
+    public void writeInt(final int p_v) {
+        prepareWrite(Integer.BYTES);
+        m_buffer.putInt(p_v);
+    }
+
+    @Override
+    public void writeLong(final long p_v) {
+        prepareWrite(Long.BYTES);
+        m_buffer.putLong(p_v);
+    }
+
+    @Override
+    public void writeFloat(final float p_v) {
+        prepareWrite(Float.BYTES);
+        m_buffer.putFloat(p_v);
+    }
+
+    @Override
+    public void writeDouble(final double p_v) {
+        prepareWrite(Double.BYTES);
+        m_buffer.putDouble(p_v);
+    }
+
+    @Override
+    public void writeCompactNumber(final int p_v) {
+        byte[] number = CompactNumber.compact(p_v);
+        writeBytes(number);
+    }
+
+    @Override
+    public void writeString(final String p_str) {
+        StringCodec.writeString(this, p_str);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array) {
+        return writeBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array) {
+        return writeShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeChars(final char[] p_array) {
+        return writeChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeInts(final int[] p_array) {
+        return writeInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array) {
+        return writeLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array) {
+        return writeFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array) {
+        return writeDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        prepareWrite(0);
+
+        try {
+            if (p_length > m_buffer.remaining()) {
+                // Large arrays are written directly after the buffered data
+                writeBuffer();
+                if (p_length > m_buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(p_array, p_offset, p_length));
+                    return p_length;
+                }
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        m_buffer.put(p_array, p_offset, p_length);
+
+        return p_length;
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareWrite(Short.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Short.BYTES, p_length - done);
+            m_buffer.asShortBuffer().put(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Short.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeChars(final char[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareWrite(Character.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Character.BYTES, p_length - done);
+            m_buffer.asCharBuffer().put(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Character.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeInts(final int[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareWrite(Integer.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Integer.BYTES, p_length - done);
+            m_buffer.asIntBuffer().put(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Integer.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareWrite(Long.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Long.BYTES, p_length - done);
+            m_buffer.asLongBuffer().put(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Long.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareWrite(Float.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Float.BYTES, p_length - done);
+            m_buffer.asFloatBuffer().put(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Float.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareWrite(Double.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Double.BYTES, p_length - done);
+            m_buffer.asDoubleBuffer().put(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Double.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public void writeByteArray(final byte[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeBytes(p_array);
+    }
+
+    @Override
+    public void writeShortArray(final short[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeShorts(p_array);
+    }
+
+    @Override
+    public void writeCharArray(final char[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeChars(p_array);
+    }
+
+    @Override
+    public void writeIntArray(final int[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeInts(p_array);
+    }
+
+    @Override
+    public void writeLongArray(final long[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeLongs(p_array);
+    }
+
+    @Override
+    public void writeFloatArray(final float[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeFloats(p_array);
+    }
+
+    @Override
+    public void writeDoubleArray(final double[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeDoubles(p_array);
+    }
+
+    @Override
+    public void importObject(final Importable p_object) {
+        p_object.importObject(this);
+    }
+
+    @Override
+    public boolean readBoolean(final boolean p_bool) {
+        prepareRead(Byte.BYTES);
+        return m_buffer.get() != 0;
+    }
+
+    @Override
+    public byte readByte(final byte p_byte) {
+        prepareRead(Byte.BYTES);
+        return m_buffer.get();
+    }
+
+    @Override
+    public short readShort(final short p_short) {
+        prepareRead(Short.BYTES);
+        return m_buffer.getShort();
+    }
+
+    @Override
+    public char readChar(final char p_char) {
+        prepareRead(Character.BYTES);
+        return m_buffer.getChar();
+    }
+
+    @Override
+    public int readInt(final int p_int) {
+        prepareRead(Integer.BYTES);
+        return m_buffer.getInt();
+    }
+
+    @Override
+    public long readLong(final long p_long) {
+        prepareRead(Long.BYTES);
+        return m_buffer.getLong();
+    }
+
+    @Override
+    public float readFloat(final float p_float) {
+        prepareRead(Float.BYTES);
+        return m_buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble(final double p_double) {
+        prepareRead(Double.BYTES);
+        return m_buffer.getDouble();
+    }
+
+    @Override
+    public int readCompactNumber(final int p_int) {
+        byte[] tmp = new byte[4];
+        int i;
+
+        for (i = 0; i < Integer.BYTES; i++) {
+            tmp[i] = readByte((byte) 0);
+            if ((tmp[i] & 0x80) == 0) {
+                break;
+            }
+        }
+
+        return CompactNumber.decompact(tmp, 0, i);
+    }
+
+    @Override
+    public String readString(final String p_string) {
+        return StringCodec.readString(this, null);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array) {
+        return readBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readShorts(final short[] p_array) {
+        return readShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readChars(final char[] p_array) {
+        return readChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readInts(final int[] p_array) {
+        return readInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readLongs(final long[] p_array) {
+        return readLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readFloats(final float[] p_array) {
+        return readFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array) {
+        return readDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        int chunk;
+
+        prepareRead(0);
+
+        chunk = Math.min(m_buffer.remaining(), p_length);
+        m_buffer.get(p_array, p_offset, chunk);
+
+        if (chunk < p_length) {
+            if (p_length - chunk > m_buffer.capacity()) {
+                // Large arrays are read directly
+                readFully(ByteBuffer.wrap(p_array, p_offset + chunk, p_length - chunk));
+            } else {
+                prepareRead(p_length - chunk);
+                m_buffer.get(p_array, p_offset + chunk, p_length - chunk);
+            }
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readShorts(final short[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareRead(Short.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Short.BYTES, p_length - done);
+            m_buffer.asShortBuffer().get(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Short.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readChars(final char[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareRead(Character.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Character.BYTES, p_length - done);
+            m_buffer.asCharBuffer().get(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Character.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readInts(final int[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareRead(Integer.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Integer.BYTES, p_length - done);
+            m_buffer.asIntBuffer().get(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Integer.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readLongs(final long[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareRead(Long.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Long.BYTES, p_length - done);
+            m_buffer.asLongBuffer().get(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Long.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readFloats(final float[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareRead(Float.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Float.BYTES, p_length - done);
+            m_buffer.asFloatBuffer().get(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Float.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            prepareRead(Double.BYTES);
+            chunk = Math.min(m_buffer.remaining() / Double.BYTES, p_length - done);
+            m_buffer.asDoubleBuffer().get(p_array, p_offset + done, chunk);
+            m_buffer.position(m_buffer.position() + chunk * Double.BYTES);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public byte[] readByteArray(final byte[] p_array) {
+        byte[] arr = new byte[readCompactNumber(0)];
+        readBytes(arr);
+        return arr;
+    }
+
+    @Override
+    public short[] readShortArray(final short[] p_array) {
+        short[] arr = new short[readCompactNumber(0)];
+        readShorts(arr);
+        return arr;
+    }
+
+    @Override
+    public char[] readCharArray(final char[] p_array) {
+        char[] arr = new char[readCompactNumber(0)];
+        readChars(arr);
+        return arr;
+    }
+
+    @Override
+    public int[] readIntArray(final int[] p_array) {
+        int[] arr = new int[readCompactNumber(0)];
+        readInts(arr);
+        return arr;
+    }
+
+    @Override
+    public long[] readLongArray(final long[] p_array) {
+        long[] arr = new long[readCompactNumber(0)];
+        readLongs(arr);
+        return arr;
+    }
+
+    @Override
+    public float[] readFloatArray(final float[] p_array) {
+        float[] arr = new float[readCompactNumber(0)];
+        readFloats(arr);
+        return arr;
+    }
+
+    @Override
+    public double[] readDoubleArray(final double[] p_array) {
+        double[] arr = new double[readCompactNumber(0)];
+        readDoubles(arr);
+        return arr;
+    }
+
+    /**
+     * Makes room for the given number of bytes in the buffer. Switching from reading to writing drops the data read
+     * ahead and moves the file position back to the first byte not read yet.
+     *
+     * @param p_bytes
+     *         Number of bytes to write next (at most the buffer size)
+     */
+    private void prepareWrite(final int p_bytes) {
+        try {
+            if (m_reading) {
+                m_channel.position(m_channel.position() - m_buffer.remaining());
+                m_buffer.clear();
+                m_reading = false;
+            }
+
+            if (m_buffer.remaining() < p_bytes) {
+                writeBuffer();
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Makes sure the given number of bytes can be read from the buffer. The buffer is refilled as far as possible.
+     * Switching from writing to reading writes the buffered data first.
+     *
+     * @param p_bytes
+     *         Number of bytes to read next (at most the buffer size)
+     */
+    private void prepareRead(final int p_bytes) {
+        try {
+            if (!m_reading) {
+                writeBuffer();
+                m_buffer.limit(0);
+                m_reading = true;
+            }
+
+            if (m_buffer.remaining() < p_bytes) {
+                m_buffer.compact();
+                while (m_buffer.position() < p_bytes) {
+                    if (m_channel.read(m_buffer) < 0) {
+                        m_buffer.flip();
+                        throw new EOFException();
+                    }
+                }
+                m_buffer.flip();
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the buffered data to the file (write mode only)
+     *
+     * @throws IOException
+     *         If writing failed
+     */
+    private void writeBuffer() throws IOException {
+        m_buffer.flip();
+        writeFully(m_buffer);
+        m_buffer.clear();
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to the file
+     *
+     * @param p_buffer
+     *         Buffer to write
+     * @throws IOException
+     *         If writing failed
+     */
+    private void writeFully(final ByteBuffer p_buffer) throws IOException {
+        while (p_buffer.hasRemaining()) {
+            m_channel.write(p_buffer);
+        }
+    }
+
+    /**
+     * Reads from the file until the buffer is full (read mode only, the read buffer must be empty)
+     *
+     * @param p_buffer
+     *         Buffer to read into
+     */
+    private void readFully(final ByteBuffer p_buffer) {
+        try {
+            while (p_buffer.hasRemaining()) {
+                if (m_channel.read(p_buffer) < 0) {
+                    throw new EOFException();
+                }
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,774 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import de.hhu.bsinfo.dxutils.ByteBufferHelper;
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+
+/**
+ * Importer/Exporter for a memory mapped file. The file is mapped in windows which are remapped when an access
+ * crosses the end of the current window. Primitives and arrays are copied directly from/to the mapping, the OS page
+ * cache takes care of prefetching and writing back. The file format (big endian) is the same as of the
+ * RandomAccessFileImExporter and the FileChannelImExporter. Writing beyond the end grows the file, it is truncated to
+ * the data written on close().
+ */
+public class MappedFileImExporter implements Importer, Exporter {
+    private static final long DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final boolean SWAP = ByteOrder.nativeOrder() != ByteOrder.BIG_ENDIAN;
+
+    private final FileChannel m_channel;
+    private final long m_windowSize;
+
+    // Keeps the mapping alive while its address is used
+    private MappedByteBuffer m_window;
+    private long m_windowStart;
+    private long m_windowEnd;
+    private long m_address;
+
+    private long m_position;
+    private long m_size;
+
+    /**
+     * Constructor
+     *
+     * @param p_fileName
+     *         Name of the file to open (created if it does not exist)
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    public MappedFileImExporter(final String p_fileName) throws IOException {
+        this(new File(p_fileName), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_file
+     *         File to open (created if it does not exist)
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    public MappedFileImExporter(final File p_file) throws IOException {
+        this(p_file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_file
+     *         File to open (created if it does not exist)
+     * @param p_windowSize
+     *         Size of the mapped windows in bytes (at least 8, at most Integer.MAX_VALUE)
+     * @throws IOException
+     *         If the file cannot be opened
+     */
+    public MappedFileImExporter(final File p_file, final long p_windowSize) throws IOException {
+        assert p_windowSize >= Long.BYTES && p_windowSize <= Integer.MAX_VALUE;
+
+        m_channel = FileChannel.open(p_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        m_windowSize = p_windowSize;
+        m_size = m_channel.size();
+    }
+
+    /**
+     * Get the current position in the file
+     *
+     * @return Position in bytes
+     */
+    public long getPosition() {
+        return m_position;
+    }
+
+    /**
+     * Close the backend. The file is truncated to the data written, the mapped windows are released by the garbage
+     * collector.
+     */
+    public void close() {
+        m_window = null;
+
+        try {
+            if (m_channel.size() > m_size) {
+                m_channel.truncate(m_size);
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            try {
+                m_channel.close();
+            } catch (final IOException ignored) {
+
+            }
+        }
+    }
+
+    @Override
+    public void exportObject(final Exportable p_object) {
+        p_object.exportObject(this);
+    }
+
+    @Override
+    public void writeBoolean(final boolean p_v) {
+        UnsafeMemory.writeByte(reserve(Byte.BYTES, true), (byte) (p_v ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(final byte p_v) {
+        UnsafeMemory.writeByte(reserve(Byte.BYTES, true), p_v);
+    }
+
+    @Override
+    public void writeShort(final short p_v) {
+        UnsafeMemory.writeShort(reserve(Short.BYTES, true), SWAP ? Short.reverseBytes(p_v) : p_v);
+    }
+
+    @Override
+    public void writeChar(final char p_v) {
+        UnsafeMemory.writeChar(reserve(Character.BYTES, true), SWAP ? Character.reverseBytes(p_v) : p_v);
+    }
+
+    @Override
+    public void writeInt(final int p_v) {
+        UnsafeMemory.writeInt(reserve(Integer.BYTES, true), SWAP ? Integer.reverseBytes(p_v) : p_v);
+    }
+
+    @Override
+    public void writeLong(final long p_v) {
+        UnsafeMemory.writeLong(reserve(Long.BYTES, true), SWAP ? Long.reverseBytes(p_v) : p_v);
+    }
+
+    @Override
+    public void writeFloat(final float p_v) {
+        writeInt(Float.floatToRawIntBits(p_v));
+    }
+
+    @Override
+    public void writeDouble(final double p_v) {
+        writeLong(Double.doubleToRawLongBits(p_v));
+    }
+
+    @Override
+    public void writeCompactNumber(final int p_v) {
+        byte[] number = CompactNumber.compact(p_v);
+        writeBytes(number);
+    }
+
+    @Override
+    public void writeString(final String p_str) {
+        StringCodec.writeString(this, p_str);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array) {
+        return writeBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array) {
+        return writeShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeChars(final char[] p_array) {
+        return writeChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeInts(final int[] p_array) {
+        return writeInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array) {
+        return writeLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array) {
+        return writeFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array) {
+        return writeDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            chunk = available(Byte.BYTES, p_length - done, true);
+            UnsafeMemory.writeBytes(address(), p_array, p_offset + done, chunk);
+            advance(chunk, true);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+        long address;
+
+        while (done < p_length) {
+            chunk = available(Short.BYTES, p_length - done, true);
+            address = address();
+
+            if (SWAP) {
+                for (int i = 0; i < chunk; i++) {
+                    UnsafeMemory.writeShort(address + i * Short.BYTES,
+                            Short.reverseBytes(p_array[p_offset + done + i]));
+                }
+            } else {
+                UnsafeMemory.writeShorts(address, p_array, p_offset + done, chunk);
+            }
+
+            advance((long) chunk * Short.BYTES, true);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeChars(final char[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+        long address;
+
+        while (done < p_length) {
+            chunk = available(Character.BYTES, p_length - done, true);
+            address = address();
+
+            if (SWAP) {
+                for (int i = 0; i < chunk; i++) {
+                    UnsafeMemory.writeChar(address + i * Character.BYTES,
+                            Character.reverseBytes(p_array[p_offset + done + i]));
+                }
+            } else {
+                UnsafeMemory.writeChars(address, p_array, p_offset + done, chunk);
+            }
+
+            advance((long) chunk * Character.BYTES, true);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeInts(final int[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+        long address;
+
+        while (done < p_length) {
+            chunk = available(Integer.BYTES, p_length - done, true);
+            address = address();
+
+            if (SWAP) {
+                for (int i = 0; i < chunk; i++) {
+                    UnsafeMemory.writeInt(address + i * Integer.BYTES,
+                            Integer.reverseBytes(p_array[p_offset + done + i]));
+                }
+            } else {
+                UnsafeMemory.writeInts(address, p_array, p_offset + done, chunk);
+            }
+
+            advance((long) chunk * Integer.BYTES, true);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+        long address;
+
+        while (done < p_length) {
+            chunk = available(Long.BYTES, p_length - done, true);
+            address = address();
+
+            if (SWAP) {
+                for (int i = 0; i < chunk; i++) {
+                    UnsafeMemory.writeLong(address + i * Long.BYTES,
+                            Long.reverseBytes(p_array[p_offset + done + i]));
+                }
+            } else {
+                UnsafeMemory.writeLongs(address, p_array, p_offset + done, chunk);
+            }
+
+            advance((long) chunk * Long.BYTES, true);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array, final int p_offset, final int p_length) {
+        for (int i = 0; i < p_length; i++) {
+            writeFloat(p_array[p_offset + i]);
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        for (int i = 0; i < p_length; i++) {
+            writeDouble(p_array[p_offset + i]);
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public void writeByteArray(final byte[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeBytes(p_array);
+    }
+
+    @Override
+    public void writeShortArray(final short[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeShorts(p_array);
+    }
+
+    @Override
+    public void writeCharArray(final char[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeChars(p_array);
+    }
+
+    @Override
+    public void writeIntArray(final int[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeInts(p_array);
+    }
+
+    @Override
+    public void writeLongArray(final long[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeLongs(p_array);
+    }
+
+    @Override
+    public void writeFloatArray(final float[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeFloats(p_array);
+    }
+
+    @Override
+    public void writeDoubleArray(final double[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeDoubles(p_array);
+    }
+
+    @Override
+    public void importObject(final Importable p_object) {
+        p_object.importObject(this);
+    }
+
+    @Override
+    public boolean readBoolean(final boolean p_bool) {
+        return UnsafeMemory.readByte(reserve(Byte.BYTES, false)) != 0;
+    }
+
+    @Override
+    public byte readByte(final byte p_byte) {
+        return UnsafeMemory.readByte(reserve(Byte.BYTES, false));
+    }
+
+    @Override
+    public short readShort(final short p_short) {
+        short v = UnsafeMemory.readShort(reserve(Short.BYTES, false));
+        return SWAP ? Short.reverseBytes(v) : v;
+    }
+
+    @Override
+    public char readChar(final char p_char) {
+        char v = UnsafeMemory.readChar(reserve(Character.BYTES, false));
+        return SWAP ? Character.reverseBytes(v) : v;
+    }
+
+    @Override
+    public int readInt(final int p_int) {
+        int v = UnsafeMemory.readInt(reserve(Integer.BYTES, false));
+        return SWAP ? Integer.reverseBytes(v) : v;
+    }
+
+    @Override
+    public long readLong(final long p_long) {
+        long v = UnsafeMemory.readLong(reserve(Long.BYTES, false));
+        return SWAP ? Long.reverseBytes(v) : v;
+    }
+
+    @Override
+    public float readFloat(final float p_float) {
+        return Float.intBitsToFloat(readInt(0));
+    }
+
+    @Override
+    public double readDouble(final double p_double) {
+        return Double.longBitsToDouble(readLong(0));
+    }
+
+    @Override
+    public int readCompactNumber(final int p_int) {
+        byte[] tmp = new byte[4];
+        int i;
+
+        for (i = 0; i < Integer.BYTES; i++) {
+            tmp[i] = readByte((byte) 0);
+            if ((tmp[i] & 0x80) == 0) {
+                break;
+            }
+        }
+
+        return CompactNumber.decompact(tmp, 0, i);
+    }
+
+    @Override
+    public String readString(final String p_string) {
+        return StringCodec.readString(this, null);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array) {
+        return readBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readShorts(final short[] p_array) {
+        return readShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readChars(final char[] p_array) {
+        return readChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readInts(final int[] p_array) {
+        return readInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readLongs(final long[] p_array) {
+        return readLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readFloats(final float[] p_array) {
+        return readFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array) {
+        return readDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            chunk = available(Byte.BYTES, p_length - done, false);
+            UnsafeMemory.readBytes(address(), p_array, p_offset + done, chunk);
+            advance(chunk, false);
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readShorts(final short[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            chunk = available(Short.BYTES, p_length - done, false);
+            UnsafeMemory.readShorts(address(), p_array, p_offset + done, chunk);
+            advance((long) chunk * Short.BYTES, false);
+
+            if (SWAP) {
+                for (int i = p_offset + done; i < p_offset + done + chunk; i++) {
+                    p_array[i] = Short.reverseBytes(p_array[i]);
+                }
+            }
+
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readChars(final char[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            chunk = available(Character.BYTES, p_length - done, false);
+            UnsafeMemory.readChars(address(), p_array, p_offset + done, chunk);
+            advance((long) chunk * Character.BYTES, false);
+
+            if (SWAP) {
+                for (int i = p_offset + done; i < p_offset + done + chunk; i++) {
+                    p_array[i] = Character.reverseBytes(p_array[i]);
+                }
+            }
+
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readInts(final int[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            chunk = available(Integer.BYTES, p_length - done, false);
+            UnsafeMemory.readInts(address(), p_array, p_offset + done, chunk);
+            advance((long) chunk * Integer.BYTES, false);
+
+            if (SWAP) {
+                for (int i = p_offset + done; i < p_offset + done + chunk; i++) {
+                    p_array[i] = Integer.reverseBytes(p_array[i]);
+                }
+            }
+
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readLongs(final long[] p_array, final int p_offset, final int p_length) {
+        int done = 0;
+        int chunk;
+
+        while (done < p_length) {
+            chunk = available(Long.BYTES, p_length - done, false);
+            UnsafeMemory.readLongs(address(), p_array, p_offset + done, chunk);
+            advance((long) chunk * Long.BYTES, false);
+
+            if (SWAP) {
+                for (int i = p_offset + done; i < p_offset + done + chunk; i++) {
+                    p_array[i] = Long.reverseBytes(p_array[i]);
+                }
+            }
+
+            done += chunk;
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readFloats(final float[] p_array, final int p_offset, final int p_length) {
+        // Swapping the bytes in a float array could alter NaN payloads, the elements are converted one by one
+        for (int i = 0; i < p_length; i++) {
+            p_array[p_offset + i] = readFloat(p_array[p_offset + i]);
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        // Swapping the bytes in a double array could alter NaN payloads, the elements are converted one by one
+        for (int i = 0; i < p_length; i++) {
+            p_array[p_offset + i] = readDouble(p_array[p_offset + i]);
+        }
+
+        return p_length;
+    }
+
+    @Override
+    public byte[] readByteArray(final byte[] p_array) {
+        byte[] arr = new byte[readCompactNumber(0)];
+        readBytes(arr);
+        return arr;
+    }
+
+    @Override
+    public short[] readShortArray(final short[] p_array) {
+        short[] arr = new short[readCompactNumber(0)];
+        readShorts(arr);
+        return arr;
+    }
+
+    @Override
+    public char[] readCharArray(final char[] p_array) {
+        char[] arr = new char[readCompactNumber(0)];
+        readChars(arr);
+        return arr;
+    }
+
+    @Override
+    public int[] readIntArray(final int[] p_array) {
+        int[] arr = new int[readCompactNumber(0)];
+        readInts(arr);
+        return arr;
+    }
+
+    @Override
+    public long[] readLongArray(final long[] p_array) {
+        long[] arr = new long[readCompactNumber(0)];
+        readLongs(arr);
+        return arr;
+    }
+
+    @Override
+    public float[] readFloatArray(final float[] p_array) {
+        float[] arr = new float[readCompactNumber(0)];
+        readFloats(arr);
+        return arr;
+    }
+
+    @Override
+    public double[] readDoubleArray(final double[] p_array) {
+        double[] arr = new double[readCompactNumber(0)];
+        readDoubles(arr);
+        return arr;
+    }
+
+    /**
+     * Reserves the next bytes in the file, remapping the window if they are not mapped
+     *
+     * @param p_bytes
+     *         Number of bytes to access
+     * @param p_write
+     *         True to write, false to read (fails at the end of the file)
+     * @return Address of the first byte
+     */
+    private long reserve(final int p_bytes, final boolean p_write) {
+        long ret;
+
+        if (!p_write && m_position + p_bytes > m_size) {
+            throw new RuntimeException(new EOFException());
+        }
+
+        if (m_position + p_bytes > m_windowEnd) {
+            map(p_bytes, p_write);
+        }
+
+        ret = address();
+        advance(p_bytes, p_write);
+
+        return ret;
+    }
+
+    /**
+     * Returns the number of elements of an array which can be accessed in the current window, remapping the
+     * window if not even one element is mapped
+     *
+     * @param p_elementSize
+     *         Size of one element in bytes
+     * @param p_elements
+     *         Number of remaining elements of the array
+     * @param p_write
+     *         True to write, false to read (fails at the end of the file)
+     * @return Number of elements (at least one)
+     */
+    private int available(final int p_elementSize, final int p_elements, final boolean p_write) {
+        long bytes;
+
+        if (!p_write && m_position + p_elementSize > m_size) {
+            throw new RuntimeException(new EOFException());
+        }
+
+        if (m_position + p_elementSize > m_windowEnd) {
+            map(p_elementSize, p_write);
+        }
+
+        bytes = (p_write ? m_windowEnd : Math.min(m_windowEnd, m_size)) - m_position;
+
+        return (int) Math.min(p_elements, bytes / p_elementSize);
+    }
+
+    /**
+     * Returns the address of the current position (must be mapped)
+     *
+     * @return the address
+     */
+    private long address() {
+        return m_address + m_position - m_windowStart;
+    }
+
+    /**
+     * Moves the position forward
+     *
+     * @param p_bytes
+     *         Number of bytes accessed
+     * @param p_write
+     *         True if the bytes were written
+     */
+    private void advance(final long p_bytes, final boolean p_write) {
+        m_position += p_bytes;
+
+        if (p_write && m_position > m_size) {
+            m_size = m_position;
+        }
+    }
+
+    /**
+     * Maps a new window starting at the current position. Reads do not map beyond the end of the file, writes map a
+     * whole window and grow the file.
+     *
+     * @param p_bytes
+     *         Number of bytes which have to be mapped at least
+     * @param p_write
+     *         True to write, false to read
+     */
+    private void map(final int p_bytes, final boolean p_write) {
+        long length = p_write ? m_windowSize : Math.min(m_windowSize, m_size - m_position);
+
+        try {
+            m_window = m_channel.map(FileChannel.MapMode.READ_WRITE, m_position, Math.max(length, p_bytes));
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        m_address = ByteBufferHelper.getDirectAddress(m_window);
+        m_windowStart = m_position;
+        m_windowEnd = m_position + m_window.capacity();
+    }
+}
@@ -16,8 +16,6 @@
 
 package de.hhu.bsinfo.dxutils.serialization;
 
-import java.nio.charset.StandardCharsets;
-
 /**
  * Utility class for implementing the sizeofObject call of the ObjectSize interface
  *
@@ -128,13 +126,13 @@ public final class ObjectSizeUtil {
     }
 
     /**
-     * Get the serialization size for a full string (including length field)
+     * Get the serialization size for a full string (including length field, UTF-8 encoded)
      *
      * @param p_str
      *         String to get the full serialization size for
      * @return Serialization size
      */
     public static int sizeofString(final String p_str) {
-        return sizeofByteArray(p_str.getBytes(StandardCharsets.US_ASCII));
+        return StringCodec.sizeofString(p_str);
     }
 }
@@ -20,7 +20,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.charset.StandardCharsets;
 
 /**
  * Importer/Exporter for a RandomAccessFile
@@ -150,7 +149,7 @@ public class RandomAccessFileImExporter implements Importer, Exporter {
 
     @Override
     public void writeString(final String p_str) {
-        writeByteArray(p_str.getBytes(StandardCharsets.US_ASCII));
+        StringCodec.writeString(this, p_str);
     }
 
     @Override
@@ -465,7 +464,7 @@ public class RandomAccessFileImExporter implements Importer, Exporter {
 
     @Override
     public String readString(final String p_string) {
-        return new String(readByteArray(null));
+        return StringCodec.readString(this, null);
     }
 
     @Override
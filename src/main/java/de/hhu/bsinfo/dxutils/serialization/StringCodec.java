@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+/**
+ * UTF-8 codec for the serialized strings (length as compact number followed by the UTF-8 bytes). The strings are
+ * encoded into and decoded from a scratch array of the current thread which is copied to/from the target with a
+ * single bulk write/read, so only the decoded String itself is allocated. Unpaired surrogates are encoded as '?',
+ * malformed input (including overlong forms and encoded surrogates) is decoded as U+FFFD (like String.getBytes() and
+ * new String()).
+ */
+public final class StringCodec {
+    private static final int MAX_SCRATCH_SIZE = 64 * 1024;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private static final ThreadLocal<byte[]> BYTES = ThreadLocal.withInitial(() -> new byte[256]);
+    private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[256]);
+
+    /**
+     * Static class
+     */
+    private StringCodec() {
+
+    }
+
+    /**
+     * Get the length of a string encoded as UTF-8 (without encoding it)
+     *
+     * @param p_str
+     *         the string
+     * @return the number of bytes
+     */
+    public static int utf8Length(final String p_str) {
+        int length = p_str.length();
+        int ret = length;
+        char c;
+
+        for (int i = 0; i < length; i++) {
+            c = p_str.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    ret++;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length &&
+                        Character.isLowSurrogate(p_str.charAt(i + 1))) {
+                    // 4 bytes for 2 chars
+                    ret += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    ret += 2;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Get the serialization size of a string (including length field)
+     *
+     * @param p_str
+     *         the string
+     * @return the size in bytes
+     */
+    public static int sizeofString(final String p_str) {
+        int length = utf8Length(p_str);
+
+        return CompactNumber.getSizeOfNumber(length) + length;
+    }
+
+    /**
+     * Write a string (length and UTF-8 bytes)
+     *
+     * @param p_exporter
+     *         the exporter to write to
+     * @param p_str
+     *         the string
+     */
+    public static void writeString(final Exporter p_exporter, final String p_str) {
+        int length = utf8Length(p_str);
+        byte[] bytes = byteScratch(length);
+
+        encode(p_str, bytes);
+        p_exporter.writeCompactNumber(length);
+        p_exporter.writeBytes(bytes, 0, length);
+    }
+
+    /**
+     * Read a string (length and UTF-8 bytes)
+     *
+     * @param p_importer
+     *         the importer to read from
+     * @param p_dictionary
+     *         the dictionary to intern the string with, may be null
+     * @return the string
+     */
+    public static String readString(final Importer p_importer, final StringDictionary p_dictionary) {
+        int length = p_importer.readCompactNumber(0);
+        byte[] bytes = byteScratch(length);
+
+        p_importer.readBytes(bytes, 0, length);
+
+        return p_dictionary == null ? decode(bytes, 0, length) : p_dictionary.get(bytes, 0, length);
+    }
+
+    /**
+     * Encode a string as UTF-8
+     *
+     * @param p_str
+     *         the string
+     * @param p_array
+     *         the array to encode to, at least utf8Length() bytes long
+     * @return the number of bytes written
+     */
+    static int encode(final String p_str, final byte[] p_array) {
+        int length = p_str.length();
+        int pos = 0;
+        int codePoint;
+        char c;
+
+        for (int i = 0; i < length; i++) {
+            c = p_str.charAt(i);
+
+            if (c < 0x80) {
+                p_array[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                p_array[pos++] = (byte) (0xC0 | c >> 6);
+                p_array[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length &&
+                    Character.isLowSurrogate(p_str.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, p_str.charAt(++i));
+                p_array[pos++] = (byte) (0xF0 | codePoint >> 18);
+                p_array[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                p_array[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                p_array[pos++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                p_array[pos++] = '?';
+            } else {
+                p_array[pos++] = (byte) (0xE0 | c >> 12);
+                p_array[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                p_array[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+
+        return pos;
+    }
+
+    /**
+     * Decode UTF-8 bytes
+     *
+     * @param p_array
+     *         the array with the bytes
+     * @param p_offset
+     *         the offset of the first byte
+     * @param p_length
+     *         the number of bytes
+     * @return the string
+     */
+    static String decode(final byte[] p_array, final int p_offset, final int p_length) {
+        char[] chars = charScratch(p_length);
+        int end = p_offset + p_length;
+        int pos = p_offset;
+        int count = 0;
+        int b;
+        int codePoint;
+        int following;
+        int lower;
+        int upper;
+
+        // ASCII only strings are the common case
+        while (pos < end && p_array[pos] >= 0) {
+            chars[count++] = (char) p_array[pos++];
+        }
+
+        while (pos < end) {
+            b = p_array[pos++] & 0xFF;
+
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+                continue;
+            }
+
+            // The ranges of the second byte exclude overlong forms (C0, C1, E0 80..9F, F0 80..8F) and code points
+            // beyond U+10FFFF (F4 90..BF, F5..FF)
+            lower = 0x80;
+            upper = 0xBF;
+            if (b >= 0xC2 && b <= 0xDF) {
+                codePoint = b & 0x1F;
+                following = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                codePoint = b & 0x0F;
+                following = 2;
+                lower = b == 0xE0 ? 0xA0 : 0x80;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                codePoint = b & 0x07;
+                following = 3;
+                lower = b == 0xF0 ? 0x90 : 0x80;
+                upper = b == 0xF4 ? 0x8F : 0xBF;
+            } else {
+                chars[count++] = REPLACEMENT;
+                continue;
+            }
+
+            while (following > 0 && pos < end && (p_array[pos] & 0xFF) >= lower && (p_array[pos] & 0xFF) <= upper) {
+                codePoint = codePoint << 6 | p_array[pos++] & 0x3F;
+                following--;
+                lower = 0x80;
+                upper = 0xBF;
+            }
+
+            // A malformed sequence is replaced by one U+FFFD, decoding continues at the unexpected byte. An encoded
+            // surrogate is replaced as a whole
+            if (following > 0 || codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                chars[count++] = REPLACEMENT;
+            } else if (Character.isSupplementaryCodePoint(codePoint)) {
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            } else {
+                chars[count++] = (char) codePoint;
+            }
+        }
+
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Get the byte scratch array of the current thread (larger arrays are not kept)
+     *
+     * @param p_size
+     *         the minimum size
+     * @return the array
+     */
+    private static byte[] byteScratch(final int p_size) {
+        byte[] ret = BYTES.get();
+
+        if (ret.length < p_size) {
+            ret = new byte[p_size];
+            if (p_size <= MAX_SCRATCH_SIZE) {
+                BYTES.set(ret);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Get the char scratch array of the current thread (larger arrays are not kept)
+     *
+     * @param p_size
+     *         the minimum size
+     * @return the array
+     */
+    private static char[] charScratch(final int p_size) {
+        char[] ret = CHARS.get();
+
+        if (ret.length < p_size) {
+            ret = new char[p_size];
+            if (p_size <= MAX_SCRATCH_SIZE) {
+                CHARS.set(ret);
+            }
+        }
+
+        return ret;
+    }
+}
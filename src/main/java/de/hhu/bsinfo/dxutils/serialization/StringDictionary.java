@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.util.Arrays;
+
+/**
+ * Interns deserialized strings: repeated strings are returned as the same instance without decoding (and
+ * allocating) them again. The dictionary is direct mapped with a fixed number of entries, an entry is replaced by
+ * the next string with the same hash. Long strings are not interned. Not thread-safe.
+ */
+public final class StringDictionary {
+    private static final int DEFAULT_SIZE = 4096;
+    private static final int DEFAULT_MAX_LENGTH = 64;
+
+    private final String[] m_strings;
+    private final byte[][] m_bytes;
+    private final int m_mask;
+    private final int m_maxLength;
+
+    /**
+     * Creates an instance of StringDictionary with 4096 entries for strings of up to 64 bytes.
+     */
+    public StringDictionary() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Creates an instance of StringDictionary.
+     *
+     * @param p_size
+     *         the number of entries (rounded up to the next power of two)
+     * @param p_maxLength
+     *         the maximum length (UTF-8 bytes) of interned strings
+     */
+    public StringDictionary(final int p_size, final int p_maxLength) {
+        int size;
+
+        assert p_size > 0 && p_size <= 1 << 30;
+
+        size = p_size == 1 ? 1 : Integer.highestOneBit(p_size - 1) << 1;
+
+        m_strings = new String[size];
+        m_bytes = new byte[size][];
+        m_mask = size - 1;
+        m_maxLength = p_maxLength;
+    }
+
+    /**
+     * Returns the interned string for the given UTF-8 bytes, decoding and interning it if not contained
+     *
+     * @param p_array
+     *         the array with the bytes
+     * @param p_offset
+     *         the offset of the first byte
+     * @param p_length
+     *         the number of bytes
+     * @return the string
+     */
+    public String get(final byte[] p_array, final int p_offset, final int p_length) {
+        String ret;
+        int hash = 0;
+        int index;
+        byte[] bytes;
+
+        if (p_length > m_maxLength) {
+            return StringCodec.decode(p_array, p_offset, p_length);
+        }
+
+        for (int i = p_offset; i < p_offset + p_length; i++) {
+            hash = hash * 31 + p_array[i];
+        }
+        index = (hash ^ hash >>> 16) & m_mask;
+
+        bytes = m_bytes[index];
+        if (bytes != null && bytes.length == p_length && equals(bytes, p_array, p_offset)) {
+            return m_strings[index];
+        }
+
+        ret = StringCodec.decode(p_array, p_offset, p_length);
+        m_strings[index] = ret;
+        m_bytes[index] = Arrays.copyOfRange(p_array, p_offset, p_offset + p_length);
+
+        return ret;
+    }
+
+    /**
+     * Removes all strings.
+     */
+    public void clear() {
+        Arrays.fill(m_strings, null);
+        Arrays.fill(m_bytes, null);
+    }
+
+    /**
+     * Compares the bytes of an entry with a range of an array
+     *
+     * @param p_bytes
+     *         the bytes of the entry
+     * @param p_array
+     *         the array
+     * @param p_offset
+     *         the offset of the range (the length is the one of the entry)
+     * @return true if equal
+     */
+    private static boolean equals(final byte[] p_bytes, final byte[] p_array, final int p_offset) {
+        for (int i = 0; i < p_bytes.length; i++) {
+            if (p_bytes[i] != p_array[p_offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxutils.serialization;
+
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+
+/**
+ * Importer/Exporter for off-heap memory, e.g. allocated with UnsafeMemory.allocate(). Primitive arrays are moved with
+ * a single memory copy each. The data is stored in native byte order. Accesses beyond the memory region are only
+ * checked if assertions are enabled.
+ */
+public class UnsafeImExporter implements Importer, Exporter {
+    private long m_address;
+    private int m_size;
+    private int m_position;
+
+    /**
+     * Constructor
+     *
+     * @param p_address
+     *         Start address of the memory region to write to/read from
+     * @param p_size
+     *         Size of the memory region in bytes
+     */
+    public UnsafeImExporter(final long p_address, final int p_size) {
+        setMemory(p_address, p_size);
+    }
+
+    /**
+     * Switch to another memory region and reset the position
+     *
+     * @param p_address
+     *         Start address of the memory region to write to/read from
+     * @param p_size
+     *         Size of the memory region in bytes
+     */
+    public void setMemory(final long p_address, final int p_size) {
+        assert p_address != 0 && p_size >= 0;
+
+        m_address = p_address;
+        m_size = p_size;
+        m_position = 0;
+    }
+
+    /**
+     * Get the current position within the memory region
+     *
+     * @return Position in bytes
+     */
+    public int getPosition() {
+        return m_position;
+    }
+
+    /**
+     * Set the position within the memory region
+     *
+     * @param p_position
+     *         Position in bytes
+     */
+    public void setPosition(final int p_position) {
+        assert p_position >= 0 && p_position <= m_size;
+
+        m_position = p_position;
+    }
+
+    @Override
+    public void exportObject(final Exportable p_object) {
+        p_object.exportObject(this);
+    }
+
+    @Override
+    public void writeBoolean(final boolean p_v) {
+        UnsafeMemory.writeByte(reserve(Byte.BYTES), (byte) (p_v ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(final byte p_v) {
+        UnsafeMemory.writeByte(reserve(Byte.BYTES), p_v);
+    }
+
+    @Override
+    public void writeShort(final short p_v) {
+        UnsafeMemory.writeShort(reserve(Short.BYTES), p_v);
+    }
+
+    @Override
+    public void writeChar(final char p_v) {
+        UnsafeMemory.writeChar(reserve(Character.BYTES), p_v);
+    }
+
+    @Override
+    public void writeInt(final int p_v) {
+        UnsafeMemory.writeInt(reserve(Integer.BYTES), p_v);
+    }
+
+    @Override
+    public void writeLong(final long p_v) {
+        UnsafeMemory.writeLong(reserve(Long.BYTES), p_v);
+    }
+
+    @Override
+    public void writeFloat(final float p_v) {
+        UnsafeMemory.writeFloat(reserve(Float.BYTES), p_v);
+    }
+
+    @Override
+    public void writeDouble(final double p_v) {
+        UnsafeMemory.writeDouble(reserve(Double.BYTES), p_v);
+    }
+
+    @Override
+    public void writeCompactNumber(final int p_v) {
+        byte[] number = CompactNumber.compact(p_v);
+        writeBytes(number);
+    }
+
+    @Override
+    public void writeString(final String p_str) {
+        StringCodec.writeString(this, p_str);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array) {
+        return writeBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array) {
+        return writeShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeChars(final char[] p_array) {
+        return writeChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeInts(final int[] p_array) {
+        return writeInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array) {
+        return writeLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array) {
+        return writeFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array) {
+        return writeDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int writeBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.writeBytes(reserve(p_length * Byte.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int writeShorts(final short[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.writeShorts(reserve(p_length * Short.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int writeChars(final char[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.writeChars(reserve(p_length * Character.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int writeInts(final int[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.writeInts(reserve(p_length * Integer.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int writeLongs(final long[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.writeLongs(reserve(p_length * Long.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int writeFloats(final float[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.writeFloats(reserve(p_length * Float.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int writeDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.writeDoubles(reserve(p_length * Double.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public void writeByteArray(final byte[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeBytes(p_array);
+    }
+
+    @Override
+    public void writeShortArray(final short[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeShorts(p_array);
+    }
+
+    @Override
+    public void writeCharArray(final char[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeChars(p_array);
+    }
+
+    @Override
+    public void writeIntArray(final int[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeInts(p_array);
+    }
+
+    @Override
+    public void writeLongArray(final long[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeLongs(p_array);
+    }
+
+    @Override
+    public void writeFloatArray(final float[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeFloats(p_array);
+    }
+
+    @Override
+    public void writeDoubleArray(final double[] p_array) {
+        writeCompactNumber(p_array.length);
+        writeDoubles(p_array);
+    }
+
+    @Override
+    public void importObject(final Importable p_object) {
+        p_object.importObject(this);
+    }
+
+    @Override
+    public boolean readBoolean(final boolean p_bool) {
+        return UnsafeMemory.readByte(reserve(Byte.BYTES)) != 0;
+    }
+
+    @Override
+    public byte readByte(final byte p_byte) {
+        return UnsafeMemory.readByte(reserve(Byte.BYTES));
+    }
+
+    @Override
+    public short readShort(final short p_short) {
+        return UnsafeMemory.readShort(reserve(Short.BYTES));
+    }
+
+    @Override
+    public char readChar(final char p_char) {
+        return UnsafeMemory.readChar(reserve(Character.BYTES));
+    }
+
+    @Override
+    public int readInt(final int p_int) {
+        return UnsafeMemory.readInt(reserve(Integer.BYTES));
+    }
+
+    @Override
+    public long readLong(final long p_long) {
+        return UnsafeMemory.readLong(reserve(Long.BYTES));
+    }
+
+    @Override
+    public float readFloat(final float p_float) {
+        return UnsafeMemory.readFloat(reserve(Float.BYTES));
+    }
+
+    @Override
+    public double readDouble(final double p_double) {
+        return UnsafeMemory.readDouble(reserve(Double.BYTES));
+    }
+
+    @Override
+    public int readCompactNumber(final int p_int) {
+        byte[] tmp = new byte[4];
+        int i;
+
+        for (i = 0; i < Integer.BYTES; i++) {
+            tmp[i] = readByte((byte) 0);
+            if ((tmp[i] & 0x80) == 0) {
+                break;
+            }
+        }
+
+        return CompactNumber.decompact(tmp, 0, i);
+    }
+
+    @Override
+    public String readString(final String p_string) {
+        return StringCodec.readString(this, null);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array) {
+        return readBytes(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readShorts(final short[] p_array) {
+        return readShorts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readChars(final char[] p_array) {
+        return readChars(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readInts(final int[] p_array) {
+        return readInts(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readLongs(final long[] p_array) {
+        return readLongs(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readFloats(final float[] p_array) {
+        return readFloats(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array) {
+        return readDoubles(p_array, 0, p_array.length);
+    }
+
+    @Override
+    public int readBytes(final byte[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.readBytes(reserve(p_length * Byte.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int readShorts(final short[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.readShorts(reserve(p_length * Short.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int readChars(final char[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.readChars(reserve(p_length * Character.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int readInts(final int[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.readInts(reserve(p_length * Integer.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int readLongs(final long[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.readLongs(reserve(p_length * Long.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int readFloats(final float[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.readFloats(reserve(p_length * Float.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public int readDoubles(final double[] p_array, final int p_offset, final int p_length) {
+        assert p_offset >= 0 && p_length >= 0 && p_offset + p_length <= p_array.length;
+
+        return UnsafeMemory.readDoubles(reserve(p_length * Double.BYTES), p_array, p_offset, p_length);
+    }
+
+    @Override
+    public byte[] readByteArray(final byte[] p_array) {
+        byte[] arr = new byte[readCompactNumber(0)];
+        readBytes(arr);
+        return arr;
+    }
+
+    @Override
+    public short[] readShortArray(final short[] p_array) {
+        short[] arr = new short[readCompactNumber(0)];
+        readShorts(arr);
+        return arr;
+    }
+
+    @Override
+    public char[] readCharArray(final char[] p_array) {
+        char[] arr = new char[readCompactNumber(0)];
+        readChars(arr);
+        return arr;
+    }
+
+    @Override
+    public int[] readIntArray(final int[] p_array) {
+        int[] arr = new int[readCompactNumber(0)];
+        readInts(arr);
+        return arr;
+    }
+
+    @Override
+    public long[] readLongArray(final long[] p_array) {
+        long[] arr = new long[readCompactNumber(0)];
+        readLongs(arr);
+        return arr;
+    }
+
+    @Override
+    public float[] readFloatArray(final float[] p_array) {
+        float[] arr = new float[readCompactNumber(0)];
+        readFloats(arr);
+        return arr;
+    }
+
+    @Override
+    public double[] readDoubleArray(final double[] p_array) {
+        double[] arr = new double[readCompactNumber(0)];
+        readDoubles(arr);
+        return arr;
+    }
+
+    /**
+     * Moves the position behind the next bytes
+     *
+     * @param p_bytes
+     *         Number of bytes to access
+     * @return Address of the first byte
+     */
+    private long reserve(final int p_bytes) {
+        long ret = m_address + m_position;
+
+        assert p_bytes >= 0 && m_position + p_bytes <= m_size : "Access beyond the memory region (position: " +
+                m_position + ", bytes: " + p_bytes + ", size: " + m_size + ')';
+
+        m_position += p_bytes;
+
+        return ret;
+    }
+}
@@ -77,19 +77,22 @@ public class Time extends AbstractOperation {
         long delta = System.nanoTime() - m_start;
         m_start = 0;
 
-        m_total += delta;
-
-        if (delta < m_best) {
-            m_best = delta;
-        }
-
-        if (delta > m_worst) {
-            m_worst = delta;
-        }
+        add(delta);
 
         return delta;
     }
 
+    /**
+     * Record a single value
+     *
+     * @param p_valueNs
+     *         Time value in ns to record (separate from start/stop)
+     */
+    public void record(final long p_valueNs) {
+        m_counter++;
+        add(p_valueNs);
+    }
+
     /**
      * "Debug version". Identical to normal call but is removed on non-debug builds.
      */
@@ -230,4 +233,22 @@ public class Time extends AbstractOperation {
         return String.format("%.3f %s", p_timeNs / MS_PREFIX_TABLE[Prefix.SEC.ordinal()],
                 MS_PREFIX_NAMES[Prefix.SEC.ordinal()]);
     }
+
+    /**
+     * Adds a measured time to total, best and worst time
+     *
+     * @param p_deltaNs
+     *         the time in ns
+     */
+    private void add(final long p_deltaNs) {
+        m_total += p_deltaNs;
+
+        if (p_deltaNs < m_best) {
+            m_best = p_deltaNs;
+        }
+
+        if (p_deltaNs > m_worst) {
+            m_worst = p_deltaNs;
+        }
+    }
 }
@@ -59,6 +59,16 @@ public class TimePool extends AbstractOperation {
         getThreadLocalTime().stop();
     }
 
+    /**
+     * Record a single value
+     *
+     * @param p_valueNs
+     *         Time value in ns to record (separate from start/stop)
+     */
+    public void record(final long p_valueNs) {
+        getThreadLocalTime().record(p_valueNs);
+    }
+
     /**
      * "Debug version". Identical to normal call but is removed on non-debug builds.
      */
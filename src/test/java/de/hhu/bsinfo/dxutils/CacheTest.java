@@ -0,0 +1,445 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.unit.StorageUnit;
+
+public class CacheTest {
+    @Test
+    public void putGet() {
+        Cache<Integer, String> cache = new Cache<>(10);
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(1, "c");
+
+        Assert.assertEquals("c", cache.get(1));
+        Assert.assertEquals("b", cache.get(2));
+        Assert.assertNull(cache.get(3));
+        Assert.assertTrue(cache.contains(2));
+        Assert.assertFalse(cache.contains(3));
+    }
+
+    @Test
+    public void lruEviction() {
+        Cache<Integer, Integer> cache = new Cache<>(3, Cache.POLICY.LRU);
+
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+
+        // 1 becomes most recently used, 2 is evicted next
+        cache.get(1);
+        cache.put(4, 4);
+
+        Assert.assertTrue(cache.contains(1));
+        Assert.assertFalse(cache.contains(2));
+        Assert.assertTrue(cache.contains(3));
+        Assert.assertTrue(cache.contains(4));
+
+        cache.put(5, 5);
+
+        Assert.assertFalse(cache.contains(3));
+        Assert.assertTrue(cache.contains(1));
+    }
+
+    @Test
+    public void lruRemove() {
+        Cache<Integer, Integer> cache = new Cache<>(2, Cache.POLICY.LRU);
+
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.remove(1);
+        cache.put(3, 3);
+
+        // no eviction required after the removal
+        Assert.assertTrue(cache.contains(2));
+        Assert.assertTrue(cache.contains(3));
+
+        cache.clear();
+        cache.put(4, 4);
+        cache.put(5, 5);
+        cache.put(6, 6);
+
+        Assert.assertFalse(cache.contains(4));
+        Assert.assertTrue(cache.contains(5));
+        Assert.assertTrue(cache.contains(6));
+    }
+
+    @Test
+    public void tinyLFUEviction() {
+        Cache<Integer, Integer> cache = new Cache<>(200, Cache.POLICY.TINY_LFU);
+
+        for (int i = 0; i < 200; i++) {
+            cache.put(i, i);
+        }
+
+        // make the first 100 keys hot
+        for (int j = 0; j < 5; j++) {
+            for (int i = 0; i < 100; i++) {
+                cache.get(i);
+            }
+        }
+
+        // a scan of one-off keys must not flush the hot keys
+        for (int i = 1000; i < 5000; i++) {
+            cache.put(i, i);
+        }
+
+        Assert.assertEquals(200, cache.size());
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(cache.contains(i));
+        }
+    }
+
+    @Test
+    public void tinyLFUHitRate() {
+        Assert.assertTrue(hitRate(Cache.POLICY.TINY_LFU) > hitRate(Cache.POLICY.LRU));
+    }
+
+    @Test
+    public void entryTTL() throws InterruptedException {
+        Cache<Integer, Integer> cache = new Cache<>(10, Cache.POLICY.LRU);
+
+        cache.put(1, 1, 50);
+        cache.put(2, 2);
+
+        Thread.sleep(150);
+
+        Assert.assertFalse(cache.contains(1));
+        Assert.assertNull(cache.get(1));
+        Assert.assertEquals(2, (int) cache.get(2));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void cacheTTL() throws InterruptedException {
+        Cache<Integer, Integer> cache = new Cache<>(1000, Cache.POLICY.LRU);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        cache.enableTTL(100);
+        cache.put(1000, 1000, 60000);
+
+        // expired entries are removed in the background without being accessed
+        Thread.sleep(600);
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1000, (int) cache.get(1000));
+
+        cache.disableTTL();
+    }
+
+    @Test
+    public void weightLimit() {
+        Cache<Integer, byte[]> cache = new Cache<>(new StorageUnit(10, StorageUnit.KB), Cache.POLICY.LRU,
+                (p_key, p_value) -> p_value.length);
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, new byte[1024]);
+        }
+
+        Assert.assertEquals(10, cache.size());
+        Assert.assertEquals(10 * 1024, cache.getWeight());
+        Assert.assertNull(cache.get(9));
+        Assert.assertNotNull(cache.get(10));
+
+        // a large entry pushes out the least recently used small ones
+        cache.put(100, new byte[4096]);
+        Assert.assertEquals(7, cache.size());
+        Assert.assertEquals(10 * 1024, cache.getWeight());
+        Assert.assertNotNull(cache.get(10));
+        Assert.assertNull(cache.get(11));
+
+        // an entry larger than the limit is not kept and does not evict the others
+        cache.put(200, new byte[20 * 1024]);
+        Assert.assertNull(cache.get(200));
+        Assert.assertEquals(7, cache.size());
+        Assert.assertEquals(10 * 1024, cache.getWeight());
+
+        cache.remove(100);
+        Assert.assertEquals(6, cache.size());
+        Assert.assertEquals(6 * 1024, cache.getWeight());
+    }
+
+    @Test
+    public void oversizedEntry() {
+        Cache<Integer, byte[]> cache = new Cache<>(new StorageUnit(1000, StorageUnit.BYTE), Cache.POLICY.LRU,
+                (p_key, p_value) -> p_value.length);
+
+        for (int i = 0; i < 9; i++) {
+            cache.put(i, new byte[100]);
+        }
+
+        cache.put(9, new byte[5000]);
+        Assert.assertEquals(9, cache.size());
+        Assert.assertNull(cache.get(9));
+        for (int i = 0; i < 9; i++) {
+            Assert.assertNotNull(cache.get(i));
+        }
+
+        // a rejected update removes the outdated previous value
+        cache.put(0, new byte[5000]);
+        Assert.assertNull(cache.get(0));
+        Assert.assertEquals(8, cache.size());
+        Assert.assertEquals(800, cache.getWeight());
+    }
+
+    @Test
+    public void objectSizeWeigher() {
+        Cache<Integer, StorageUnit> cache = new Cache<>(new StorageUnit(100, StorageUnit.BYTE));
+        int size = new StorageUnit(1, StorageUnit.KB).sizeofObject();
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, new StorageUnit(i, StorageUnit.KB));
+        }
+
+        Assert.assertEquals(100 / size, cache.size());
+        Assert.assertEquals(100 / size * size, cache.getWeight());
+    }
+
+    @Test
+    public void statistics() {
+        Cache<Integer, Integer> cache = new Cache<>(2, Cache.POLICY.LRU);
+
+        cache.enableStatistics("CacheTest");
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.get(1);
+        cache.get(3);
+        cache.put(3, 3);
+
+        Assert.assertTrue(StatisticsManager.get().getClassStatistics(Cache.class).stream()
+                .anyMatch(p_op -> "CacheTest-Hits".equals(p_op.getOperationNameSimple())));
+        Assert.assertEquals(1, cache.getStatistics().getHits());
+        Assert.assertEquals(1, cache.getStatistics().getMisses());
+        Assert.assertEquals(1, cache.getStatistics().getEvictions());
+
+        cache.disableStatistics();
+    }
+
+    @Test
+    public void snapshot() throws InterruptedException {
+        Cache<Key, StorageUnit> cache = new Cache<>(3000, Cache.POLICY.LRU);
+        Cache<Key, StorageUnit> restored = new Cache<>(3000, Cache.POLICY.LRU);
+        ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+
+        for (int i = 0; i < 3000; i++) {
+            cache.put(new Key(i), new StorageUnit(i, StorageUnit.KB));
+        }
+        Thread.sleep(5);
+        cache.get(new Key(0));
+
+        Assert.assertEquals(3000, cache.exportEntries(new ByteBufferImExporter(buffer)));
+        buffer.flip();
+        Assert.assertEquals(3000, restored.importEntries(new ByteBufferImExporter(buffer), Key::new,
+                StorageUnit::new));
+
+        Assert.assertEquals(3000, restored.size());
+        Assert.assertEquals(new StorageUnit(2999, StorageUnit.KB), restored.get(new Key(2999)));
+
+        // the access order is restored: 0 was accessed last and is not evicted
+        restored.put(new Key(5000), new StorageUnit(0, StorageUnit.BYTE));
+        Assert.assertTrue(restored.contains(new Key(0)));
+        Assert.assertEquals(3000, restored.size());
+    }
+
+    @Test
+    public void snapshotWithExecutor() {
+        Cache<Key, StorageUnit> cache = new Cache<>(3000, Cache.POLICY.LRU);
+        Cache<Key, StorageUnit> restored = new Cache<>(3000, Cache.POLICY.LRU);
+        ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        for (int i = 0; i < 3000; i++) {
+            cache.put(new Key(i), new StorageUnit(i, StorageUnit.KB));
+        }
+
+        Assert.assertEquals(3000, cache.exportEntries(new ByteBufferImExporter(buffer)));
+        buffer.flip();
+        Assert.assertEquals(3000, restored.importEntries(new ByteBufferImExporter(buffer), Key::new,
+                StorageUnit::new, executor));
+        executor.shutdown();
+
+        Assert.assertEquals(3000, restored.size());
+        for (int i = 0; i < 3000; i++) {
+            Assert.assertEquals(new StorageUnit(i, StorageUnit.KB), restored.get(new Key(i)));
+        }
+    }
+
+    @Test
+    public void snapshotWhileReading() throws InterruptedException {
+        Cache<Key, StorageUnit> cache = new Cache<>(3000, Cache.POLICY.LRU);
+        ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread reader;
+
+        for (int i = 0; i < 3000; i++) {
+            cache.put(new Key(i), new StorageUnit(i, StorageUnit.KB));
+        }
+
+        // the access times change while the snapshot is sorted and written
+        reader = new Thread(() -> {
+            Random random = new Random(1);
+
+            while (running.get()) {
+                cache.get(new Key(random.nextInt(3000)));
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 50; i++) {
+            buffer.clear();
+            Assert.assertEquals(3000, cache.exportEntries(new ByteBufferImExporter(buffer)));
+        }
+
+        running.set(false);
+        reader.join();
+    }
+
+    @Test
+    public void bufferedAccesses() {
+        Cache<Integer, String> cache = new Cache<>(3, Cache.POLICY.LRU);
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+
+        // more accesses than a buffer stripe holds
+        for (int i = 0; i < 40; i++) {
+            Assert.assertEquals("a", cache.get(1));
+        }
+        Assert.assertEquals("b", cache.get(2));
+
+        cache.put(4, "d");
+        Assert.assertNull(cache.get(3));
+        Assert.assertEquals("a", cache.get(1));
+        Assert.assertEquals("b", cache.get(2));
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentAccesses() throws InterruptedException {
+        for (Cache.POLICY policy : new Cache.POLICY[] {Cache.POLICY.LRU, Cache.POLICY.TINY_LFU}) {
+            Cache<Integer, Integer> cache = new Cache<>(100, policy);
+            Thread[] threads = new Thread[4];
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                    for (int j = 0; j < 200000; j++) {
+                        int key = random.nextInt(200);
+                        int operation = random.nextInt(10);
+
+                        if (operation == 0) {
+                            cache.put(key, key);
+                        } else if (operation == 1) {
+                            cache.remove(key);
+                        } else {
+                            Integer value = cache.get(key);
+                            Assert.assertTrue(value == null || value == key);
+                        }
+                    }
+                });
+                threads[i].setUncaughtExceptionHandler((p_thread, p_e) -> failure.set(p_e));
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Assert.assertNull(failure.get());
+
+            // the eviction policy must still be intact: new keys fill the cache up to its maximum
+            Assert.assertTrue(cache.size() <= 100);
+            for (int key = 1000; key < 2000; key++) {
+                cache.put(key, key);
+            }
+            Assert.assertEquals(100, cache.size());
+        }
+    }
+
+    /**
+     * Replays a skewed trace interleaved with scans and returns the hit rate
+     */
+    private static double hitRate(final Cache.POLICY p_policy) {
+        Cache<Integer, Integer> cache = new Cache<>(1000, p_policy);
+        Random random = new Random(42);
+        int scanKey = 1000000;
+        int hits = 0;
+        int requests = 0;
+
+        for (int i = 0; i < 200000; i++) {
+            int key;
+
+            if (i % 5000 < 1000) {
+                key = scanKey++;
+            } else {
+                // skewed distribution, small keys are far more likely
+                key = (int) (Math.pow(random.nextDouble(), 4) * 20000);
+            }
+
+            requests++;
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+
+        return (double) hits / requests;
+    }
+
+    private static final class Key implements Importable, Exportable {
+        private long m_id;
+
+        private Key() {
+        }
+
+        private Key(final long p_id) {
+            m_id = p_id;
+        }
+
+        @Override
+        public void exportObject(final Exporter p_exporter) {
+            p_exporter.writeLong(m_id);
+        }
+
+        @Override
+        public void importObject(final Importer p_importer) {
+            m_id = p_importer.readLong(m_id);
+        }
+
+        @Override
+        public int sizeofObject() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public boolean equals(final Object p_object) {
+            return p_object instanceof Key && ((Key) p_object).m_id == m_id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(m_id);
+        }
+    }
+}
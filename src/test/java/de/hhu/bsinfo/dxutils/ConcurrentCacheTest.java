@@ -0,0 +1,81 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+    @Test
+    public void putGetRemove() {
+        ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(1000, Cache.POLICY.LRU, 8);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i * 2);
+        }
+
+        Assert.assertEquals(8, cache.getStripeCount());
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(Integer.valueOf(42), cache.get(21));
+
+        cache.remove(21);
+
+        Assert.assertFalse(cache.contains(21));
+        Assert.assertEquals(99, cache.size());
+
+        cache.clear();
+
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void concurrentAccess() throws Exception {
+        final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(512, Cache.POLICY.LRU, 4);
+        final AtomicInteger wrongValues = new AtomicInteger(0);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            final int seed = t;
+
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    int key = (i * 31 + seed) % 2048;
+
+                    if (i % 3 == 0) {
+                        cache.put(key, key);
+                    } else {
+                        Integer value = cache.get(key);
+
+                        if (value != null && value != key) {
+                            wrongValues.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(0, wrongValues.get());
+        Assert.assertTrue(cache.size() <= 512);
+    }
+
+    @Test
+    public void maxSizeSplit() {
+        ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(10, Cache.POLICY.LRU, 16);
+
+        Assert.assertEquals(8, cache.getStripeCount());
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        Assert.assertTrue(cache.size() <= 10);
+    }
+}
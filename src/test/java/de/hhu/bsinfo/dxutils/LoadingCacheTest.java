@@ -0,0 +1,77 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadingCacheTest {
+    @Test
+    public void coalescing() throws InterruptedException {
+        LoadingCache<Integer, String> cache = new LoadingCache<>(100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        String[] results = new String[threads.length];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int id = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException ignored) {
+                }
+
+                results[id] = cache.get(1, p_key -> {
+                    loads.incrementAndGet();
+                    try {
+                        Thread.sleep(100);
+                    } catch (final InterruptedException ignored) {
+                    }
+                    return "v" + p_key;
+                });
+            });
+            threads[i].start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(1, loads.get());
+        for (String result : results) {
+            Assert.assertEquals("v1", result);
+        }
+        Assert.assertEquals("v1", cache.get(1, p_key -> "other"));
+    }
+
+    @Test
+    public void refreshAhead() throws Exception {
+        LoadingCache<Integer, Integer> cache = new LoadingCache<>(100, Cache.POLICY.LRU, 10000, 50, Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        Assert.assertEquals(1, (int) cache.get(1, p_key -> loads.incrementAndGet()));
+        Thread.sleep(100);
+
+        // the old value is returned while the refresh is triggered
+        Assert.assertEquals(1, (int) cache.getAsync(1, p_key -> loads.incrementAndGet()).get());
+        Assert.assertEquals(2, (int) cache.get(1, p_key -> loads.incrementAndGet()));
+    }
+
+    @Test(timeout = 10000)
+    public void rejectedLoad() {
+        LoadingCache<Integer, Integer> cache = new LoadingCache<>(100, Cache.POLICY.LRU, 0, 0, p_command -> {
+            throw new RejectedExecutionException();
+        });
+        CompletableFuture<Integer> future = cache.getAsync(1, p_key -> 1);
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+
+        // the failed load is not in flight anymore, the next caller loads the value itself
+        Assert.assertEquals(1, (int) cache.get(1, p_key -> 1));
+    }
+}
@@ -0,0 +1,123 @@
+package de.hhu.bsinfo.dxutils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongCacheTest {
+    @Test
+    public void lruEviction() {
+        LongCache<String> cache = new LongCache<>(3);
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        cache.get(1);
+        cache.put(4, "d");
+
+        Assert.assertEquals(3, cache.size());
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals("a", cache.get(1));
+        Assert.assertEquals("c", cache.get(3));
+        Assert.assertEquals("d", cache.get(4));
+
+        cache.remove(3);
+        cache.put(5, "e");
+        cache.put(6, "f");
+        Assert.assertFalse(cache.contains(1));
+        Assert.assertTrue(cache.contains(4));
+    }
+
+    @Test
+    public void randomOperations() {
+        LongCache<Long> cache = new LongCache<>(1000);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(7);
+
+        // no evictions: the cache must behave like a map
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(1000) + 1;
+
+            if (random.nextBoolean()) {
+                cache.put(key, (long) i);
+                reference.put(key, (long) i);
+            } else {
+                cache.remove(key);
+                reference.remove(key);
+            }
+        }
+
+        Assert.assertEquals(reference.size(), cache.size());
+        for (long key = 1; key <= 1000; key++) {
+            Assert.assertEquals(reference.get(key), cache.get(key));
+        }
+    }
+
+    @Test
+    public void bufferedAccesses() {
+        LongCache<String> cache = new LongCache<>(3);
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+
+        // more accesses than a buffer stripe holds
+        for (int i = 0; i < 40; i++) {
+            Assert.assertEquals("a", cache.get(1));
+        }
+        Assert.assertEquals("b", cache.get(2));
+
+        cache.put(4, "d");
+        Assert.assertNull(cache.get(3));
+        Assert.assertEquals("a", cache.get(1));
+        Assert.assertEquals("b", cache.get(2));
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentAccesses() throws InterruptedException {
+        LongCache<Long> cache = new LongCache<>(100);
+        Thread[] threads = new Thread[4];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int j = 0; j < 200000; j++) {
+                    long key = random.nextInt(200) + 1;
+                    int operation = random.nextInt(10);
+
+                    if (operation == 0) {
+                        cache.put(key, key);
+                    } else if (operation == 1) {
+                        cache.remove(key);
+                    } else {
+                        Long value = cache.get(key);
+                        Assert.assertTrue(value == null || value == key);
+                    }
+                }
+            });
+            threads[i].setUncaughtExceptionHandler((p_thread, p_e) -> failure.set(p_e));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertNull(failure.get());
+
+        // the LRU list must still be intact: new keys evict all old ones
+        Assert.assertTrue(cache.size() <= 100);
+        for (long key = 1001; key <= 1100; key++) {
+            cache.put(key, key);
+        }
+        Assert.assertEquals(100, cache.size());
+        for (long key = 1001; key <= 1100; key++) {
+            Assert.assertEquals(Long.valueOf(key), cache.get(key));
+        }
+    }
+}
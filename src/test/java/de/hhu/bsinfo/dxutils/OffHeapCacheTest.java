@@ -0,0 +1,120 @@
+package de.hhu.bsinfo.dxutils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.unit.StorageUnit;
+
+public class OffHeapCacheTest {
+    @Test
+    public void putGet() {
+        OffHeapCache cache = new OffHeapCache(new StorageUnit(1, StorageUnit.MB));
+        StorageUnit value = new StorageUnit();
+
+        cache.put(1, new StorageUnit(5, StorageUnit.GB));
+        cache.put(2, new StorageUnit(7, StorageUnit.KB));
+        cache.put(1, new StorageUnit(3, StorageUnit.MB));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.get(1, value));
+        Assert.assertEquals(new StorageUnit(3, StorageUnit.MB), value);
+        Assert.assertTrue(cache.get(2, value));
+        Assert.assertEquals(new StorageUnit(7, StorageUnit.KB), value);
+
+        cache.remove(2);
+        Assert.assertFalse(cache.get(2, value));
+        Assert.assertFalse(cache.contains(3));
+
+        cache.free();
+    }
+
+    @Test
+    public void evictOldest() {
+        int recordSize = (12 + new StorageUnit().sizeofObject() + 7) / 8 * 8;
+        OffHeapCache cache = new OffHeapCache(new StorageUnit(100 * recordSize + 8, StorageUnit.BYTE));
+        StorageUnit value = new StorageUnit();
+
+        // wraps around the ring buffer several times
+        for (int i = 1; i <= 1000; i++) {
+            Assert.assertTrue(cache.put(i, new StorageUnit(i, StorageUnit.BYTE)));
+            Assert.assertTrue(cache.getUsedBytes() <= cache.getCapacity());
+        }
+
+        Assert.assertTrue(cache.size() >= 99);
+        Assert.assertFalse(cache.contains(1));
+        for (int i = 1000 - cache.size() + 1; i <= 1000; i++) {
+            Assert.assertTrue(cache.get(i, value));
+            Assert.assertEquals(i, value.getBytes());
+        }
+
+        cache.free();
+    }
+
+    @Test
+    public void oversizedValue() {
+        OffHeapCache cache = new OffHeapCache(new StorageUnit(1, StorageUnit.KB));
+        StorageUnit value = new StorageUnit();
+
+        Assert.assertTrue(cache.put(1, new StorageUnit(5, StorageUnit.GB)));
+        Assert.assertFalse(cache.put(1, new Exportable() {
+            @Override
+            public void exportObject(final Exporter p_exporter) {
+                Assert.fail();
+            }
+
+            @Override
+            public int sizeofObject() {
+                return 1024;
+            }
+        }));
+
+        // the previous value is outdated
+        Assert.assertFalse(cache.get(1, value));
+        Assert.assertEquals(0, cache.size());
+
+        cache.free();
+    }
+
+    @Test
+    public void failedExport() throws InterruptedException {
+        OffHeapCache cache = new OffHeapCache(new StorageUnit(1, StorageUnit.KB));
+        StorageUnit value = new StorageUnit();
+        Thread other;
+
+        Assert.assertTrue(cache.put(1, new StorageUnit(5, StorageUnit.GB)));
+        try {
+            // writes more than it reports
+            cache.put(2, new Exportable() {
+                @Override
+                public void exportObject(final Exporter p_exporter) {
+                    p_exporter.writeLong(2);
+                }
+
+                @Override
+                public int sizeofObject() {
+                    return Integer.BYTES;
+                }
+            });
+            Assert.fail();
+        } catch (final RuntimeException e) {
+            // expected
+        }
+
+        // the lock was released and the failed value is not stored
+        other = new Thread(() -> cache.put(3, new StorageUnit(3, StorageUnit.MB)));
+        other.start();
+        other.join(10000);
+        Assert.assertFalse(other.isAlive());
+
+        Assert.assertFalse(cache.contains(2));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.get(1, value));
+        Assert.assertEquals(new StorageUnit(5, StorageUnit.GB), value);
+        Assert.assertTrue(cache.get(3, value));
+        Assert.assertEquals(new StorageUnit(3, StorageUnit.MB), value);
+
+        cache.free();
+    }
+}
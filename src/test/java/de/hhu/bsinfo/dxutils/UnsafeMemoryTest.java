@@ -0,0 +1,35 @@
+package de.hhu.bsinfo.dxutils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UnsafeMemoryTest {
+
+    @Test
+    public void arrayCopies() {
+        long address = UnsafeMemory.allocate(64);
+
+        try {
+            UnsafeMemory.writeInts(address, new int[] {1, 2, 3, 4}, 1, 3);
+            UnsafeMemory.writeDoubles(address + 3 * Integer.BYTES, new double[] {0.5}, 0, 1);
+
+            int[] ints = new int[4];
+            UnsafeMemory.readInts(address, ints, 0, 3);
+            Assert.assertArrayEquals(new int[] {2, 3, 4, 0}, ints);
+            Assert.assertEquals(0.5, UnsafeMemory.readDouble(address + 3 * Integer.BYTES), 0);
+        } finally {
+            UnsafeMemory.free(address);
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void arrayBoundsChecked() {
+        long address = UnsafeMemory.allocate(64);
+
+        try {
+            UnsafeMemory.readLongs(address, new long[4], 2, 3);
+        } finally {
+            UnsafeMemory.free(address);
+        }
+    }
+}
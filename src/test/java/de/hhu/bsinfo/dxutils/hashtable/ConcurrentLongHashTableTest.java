@@ -0,0 +1,104 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLongHashTableTest {
+    private static final int THREADS = 4;
+
+    @Test
+    public void singleThreaded() {
+        ConcurrentLongHashTable table = new ConcurrentLongHashTable(16);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(20000) + 1;
+
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals((long) reference.getOrDefault(key, -1L), table.remove(key));
+                reference.remove(key);
+            } else {
+                Assert.assertEquals((long) reference.getOrDefault(key, -1L), table.put(key, i));
+                reference.put(key, (long) i);
+            }
+        }
+
+        Assert.assertEquals(reference.size(), table.size());
+        for (long key = 1; key <= 20000; key++) {
+            Assert.assertEquals((long) reference.getOrDefault(key, -1L), table.get(key));
+        }
+
+        Assert.assertEquals(-1, table.putIfAbsent(-5, 0));
+        Assert.assertEquals(0, table.putIfAbsent(-5, 1));
+        Assert.assertEquals(0, table.get(-5));
+    }
+
+    @Test
+    public void concurrentPutGetRemove() throws InterruptedException {
+        ConcurrentLongHashTable table = new ConcurrentLongHashTable(16);
+        AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++) {
+            final long base = (long) t << 32;
+
+            threads[t] = new Thread(() -> {
+                for (long key = 1; key <= 100000; key++) {
+                    table.put(base + key, key);
+                }
+                for (long key = 1; key <= 100000; key++) {
+                    if (table.get(base + key) != key) {
+                        errors.incrementAndGet();
+                    }
+                    if (key % 2 == 0 && table.remove(base + key) != key) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(THREADS * 50000, table.size());
+        for (int t = 0; t < THREADS; t++) {
+            for (long key = 1; key <= 100000; key++) {
+                Assert.assertEquals(key % 2 == 0 ? -1 : key, table.get(((long) t << 32) + key));
+            }
+        }
+    }
+
+    @Test
+    public void concurrentPutIfAbsent() throws InterruptedException {
+        ConcurrentLongHashTable table = new ConcurrentLongHashTable(16);
+        AtomicInteger winners = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++) {
+            final long value = t;
+
+            threads[t] = new Thread(() -> {
+                for (long key = 1; key <= 100000; key++) {
+                    if (table.putIfAbsent(key, value) == -1) {
+                        winners.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(100000, winners.get());
+        Assert.assertEquals(100000, table.size());
+    }
+}
@@ -0,0 +1,93 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashSetTest {
+    private static final int[] MODES = {HashTableMode.DEFAULT, HashTableMode.POWER_OF_TWO, HashTableMode.ROBIN_HOOD,
+            HashTableMode.POWER_OF_TWO | HashTableMode.ROBIN_HOOD};
+
+    @Test
+    public void longHashSet() {
+        for (int mode : MODES) {
+            LongHashSet set = new LongHashSet(10, mode);
+            Set<Long> reference = new HashSet<>();
+            Random random = new Random(1);
+
+            for (int i = 0; i < 100000; i++) {
+                long element = random.nextInt(20000) - 10;
+
+                if (random.nextInt(3) == 0) {
+                    Assert.assertEquals(reference.remove(element), set.remove(element));
+                } else {
+                    Assert.assertEquals(reference.add(element), set.add(element));
+                }
+            }
+
+            Assert.assertEquals(reference.size(), set.size());
+            for (long element = -10; element < 20000; element++) {
+                Assert.assertEquals(reference.contains(element), set.contains(element));
+            }
+
+            Set<Long> visited = new HashSet<>();
+            set.forEach(visited::add);
+            Assert.assertEquals(reference, visited);
+        }
+    }
+
+    @Test
+    public void intHashSetUnionIntersection() {
+        for (int mode : MODES) {
+            IntHashSet even = new IntHashSet(10, mode);
+            IntHashSet third = new IntHashSet(10, mode);
+
+            for (int i = 0; i < 10000; i++) {
+                even.add(i * 2);
+                third.add(i * 3);
+            }
+
+            IntHashSet union = new IntHashSet(10, mode);
+            Assert.assertTrue(union.addAll(even));
+            Assert.assertTrue(union.addAll(third));
+            Assert.assertFalse(union.addAll(even));
+            Assert.assertEquals(10000 + 10000 - 3334, union.size());
+
+            Assert.assertTrue(even.retainAll(third));
+            Assert.assertFalse(even.retainAll(third));
+            Assert.assertEquals(3334, even.size());
+            for (int i = 0; i < 30000; i++) {
+                Assert.assertEquals(i % 6 == 0 && i < 20000, even.contains(i));
+                Assert.assertEquals(i % 2 == 0 && i < 20000 || i % 3 == 0, union.contains(i));
+            }
+        }
+    }
+
+    @Test
+    public void shortHashSet() {
+        ShortHashSet set = new ShortHashSet();
+        int count = 0;
+
+        for (int i = Short.MIN_VALUE; i <= Short.MAX_VALUE; i += 0x40) {
+            Assert.assertTrue(set.add((short) i));
+        }
+        Assert.assertFalse(set.add((short) 0));
+        Assert.assertTrue(set.remove((short) 0x40));
+        Assert.assertFalse(set.contains((short) 0x40));
+        Assert.assertEquals(1023, set.size());
+
+        ShortHashSet.Cursor cursor = set.cursor();
+        while (cursor.next()) {
+            Assert.assertEquals(0, cursor.key() % 0x40);
+            count++;
+        }
+        Assert.assertEquals(1023, count);
+
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains((short) 0));
+    }
+}
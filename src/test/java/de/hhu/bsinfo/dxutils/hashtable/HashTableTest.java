@@ -0,0 +1,275 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+
+public class HashTableTest {
+    private static final int[] MODES =
+            {HashTableMode.DEFAULT, HashTableMode.POWER_OF_TWO, HashTableMode.ROBIN_HOOD,
+                    HashTableMode.POWER_OF_TWO | HashTableMode.ROBIN_HOOD, HashTableMode.INCREMENTAL_REHASH,
+                    HashTableMode.POWER_OF_TWO | HashTableMode.ROBIN_HOOD | HashTableMode.INCREMENTAL_REHASH};
+
+    @Test
+    public void longHashTable() {
+        for (int mode : MODES) {
+            LongHashTable table = new LongHashTable(10, mode);
+            Map<Long, Long> reference = new HashMap<>();
+            Random random = new Random(1);
+
+            for (int i = 0; i < 100000; i++) {
+                long key = random.nextInt(20000) + 1;
+
+                if (random.nextInt(3) == 0) {
+                    Assert.assertEquals((long) reference.getOrDefault(key, -1L), table.remove(key));
+                    reference.remove(key);
+                } else {
+                    table.put(key, i);
+                    reference.put(key, (long) i);
+                }
+            }
+
+            Assert.assertEquals(reference.size(), table.size());
+            for (long key = 1; key <= 20000; key++) {
+                Assert.assertEquals((long) reference.getOrDefault(key, -1L), table.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void longIntHashTable() {
+        for (int mode : MODES) {
+            LongIntHashTable table = new LongIntHashTable(10, mode);
+
+            for (long key = 1; key <= 10000; key++) {
+                table.put(key << 20, (int) key);
+            }
+            table.add(1 << 20, 5);
+
+            Assert.assertEquals(10000, table.size());
+            Assert.assertEquals(6, table.get(1 << 20));
+            for (long key = 2; key <= 10000; key++) {
+                Assert.assertEquals((int) key, table.get(key << 20));
+            }
+            Assert.assertEquals(-1, table.get(10001L << 20));
+
+            for (long key = 1; key <= 10000; key += 2) {
+                Assert.assertEquals(key == 1 ? 6 : (int) key, table.remove(key << 20));
+            }
+            Assert.assertEquals(5000, table.size());
+            for (long key = 1; key <= 10000; key++) {
+                Assert.assertEquals(key % 2 == 0 ? (int) key : -1, table.get(key << 20));
+            }
+        }
+    }
+
+    @Test
+    public void intTables() {
+        for (int mode : MODES) {
+            IntHashTable intTable = new IntHashTable(10, mode);
+            IntLongHashTable intLongTable = new IntLongHashTable(10, mode);
+
+            for (int key = 1; key <= 10000; key++) {
+                intTable.put(key, key * 2);
+                intLongTable.put(key, key * 10000000000L);
+            }
+
+            Assert.assertEquals(10000, intTable.size());
+            Assert.assertEquals(10000, intLongTable.size());
+            for (int key = 1; key <= 10000; key++) {
+                Assert.assertEquals(key * 2, intTable.get(key));
+                Assert.assertEquals(key * 10000000000L, intLongTable.get(key));
+            }
+
+            for (int key = 1; key <= 10000; key += 2) {
+                Assert.assertEquals(key * 2, intTable.remove(key));
+                Assert.assertEquals(key * 10000000000L, intLongTable.remove(key));
+            }
+            Assert.assertEquals(-1, intTable.remove(1));
+            for (int key = 1; key <= 10000; key++) {
+                Assert.assertEquals(key % 2 == 0 ? key * 2 : -1, intTable.get(key));
+                Assert.assertEquals(key % 2 == 0 ? key * 10000000000L : -1, intLongTable.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void genericHashTable() {
+        for (int mode : MODES) {
+            GenericHashTable<String> table = new GenericHashTable<>(10, mode);
+
+            for (long key = 0; key < 10000; key++) {
+                table.put(key, "v" + key);
+            }
+
+            Assert.assertEquals(10000, table.size());
+            for (long key = 0; key < 10000; key++) {
+                Assert.assertEquals("v" + key, table.get(key));
+            }
+            Assert.assertNull(table.get(10000));
+
+            for (long key = 0; key < 10000; key += 3) {
+                Assert.assertEquals("v" + key, table.remove(key));
+            }
+            Assert.assertEquals(6666, table.size());
+            for (long key = 0; key < 10000; key++) {
+                Assert.assertEquals(key % 3 == 0 ? null : "v" + key, table.get(key));
+            }
+
+            // The key 0 is stored outside of the slots
+            table.put(0, "v0");
+            Assert.assertEquals(6667, table.size());
+            Assert.assertEquals(6667, table.values(String.class).length);
+            Assert.assertEquals(6667, table.convert().size());
+            GenericHashTable<String>.Cursor cursor = table.cursor();
+            int count = 0;
+            while (cursor.next()) {
+                Assert.assertEquals("v" + cursor.key(), cursor.value());
+                count++;
+            }
+            Assert.assertEquals(6667, count);
+        }
+    }
+
+    @Test
+    public void robinHoodProbeLength() {
+        LongHashTable linear = new LongHashTable(1 << 16, HashTableMode.POWER_OF_TWO);
+        LongHashTable robinHood = new LongHashTable(1 << 16, HashTableMode.POWER_OF_TWO | HashTableMode.ROBIN_HOOD);
+        Random random = new Random(2);
+
+        // Fill close to the load factor without triggering a rehash
+        for (int i = 0; i < 58000; i++) {
+            long key = random.nextLong() | 1;
+            linear.put(key, i);
+            robinHood.put(key, i);
+        }
+
+        Assert.assertEquals(linear.size(), robinHood.size());
+        Assert.assertEquals(linear.getAverageProbeLength(), robinHood.getAverageProbeLength(), 0.0001);
+        Assert.assertTrue(robinHood.getMaxProbeLength() < linear.getMaxProbeLength());
+    }
+
+    @Test
+    public void incrementalRehash() {
+        LongHashTable table = new LongHashTable(1000, HashTableMode.POWER_OF_TWO | HashTableMode.INCREMENTAL_REHASH);
+
+        // 921 entries exceed the load factor of 1024 slots, the old table is kept during the following puts
+        for (long key = 1; key <= 930; key++) {
+            table.put(key, key * 2);
+        }
+
+        Assert.assertEquals(2048, table.capacity());
+        Assert.assertEquals(930, table.size());
+        for (long key = 1; key <= 930; key++) {
+            Assert.assertEquals(key * 2, table.get(key));
+        }
+
+        Assert.assertEquals(2, table.remove(1));
+        Assert.assertEquals(-1, table.get(1));
+        Assert.assertEquals(929, table.convert().size());
+        Assert.assertEquals(929, table.size());
+    }
+
+    @Test
+    public void iterationAndExport() {
+        LongIntHashTable table = new LongIntHashTable(10, HashTableMode.INCREMENTAL_REHASH);
+        long[] sum = new long[1];
+
+        for (long key = 1; key <= 1000; key++) {
+            table.put(key, (int) key);
+        }
+
+        table.forEach((p_key, p_value) -> sum[0] += p_key + p_value);
+        Assert.assertEquals(1001000, sum[0]);
+
+        LongIntHashTable.Cursor cursor = table.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            Assert.assertEquals(cursor.key(), cursor.value());
+            count++;
+        }
+        Assert.assertEquals(1000, count);
+
+        ByteBuffer buffer = ByteBuffer.allocate(table.sizeofObject());
+        new ByteBufferImExporter(buffer).exportObject(table);
+        Assert.assertFalse(buffer.hasRemaining());
+
+        for (int mode : MODES) {
+            LongIntHashTable restored = new LongIntHashTable(10, mode);
+
+            buffer.flip();
+            new ByteBufferImExporter(buffer).importObject(restored);
+
+            Assert.assertEquals(1000, restored.size());
+            for (long key = 1; key <= 1000; key++) {
+                Assert.assertEquals((int) key, restored.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void batches() {
+        for (int mode : MODES) {
+            LongIntHashTable table = new LongIntHashTable(10, mode);
+            long[] keys = new long[1000];
+            int[] values = new int[1000];
+            int[] result = new int[1000];
+
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = i + 1;
+                values[i] = i;
+            }
+            table.putAll(keys, values);
+
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = i * 2 + 1;
+                values[i] = -i;
+            }
+            table.putAll(keys, values);
+
+            Assert.assertEquals(1500, table.size());
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = i + 1;
+            }
+            table.getAll(keys, result);
+            for (int i = 0; i < keys.length; i++) {
+                Assert.assertEquals(i % 2 == 0 ? -i / 2 : i, result[i]);
+            }
+        }
+    }
+
+    @Test
+    public void hashStrategies() {
+        HashStrategy[] strategies =
+                {HashStrategy.MURMUR3, HashStrategy.MIX64, HashStrategy.FIBONACCI, HashStrategy.IDENTITY};
+
+        // The upper half of a key must not be ignored (node IDs of chunk IDs)
+        Assert.assertNotEquals(HashFunctionCollection.hash(1L << 48), HashFunctionCollection.hash(2L << 48));
+        Assert.assertNotEquals(HashFunctionCollection.hash(1L << 56), HashFunctionCollection.hash(2L << 56));
+
+        for (HashStrategy strategy : strategies) {
+            // Identity hashing is not suited for the power of two mode
+            int mode = strategy == HashStrategy.IDENTITY ? HashTableMode.DEFAULT : HashTableMode.POWER_OF_TWO;
+            LongHashTable table = new LongHashTable(10, mode, strategy);
+
+            for (long node = 1; node <= 4; node++) {
+                for (long local = 1; local <= 1000; local++) {
+                    table.put(node << 48 | local, local);
+                }
+            }
+
+            Assert.assertEquals(4000, table.size());
+            for (long node = 1; node <= 4; node++) {
+                for (long local = 1; local <= 1000; local++) {
+                    Assert.assertEquals(local, table.get(node << 48 | local));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.hhu.bsinfo.dxutils.hashtable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapHashTableTest {
+
+    @Test
+    public void longHashTable() {
+        OffHeapLongHashTable table = new OffHeapLongHashTable(10);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(1);
+
+        try {
+            for (int i = 0; i < 100000; i++) {
+                long key = random.nextInt(20000) + 1;
+
+                if (random.nextInt(3) == 0) {
+                    Assert.assertEquals((long) reference.getOrDefault(key, -1L), table.remove(key));
+                    reference.remove(key);
+                } else {
+                    table.put(key, i * 10000000000L);
+                    reference.put(key, i * 10000000000L);
+                }
+            }
+
+            Assert.assertEquals(reference.size(), table.size());
+            for (long key = 1; key <= 20000; key++) {
+                Assert.assertEquals((long) reference.getOrDefault(key, -1L), table.get(key));
+            }
+
+            table.clear();
+            Assert.assertTrue(table.isEmpty());
+            Assert.assertEquals(-1, table.get(1));
+        } finally {
+            table.free();
+        }
+    }
+
+    @Test
+    public void longIntHashTable() {
+        OffHeapLongIntHashTable table = new OffHeapLongIntHashTable();
+
+        try {
+            for (long key = 1; key <= 10000; key++) {
+                table.put(key << 40, (int) key);
+            }
+            Assert.assertEquals(1, table.add(1L << 40, 5));
+            Assert.assertEquals(-1, table.add(10001L << 40, 7));
+
+            Assert.assertEquals(10001, table.size());
+            Assert.assertEquals(16384, table.capacity());
+            Assert.assertEquals(6, table.get(1L << 40));
+            for (long key = 2; key <= 10000; key++) {
+                Assert.assertEquals((int) key, table.get(key << 40));
+            }
+
+            for (long key = 2; key <= 10000; key += 2) {
+                Assert.assertEquals((int) key, table.remove(key << 40));
+            }
+            for (long key = 2; key <= 10000; key++) {
+                Assert.assertEquals(key % 2 == 0 ? -1 : (int) key, table.get(key << 40));
+            }
+            Assert.assertEquals(7, table.get(10001L << 40));
+        } finally {
+            table.free();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DynamicBufferExporterTest {
+
+    @Test
+    public void gatheringWrite() throws IOException {
+        File file = File.createTempFile("dynamic", ".dat");
+        file.deleteOnExit();
+
+        DynamicBufferExporter exporter = new DynamicBufferExporter();
+        int[] ints = new int[100000];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = i;
+        }
+
+        // Spans several segments, values which do not fit leave the end of a segment unused
+        FileChannelImExporterTest.write(exporter);
+        exporter.writeIntArray(ints);
+        for (long i = 0; i < 10000; i++) {
+            exporter.writeByte((byte) i);
+            exporter.writeLong(i);
+        }
+        Assert.assertTrue(exporter.getBuffers().length > 1);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            Assert.assertEquals(exporter.getSize(), exporter.writeTo(channel));
+        }
+        Assert.assertEquals(exporter.getSize(), file.length());
+        exporter.release();
+
+        FileChannelImExporter importer = new FileChannelImExporter(file);
+        FileChannelImExporterTest.read(importer);
+        Assert.assertArrayEquals(ints, importer.readIntArray(null));
+        for (long i = 0; i < 10000; i++) {
+            Assert.assertEquals((byte) i, importer.readByte((byte) 0));
+            Assert.assertEquals(i, importer.readLong(0));
+        }
+        importer.close();
+    }
+
+    @Test
+    public void pooledSegments() {
+        DynamicBufferExporter exporter = new DynamicBufferExporter();
+
+        exporter.writeInt(1);
+        ByteBuffer segment = exporter.getBuffers()[0];
+        Assert.assertEquals(Integer.BYTES, segment.remaining());
+        exporter.release();
+
+        exporter.writeLong(2);
+        Assert.assertSame(segment, exporter.getBuffers()[0]);
+        Assert.assertEquals(Long.BYTES, exporter.getSize());
+        Assert.assertEquals(2, exporter.getBuffers()[0].getLong(0));
+        exporter.release();
+    }
+}
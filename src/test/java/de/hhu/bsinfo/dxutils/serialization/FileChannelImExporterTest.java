@@ -0,0 +1,117 @@
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileChannelImExporterTest {
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = File.createTempFile("filechannel", ".dat");
+        file.deleteOnExit();
+
+        // A tiny buffer to split the arrays into several blocks
+        for (int bufferSize : new int[] {16, 1024 * 1024}) {
+            FileChannelImExporter exporter = new FileChannelImExporter(file, bufferSize);
+            write(exporter);
+            exporter.close();
+
+            FileChannelImExporter importer = new FileChannelImExporter(file, bufferSize);
+            read(importer);
+            importer.close();
+        }
+    }
+
+    @Test
+    public void compatibleWithRandomAccessFile() throws IOException {
+        File file = File.createTempFile("filechannel", ".dat");
+        file.deleteOnExit();
+
+        RandomAccessFileImExporter exporter = new RandomAccessFileImExporter(file);
+        write(exporter);
+        exporter.close();
+
+        FileChannelImExporter importer = new FileChannelImExporter(file, 64);
+        read(importer);
+        importer.close();
+    }
+
+    @Test
+    public void mixedReadWrite() throws IOException {
+        File file = File.createTempFile("filechannel", ".dat");
+        file.deleteOnExit();
+
+        FileChannelImExporter imExporter = new FileChannelImExporter(file, 16);
+        for (int i = 0; i < 100; i++) {
+            imExporter.writeInt(i);
+        }
+        imExporter.close();
+
+        // Read the first value, overwrite the second one and read the third one
+        imExporter = new FileChannelImExporter(file, 16);
+        Assert.assertEquals(0, imExporter.readInt(0));
+        imExporter.writeInt(-1);
+        Assert.assertEquals(2, imExporter.readInt(0));
+        imExporter.close();
+
+        imExporter = new FileChannelImExporter(file, 16);
+        int[] values = new int[100];
+        imExporter.readInts(values);
+        Assert.assertEquals(-1, values[1]);
+        Assert.assertEquals(99, values[99]);
+        imExporter.close();
+    }
+
+    static void write(final Exporter p_exporter) {
+        p_exporter.writeBoolean(true);
+        p_exporter.writeByte((byte) 7);
+        p_exporter.writeShort((short) -2);
+        p_exporter.writeChar('x');
+        p_exporter.writeInt(123456789);
+        p_exporter.writeLong(Long.MIN_VALUE + 1);
+        p_exporter.writeFloat(1.5f);
+        p_exporter.writeDouble(-2.25);
+        p_exporter.writeCompactNumber(300);
+        p_exporter.writeString("dxutils");
+        p_exporter.writeByteArray(bytes(100));
+        p_exporter.writeIntArray(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+        p_exporter.writeLongArray(new long[] {-1, 0, 1, Long.MAX_VALUE});
+        p_exporter.writeShortArray(new short[] {1, -1});
+        p_exporter.writeCharArray("chars".toCharArray());
+        p_exporter.writeFloatArray(new float[] {0.5f, 1.5f, 2.5f});
+        p_exporter.writeDoubleArray(new double[] {0.25, 1e100});
+    }
+
+    static void read(final Importer p_importer) {
+        Assert.assertTrue(p_importer.readBoolean(false));
+        Assert.assertEquals(7, p_importer.readByte((byte) 0));
+        Assert.assertEquals(-2, p_importer.readShort((short) 0));
+        Assert.assertEquals('x', p_importer.readChar(' '));
+        Assert.assertEquals(123456789, p_importer.readInt(0));
+        Assert.assertEquals(Long.MIN_VALUE + 1, p_importer.readLong(0));
+        Assert.assertEquals(1.5f, p_importer.readFloat(0), 0);
+        Assert.assertEquals(-2.25, p_importer.readDouble(0), 0);
+        Assert.assertEquals(300, p_importer.readCompactNumber(0));
+        Assert.assertEquals("dxutils", p_importer.readString(null));
+        Assert.assertArrayEquals(bytes(100), p_importer.readByteArray(null));
+        Assert.assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9}, p_importer.readIntArray(null));
+        Assert.assertArrayEquals(new long[] {-1, 0, 1, Long.MAX_VALUE}, p_importer.readLongArray(null));
+        Assert.assertArrayEquals(new short[] {1, -1}, p_importer.readShortArray(null));
+        Assert.assertArrayEquals("chars".toCharArray(), p_importer.readCharArray(null));
+        Assert.assertArrayEquals(new float[] {0.5f, 1.5f, 2.5f}, p_importer.readFloatArray(null), 0);
+        Assert.assertArrayEquals(new double[] {0.25, 1e100}, p_importer.readDoubleArray(null), 0);
+    }
+
+    private static byte[] bytes(final int p_length) {
+        byte[] ret = new byte[p_length];
+
+        for (int i = 0; i < p_length; i++) {
+            ret[i] = (byte) i;
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,65 @@
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MappedFileImExporterTest {
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = File.createTempFile("mapped", ".dat");
+        file.deleteOnExit();
+
+        // A tiny window to cross window boundaries within primitives and arrays
+        for (long windowSize : new long[] {13, 1024 * 1024}) {
+            MappedFileImExporter exporter = new MappedFileImExporter(file, windowSize);
+            FileChannelImExporterTest.write(exporter);
+            long size = exporter.getPosition();
+            exporter.close();
+            Assert.assertEquals(size, file.length());
+
+            MappedFileImExporter importer = new MappedFileImExporter(file, windowSize);
+            FileChannelImExporterTest.read(importer);
+            Assert.assertEquals(size, importer.getPosition());
+            importer.close();
+        }
+    }
+
+    @Test
+    public void compatibleWithFileChannel() throws IOException {
+        File file = File.createTempFile("mapped", ".dat");
+        file.deleteOnExit();
+
+        FileChannelImExporter exporter = new FileChannelImExporter(file);
+        FileChannelImExporterTest.write(exporter);
+        exporter.close();
+
+        MappedFileImExporter importer = new MappedFileImExporter(file, 64);
+        FileChannelImExporterTest.read(importer);
+        importer.close();
+
+        MappedFileImExporter mappedExporter = new MappedFileImExporter(file);
+        FileChannelImExporterTest.write(mappedExporter);
+        mappedExporter.close();
+
+        FileChannelImExporter fileChannelImporter = new FileChannelImExporter(file);
+        FileChannelImExporterTest.read(fileChannelImporter);
+        fileChannelImporter.close();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void endOfFile() throws IOException {
+        File file = File.createTempFile("mapped", ".dat");
+        file.deleteOnExit();
+
+        MappedFileImExporter imExporter = new MappedFileImExporter(file);
+        imExporter.writeInt(1);
+        imExporter.close();
+
+        imExporter = new MappedFileImExporter(file);
+        imExporter.readLong(0);
+    }
+}
@@ -0,0 +1,76 @@
+package de.hhu.bsinfo.dxutils.serialization;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringCodecTest {
+    private static final String[] STRINGS =
+            {"", "dxutils", "Düsseldorf", "ναι", "节点", "😀 smiley", "unpaired \uD800 surrogate"};
+
+    @Test
+    public void utf8() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        ByteBufferImExporter imExporter = new ByteBufferImExporter(buffer);
+
+        for (String str : STRINGS) {
+            byte[] expected = str.getBytes(StandardCharsets.UTF_8);
+            Assert.assertEquals(expected.length, StringCodec.utf8Length(str));
+
+            buffer.clear();
+            imExporter.writeString(str);
+            Assert.assertEquals(ObjectSizeUtil.sizeofString(str), buffer.position());
+
+            buffer.flip();
+            Assert.assertArrayEquals(expected, imExporter.readByteArray(null));
+
+            buffer.rewind();
+            Assert.assertEquals(new String(expected, StandardCharsets.UTF_8), imExporter.readString(null));
+        }
+    }
+
+    @Test
+    public void malformed() {
+        byte[] bytes = {'a', (byte) 0xC3, 'b', (byte) 0xFF, (byte) 0xE8, (byte) 0x8A};
+        Assert.assertEquals("a\uFFFDb\uFFFD\uFFFD", StringCodec.decode(bytes, 0, bytes.length));
+
+        // Overlong forms of NUL, '/' and DEL, encoded surrogates and code points beyond U+10FFFF are rejected
+        byte[][] inputs = {{(byte) 0xC0, (byte) 0x80}, {(byte) 0xE0, (byte) 0x80, (byte) 0xAF},
+                {(byte) 0xC1, (byte) 0xBF}, {(byte) 0xF0, (byte) 0x80, (byte) 0x80, (byte) 0xAF},
+                {(byte) 0xED, (byte) 0xA0, (byte) 0x80}, {(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80},
+                {(byte) 0xF5, 'x'}, {(byte) 0xE2, (byte) 0x82, 'x', (byte) 0xF0, (byte) 0x9F, (byte) 0x98}};
+
+        for (byte[] input : inputs) {
+            String decoded = StringCodec.decode(input, 0, input.length);
+
+            Assert.assertEquals(new String(input, StandardCharsets.UTF_8), decoded);
+            Assert.assertTrue(decoded.indexOf('\uFFFD') >= 0);
+        }
+    }
+
+    @Test
+    public void dictionary() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        ByteBufferImExporter imExporter = new ByteBufferImExporter(buffer);
+        StringDictionary dictionary = new StringDictionary(16, 8);
+
+        imExporter.writeString("node");
+        imExporter.writeString("node");
+        imExporter.writeString("a longer string");
+        imExporter.writeString("a longer string");
+        buffer.flip();
+
+        imExporter.setStringDictionary(dictionary);
+        String first = imExporter.readString(null);
+        Assert.assertSame(first, imExporter.readString(null));
+        Assert.assertEquals("node", first);
+
+        // Too long to be interned
+        String longer = imExporter.readString(null);
+        String second = imExporter.readString(null);
+        Assert.assertEquals(longer, second);
+        Assert.assertNotSame(longer, second);
+    }
+}
@@ -0,0 +1,60 @@
+package de.hhu.bsinfo.dxutils.serialization;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.UnsafeMemory;
+
+public class UnsafeImExporterTest {
+
+    @Test
+    public void roundTrip() {
+        long address = UnsafeMemory.allocate(1024);
+
+        try {
+            UnsafeImExporter exporter = new UnsafeImExporter(address, 1024);
+            FileChannelImExporterTest.write(exporter);
+            int size = exporter.getPosition();
+
+            UnsafeImExporter importer = new UnsafeImExporter(address, size);
+            FileChannelImExporterTest.read(importer);
+            Assert.assertEquals(size, importer.getPosition());
+        } finally {
+            UnsafeMemory.free(address);
+        }
+    }
+
+    @Test
+    public void arrayRanges() {
+        long address = UnsafeMemory.allocate(1024);
+
+        try {
+            UnsafeImExporter imExporter = new UnsafeImExporter(address, 1024);
+            imExporter.writeLongs(new long[] {1, 2, 3, 4}, 1, 2);
+            imExporter.writeShorts(new short[] {5, 6, 7}, 2, 1);
+
+            long[] longs = new long[4];
+            short[] shorts = new short[2];
+            imExporter.setPosition(0);
+            imExporter.readLongs(longs, 2, 2);
+            imExporter.readShorts(shorts, 1, 1);
+
+            Assert.assertArrayEquals(new long[] {0, 0, 2, 3}, longs);
+            Assert.assertArrayEquals(new short[] {0, 7}, shorts);
+            Assert.assertEquals(2 * Long.BYTES + Short.BYTES, imExporter.getPosition());
+        } finally {
+            UnsafeMemory.free(address);
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void boundsChecked() {
+        long address = UnsafeMemory.allocate(8);
+
+        try {
+            new UnsafeImExporter(address, 8).writeInts(new int[3]);
+        } finally {
+            UnsafeMemory.free(address);
+        }
+    }
+}